@@ -0,0 +1,236 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import model.Item;
+
+/**
+ * Running totals for reports: what each member earned and spent on rentals, what each item and
+ * category brought in, and how many items of each category are lent out now.
+ *
+ * <p>The totals are updated when a booking is made and when a contract starts or ends, so every
+ * figure is read in constant time and no report walks the contracts. Member and item totals are
+ * kept in arrays indexed by the dense ids, like the balances of the {@link CreditLedger}.
+ *
+ * <p>Updates and reads are synchronized on the aggregates, so a read waits for an update in
+ * progress and never sees half of one.
+ */
+public class Aggregates {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private long[] memberEarnings = new long[INITIAL_CAPACITY];
+  private long[] memberSpend = new long[INITIAL_CAPACITY];
+  private long[] itemRevenue = new long[INITIAL_CAPACITY];
+  private final Map<String, CategoryTotals> categories = new HashMap<>();
+
+  /**
+   * Records a rental whose borrower and owner both belong to this system.
+   *
+   * @param borrowerId the id of the borrower
+   * @param item       the rented item
+   * @param credits    the rental fee
+   * @param days       the number of days the item is booked
+   */
+  synchronized void recordRental(long borrowerId, Item item, int credits, long days) {
+    recordSpend(borrowerId, credits);
+    recordEarning(item, credits, days);
+  }
+
+  /**
+   * Records the owner's side of a rental: the fee the owner earned and the item brought in.
+   *
+   * @param item    the rented item
+   * @param credits the rental fee
+   * @param days    the number of days the item is booked
+   */
+  synchronized void recordEarning(Item item, int credits, long days) {
+    long ownerId = item.getOwner().getId();
+    memberEarnings = grow(memberEarnings, ownerId);
+    memberEarnings[(int) ownerId] += credits;
+    itemRevenue = grow(itemRevenue, item.getId());
+    itemRevenue[(int) item.getId()] += credits;
+    CategoryTotals totals = totalsFor(item.getCategory());
+    totals.contracts++;
+    totals.bookedDays += days;
+    totals.revenue += credits;
+  }
+
+  /**
+   * Records the borrower's side of a rental: the fee the borrower paid.
+   *
+   * @param borrowerId the id of the borrower
+   * @param credits    the rental fee
+   */
+  synchronized void recordSpend(long borrowerId, int credits) {
+    memberSpend = grow(memberSpend, borrowerId);
+    memberSpend[(int) borrowerId] += credits;
+  }
+
+  /**
+   * Records that an item of a category was lent out or came back.
+   *
+   * @param category the category of the item
+   * @param delta    1 when a contract becomes active, -1 when it stops being active
+   */
+  synchronized void recordActiveChange(String category, int delta) {
+    totalsFor(category).activeContracts += delta;
+  }
+
+  /**
+   * Returns the rental fees a member has earned as an owner.
+   *
+   * @param memberId the member
+   * @return the credits earned, 0 for an unknown member
+   */
+  public synchronized long earningsOf(long memberId) {
+    return valueAt(memberEarnings, memberId);
+  }
+
+  /**
+   * Returns the rental fees a member has paid as a borrower.
+   *
+   * @param memberId the member
+   * @return the credits spent, 0 for an unknown member
+   */
+  public synchronized long spendOf(long memberId) {
+    return valueAt(memberSpend, memberId);
+  }
+
+  /**
+   * Returns the rental fees an item has brought in.
+   *
+   * @param itemId the item
+   * @return the credits, 0 for an unknown item
+   */
+  public synchronized long revenueOf(long itemId) {
+    return valueAt(itemRevenue, itemId);
+  }
+
+  /**
+   * Returns the totals of a category as of this call.
+   *
+   * @param category the category
+   * @return a copy of the totals, all zero for a category without contracts
+   */
+  public synchronized CategoryTotals totalsOf(String category) {
+    CategoryTotals totals = categories.get(category);
+    return totals == null ? new CategoryTotals() : totals.copy();
+  }
+
+  /**
+   * Returns the members who earned the most, best first. Reads the per-member totals, not the
+   * contracts.
+   *
+   * @param limit the maximum number of members
+   * @return the member ids, leaving out members who earned nothing
+   */
+  public synchronized long[] topEarners(int limit) {
+    return top(memberEarnings, limit);
+  }
+
+  /**
+   * Returns the members who spent the most, best first.
+   *
+   * @param limit the maximum number of members
+   * @return the member ids, leaving out members who spent nothing
+   */
+  public synchronized long[] topSpenders(int limit) {
+    return top(memberSpend, limit);
+  }
+
+  /**
+   * Returns the items that brought in the most, best first.
+   *
+   * @param limit the maximum number of items
+   * @return the item ids, leaving out items that brought in nothing
+   */
+  public synchronized long[] topItems(int limit) {
+    return top(itemRevenue, limit);
+  }
+
+  private CategoryTotals totalsFor(String category) {
+    return categories.computeIfAbsent(category, key -> new CategoryTotals());
+  }
+
+  private static long valueAt(long[] values, long id) {
+    return id > 0 && id < values.length ? values[(int) id] : 0;
+  }
+
+  private static long[] grow(long[] values, long id) {
+    if (id <= 0 || id >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Id out of range: " + id);
+    }
+    if (id < values.length) {
+      return values;
+    }
+    return Arrays.copyOf(values, (int) Math.min(Integer.MAX_VALUE - 8,
+        Math.max(id + 1, values.length * 2L)));
+  }
+
+  private static long[] top(long[] values, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative");
+    }
+    // A min-heap of the best ids so far; ties keep the lower id.
+    PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, limit), (a, b) ->
+        values[a] != values[b] ? Long.compare(values[a], values[b]) : Integer.compare(b, a));
+    for (int id = 1; id < values.length && limit > 0; id++) {
+      if (values[id] == 0) {
+        continue;
+      }
+      if (best.size() < limit) {
+        best.add(id);
+      } else if (values[id] > values[best.peek()]) {
+        best.poll();
+        best.add(id);
+      }
+    }
+    long[] ids = new long[best.size()];
+    for (int i = ids.length - 1; i >= 0; i--) {
+      ids[i] = best.poll();
+    }
+    return ids;
+  }
+
+  /**
+   * The totals of one category.
+   */
+  public static final class CategoryTotals {
+    private long contracts;
+    private long bookedDays;
+    private long revenue;
+    private int activeContracts;
+
+    private CategoryTotals copy() {
+      CategoryTotals copy = new CategoryTotals();
+      copy.contracts = contracts;
+      copy.bookedDays = bookedDays;
+      copy.revenue = revenue;
+      copy.activeContracts = activeContracts;
+      return copy;
+    }
+
+    public long getContracts() {
+      return contracts;
+    }
+
+    public long getBookedDays() {
+      return bookedDays;
+    }
+
+    public long getRevenue() {
+      return revenue;
+    }
+
+    /**
+     * Returns the number of items of the category lent out on the current day.
+     *
+     * @return the number of active contracts
+     */
+    public int getActiveContracts() {
+      return activeContracts;
+    }
+  }
+}
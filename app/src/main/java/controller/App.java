@@ -1,20 +1,57 @@
 package controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import javax.management.JMException;
+import view.HttpApi;
 import view.View;
 
 /**
  * The main application class for the Lending System.
  */
 public class App {
+  private static final String METRICS_MBEAN_NAME = "stufflending:type=Metrics";
 
   /**
-   * The entry point of the application.
+   * The entry point of the application. Pass {@code --journal <file>} to keep the state in a
+   * journal file across runs, and {@code --snapshot <file>} as well to start from snapshots.
+   * {@code --archive <file>}, which needs a journal, moves completed contracts out of memory into
+   * a contract archive.
+   * {@code --import-members}, {@code --import-items} and {@code --import-contracts}, each
+   * followed by a CSV or JSON Lines file, bulk load data before the menu is shown.
+   * {@code --page-size <n>} sets how many entries a listing shows per page.
+   * {@code --script <file>} runs a command script instead of showing the menu; a file name of
+   * {@code -} reads the script from standard input. See {@link ScriptRunner} for the commands.
+   * {@code --http <port>} serves the JSON API of {@link HttpApi} on the loopback interface while
+   * the menu runs; {@code --http-threads <n>} runs its requests on a pool of n threads instead
+   * of the default executor. {@code --metrics} starts with statistics collection on; it can
+   * also be switched from the menu or over JMX, where the metrics are registered as
+   * {@code stufflending:type=Metrics}.
    *
    * @param args command-line arguments
+   * @throws IOException if the journal cannot be read or written
    */
-  public static void main(String[] args) {
-    LendingSystem lendingSystem = new LendingSystem();
-    View view = new View();
+  public static void main(String[] args) throws IOException {
+    LendingSystem lendingSystem = createLendingSystem(args);
+    String pageSize = optionValue(args, "--page-size");
+    View view = pageSize == null ? new View() : new View(Integer.parseInt(pageSize));
+    registerMetrics(lendingSystem, args, view);
+    importFiles(lendingSystem, args, view);
+    String script = optionValue(args, "--script");
+    if (script != null) {
+      runScript(lendingSystem, script, view);
+      lendingSystem.close();
+      return;
+    }
+    HttpApi httpApi = startHttpApi(lendingSystem, args, view);
     boolean running = true;
 
     while (running) {
@@ -47,11 +84,122 @@ public class App {
           view.advanceTime(lendingSystem);
           break;
         case 9:
+          view.browseCategories(lendingSystem);
+          break;
+        case 10:
+          view.searchItems(lendingSystem);
+          break;
+        case 11:
+          view.advanceDays(lendingSystem);
+          break;
+        case 12:
+          view.findAvailableItems(lendingSystem);
+          break;
+        case 13:
+          view.showStatistics(lendingSystem);
+          break;
+        case 14:
+          view.displayContractHistory(lendingSystem);
+          break;
+        case 15:
+          view.displayReports(lendingSystem);
+          break;
+        case 0:
           running = view.exitSystem();
           break;
         default:
           view.displayMessage("Invalid option! Please try again.");
       }
     }
+    if (httpApi != null) {
+      httpApi.close();
+    }
+    lendingSystem.close();
+  }
+
+  private static LendingSystem createLendingSystem(String[] args) throws IOException {
+    String journal = optionValue(args, "--journal");
+    String archive = optionValue(args, "--archive");
+    if (journal == null) {
+      if (archive != null) {
+        throw new IllegalArgumentException("--archive needs --journal");
+      }
+      return new LendingSystem();
+    }
+    String snapshot = optionValue(args, "--snapshot");
+    return LendingSystem.open(Paths.get(journal), snapshot == null ? null : Paths.get(snapshot),
+        archive == null ? null : Paths.get(archive));
+  }
+
+  private static void importFiles(LendingSystem lendingSystem, String[] args, View view)
+      throws IOException {
+    String members = optionValue(args, "--import-members");
+    String items = optionValue(args, "--import-items");
+    String contracts = optionValue(args, "--import-contracts");
+    if (members == null && items == null && contracts == null) {
+      return;
+    }
+    try (BulkImporter importer = new BulkImporter(lendingSystem)) {
+      // Members before items before contracts, since each refers to the previous ones.
+      if (members != null) {
+        view.displayMessage(importer.importMembers(Paths.get(members)).toString());
+      }
+      if (items != null) {
+        view.displayMessage(importer.importItems(Paths.get(items)).toString());
+      }
+      if (contracts != null) {
+        view.displayMessage(importer.importContracts(Paths.get(contracts)).toString());
+      }
+    }
+  }
+
+  private static void registerMetrics(LendingSystem lendingSystem, String[] args, View view) {
+    Metrics metrics = lendingSystem.getMetrics();
+    metrics.setEnabled(Arrays.asList(args).contains("--metrics"));
+    try {
+      metrics.register(METRICS_MBEAN_NAME);
+    } catch (JMException e) {
+      view.displayMessage("Could not register the metrics MBean: " + e.getMessage());
+    }
+  }
+
+  private static HttpApi startHttpApi(LendingSystem lendingSystem, String[] args, View view)
+      throws IOException {
+    String port = optionValue(args, "--http");
+    if (port == null) {
+      return null;
+    }
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+        Integer.parseInt(port));
+    String threads = optionValue(args, "--http-threads");
+    HttpApi httpApi = threads == null ? HttpApi.start(lendingSystem, address)
+        : HttpApi.start(lendingSystem, address, Integer.parseInt(threads));
+    view.displayMessage("HTTP API listening on http://" + address.getHostString() + ":"
+        + httpApi.getPort());
+    return httpApi;
+  }
+
+  private static void runScript(LendingSystem lendingSystem, String script, View view)
+      throws IOException {
+    ScriptRunner runner = new ScriptRunner(lendingSystem);
+    Writer output = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+    ScriptReport report;
+    if ("-".equals(script)) {
+      BufferedReader input = new BufferedReader(
+          new InputStreamReader(System.in, StandardCharsets.UTF_8));
+      report = runner.run(input, output);
+    } else {
+      report = runner.run(Paths.get(script), output);
+    }
+    view.displayMessage(report.toString());
+  }
+
+  private static String optionValue(String[] args, String option) {
+    for (int i = 0; i < args.length - 1; i++) {
+      if (option.equals(args[i])) {
+        return args[i + 1];
+      }
+    }
+    return null;
   }
-}
\ No newline at end of file
+}
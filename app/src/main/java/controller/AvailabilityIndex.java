@@ -0,0 +1,301 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "which items of a category are free on every day from A to B" with bitmaps instead of
+ * checking items one by one.
+ *
+ * <p>Items are identified by their dense numeric ids. Days are grouped into aligned blocks of 1,
+ * 2, 4, 8, ... days, like the nodes of a segment tree, and a block has up to two bitmaps: the
+ * items booked on every one of its days and the items booked on at least one. A range of days
+ * splits into at most two blocks per size. A booking marks the blocks its range splits into as
+ * booked throughout, and every block holding its first or last day as booked in part, which
+ * covers all blocks that contain one of the former. A query ORs the partly booked bitmaps of the
+ * blocks its range splits into with the fully booked bitmaps of the blocks holding its first or
+ * last day, then clears those bits from the category bitmap. Booking and querying therefore
+ * touch a number of bitmaps logarithmic in the length of the range, whatever the number of
+ * bookings: a booking of a century costs about as much as one of a week.
+ *
+ * <p>Bitmaps are split into chunks of 4096 ids that are only allocated once an id in them is
+ * set, so a block with a handful of bookings costs a few hundred bytes. Blocks that end before
+ * the horizon set with {@link #dropBefore} are dropped, so the index only holds what bookings
+ * take from the current day on, not every booking ever made.
+ */
+public class AvailabilityIndex {
+  private static final int CHUNK_SHIFT = 12;
+  private static final int WORDS_PER_CHUNK = (1 << CHUNK_SHIFT) / Long.SIZE;
+  // Blocks of up to 2^40 days, enough to cover every LocalDate.
+  private static final int LEVELS = 41;
+  private static final long MAX_DAY = 1L << (LEVELS - 1);
+
+  // Keyed by block, see blockKey.
+  private final Map<Long, Bitmap> fullyBooked = new HashMap<>();
+  private final Map<Long, Bitmap> partlyBooked = new HashMap<>();
+  private final Map<String, Bitmap> itemsByCategory = new HashMap<>();
+  private final Bitmap allItems = new Bitmap();
+  // The largest level with a fully booked block, so queries skip the levels above.
+  private int highestFullLevel;
+  // Block keys by the first day after the block, when they can be dropped.
+  private final EventScheduler<Long> expiries = new EventScheduler<>();
+  private long horizon = -MAX_DAY;
+
+  /**
+   * Registers an item under its category.
+   *
+   * @param category the category of the item, may be null
+   * @param itemId   the id of the item
+   * @throws IllegalArgumentException if the id is not a positive int
+   */
+  public synchronized void addItem(String category, long itemId) {
+    int id = checkId(itemId);
+    allItems.set(id);
+    if (category != null) {
+      itemsByCategory.computeIfAbsent(category, key -> new Bitmap()).set(id);
+    }
+  }
+
+  /**
+   * Marks an item as booked on every day from startDay to endDay inclusive. Days before the
+   * horizon are left out.
+   *
+   * @param itemId   the id of the item
+   * @param startDay the first booked epoch day
+   * @param endDay   the last booked epoch day
+   * @throws IllegalArgumentException if the id is not a positive int, endDay is before
+   *                                  startDay or a day is 2^40 or more days from the epoch
+   */
+  public synchronized void markBooked(long itemId, long startDay, long endDay) {
+    final int id = checkId(itemId);
+    checkDays(startDay, endDay);
+    if (endDay < horizon) {
+      return;
+    }
+    long first = Math.max(startDay, horizon);
+    // The larger blocks first, so that every marked block has its larger blocks marked.
+    markPartlyUpwards(first, id);
+    markPartlyUpwards(endDay, id);
+    long last = endDay;
+    for (int level = 0; first <= last; level++) {
+      if ((first & 1) != 0) {
+        markFull(level, first++, id);
+      }
+      if ((last & 1) == 0 && first <= last) {
+        markFull(level, last--, id);
+      }
+      first >>= 1;
+      last >>= 1;
+    }
+  }
+
+  /**
+   * Forgets every booked day before the given day, dropping the blocks that end before it. Later
+   * bookings of such days are ignored and queries treat them as free, so callers use this for
+   * days that are over. The horizon never moves back.
+   *
+   * @param day the first epoch day to keep
+   */
+  public synchronized void dropBefore(long day) {
+    if (day <= horizon) {
+      return;
+    }
+    horizon = Math.min(day, MAX_DAY);
+    expiries.drainThrough(horizon, key -> {
+      fullyBooked.remove(key);
+      partlyBooked.remove(key);
+    });
+  }
+
+  /**
+   * Returns the first day the index still knows the bookings of.
+   *
+   * @return the epoch day set by {@link #dropBefore}, or a day before any date if none was set
+   */
+  public synchronized long getHorizon() {
+    return horizon;
+  }
+
+  /**
+   * Returns the ids of the items in a category that are not booked on any day from startDay to
+   * endDay inclusive. Days before the horizon count as free.
+   *
+   * @param category the category, or null for all items
+   * @param startDay the first epoch day of the range
+   * @param endDay   the last epoch day of the range
+   * @return the free item ids in ascending order
+   * @throws IllegalArgumentException if endDay is before startDay or a day is 2^40 or more days
+   *                                  from the epoch
+   */
+  public synchronized long[] freeItems(String category, long startDay, long endDay) {
+    checkDays(startDay, endDay);
+    Bitmap candidates = category == null ? allItems : itemsByCategory.get(category);
+    if (candidates == null) {
+      return new long[0];
+    }
+    List<Bitmap> booked = endDay < horizon ? List.of()
+        : bookedCovering(Math.max(startDay, horizon), endDay);
+    long[] free = new long[64];
+    int count = 0;
+    long[] words = new long[WORDS_PER_CHUNK];
+    for (int chunk = 0; chunk < candidates.chunks.length; chunk++) {
+      long[] items = candidates.chunks[chunk];
+      if (items == null) {
+        continue;
+      }
+      System.arraycopy(items, 0, words, 0, WORDS_PER_CHUNK);
+      for (Bitmap taken : booked) {
+        long[] takenWords = taken.chunk(chunk);
+        if (takenWords != null) {
+          for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+            words[w] &= ~takenWords[w];
+          }
+        }
+      }
+      for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+        long word = words[w];
+        while (word != 0) {
+          if (count == free.length) {
+            free = Arrays.copyOf(free, count * 2);
+          }
+          free[count++] = ((long) chunk << CHUNK_SHIFT) + (long) w * Long.SIZE
+              + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+        }
+      }
+    }
+    return Arrays.copyOf(free, count);
+  }
+
+  /**
+   * Collects the bitmaps whose items together are those booked on some day of the range: the
+   * partly booked items of the blocks the range splits into, and the fully booked items of the
+   * blocks holding its first or last day. Every other block is either inside one of the former
+   * or shares no day with the range.
+   */
+  private List<Bitmap> bookedCovering(long startDay, long endDay) {
+    List<Bitmap> covering = new ArrayList<>();
+    long first = startDay;
+    long last = endDay;
+    for (int level = 0; first <= last; level++) {
+      if ((first & 1) != 0) {
+        addIfPresent(covering, partlyBooked.get(blockKey(level, first++)));
+      }
+      if ((last & 1) == 0 && first <= last) {
+        addIfPresent(covering, partlyBooked.get(blockKey(level, last--)));
+      }
+      first >>= 1;
+      last >>= 1;
+    }
+    // Blocks inside the range are inside one it splits into, so only those sticking out count.
+    for (int level = 0; level <= highestFullLevel; level++) {
+      long startBlock = startDay >> level;
+      long endBlock = endDay >> level;
+      if (startBlock << level < startDay || (startBlock + 1 << level) - 1 > endDay) {
+        addIfPresent(covering, fullyBooked.get(blockKey(level, startBlock)));
+      }
+      if (endBlock != startBlock && (endBlock + 1 << level) - 1 > endDay) {
+        addIfPresent(covering, fullyBooked.get(blockKey(level, endBlock)));
+      }
+    }
+    return covering;
+  }
+
+  private void markFull(int level, long block, int id) {
+    fullyBooked.computeIfAbsent(blockKey(level, block), key -> new Bitmap()).set(id);
+    partlyBooked(level, block).set(id);
+    highestFullLevel = Math.max(highestFullLevel, level);
+  }
+
+  /**
+   * Returns the partly booked bitmap of a block, creating it and scheduling the block to be
+   * dropped after its last day if needed. A fully booked bitmap never exists without it.
+   */
+  private Bitmap partlyBooked(int level, long block) {
+    long key = blockKey(level, block);
+    Bitmap bitmap = partlyBooked.get(key);
+    if (bitmap == null) {
+      bitmap = new Bitmap();
+      partlyBooked.put(key, bitmap);
+      expiries.schedule((block + 1) << level, key);
+    }
+    return bitmap;
+  }
+
+  /**
+   * Marks the item as partly booked in every block holding the day. A block that already has
+   * the item marked has it marked in all larger blocks too, so the walk stops there.
+   */
+  private void markPartlyUpwards(long day, int id) {
+    for (int level = 0; level < LEVELS; level++) {
+      if (!partlyBooked(level, day >> level).set(id)) {
+        return;
+      }
+    }
+  }
+
+  private static void addIfPresent(List<Bitmap> bitmaps, Bitmap bitmap) {
+    if (bitmap != null) {
+      bitmaps.add(bitmap);
+    }
+  }
+
+  /**
+   * Packs a level and the index of a block at that level, which is the first day of the block
+   * shifted right by the level, into one key.
+   */
+  private static long blockKey(int level, long block) {
+    return block << 6 | level;
+  }
+
+  private static void checkDays(long startDay, long endDay) {
+    if (endDay < startDay) {
+      throw new IllegalArgumentException("End day cannot be before start day");
+    }
+    if (startDay <= -MAX_DAY || endDay >= MAX_DAY) {
+      throw new IllegalArgumentException("Day out of range");
+    }
+  }
+
+  private static int checkId(long itemId) {
+    if (itemId <= 0 || itemId >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Id out of range: " + itemId);
+    }
+    return (int) itemId;
+  }
+
+  /**
+   * A set of ids stored as lazily allocated chunks of 4096 bits.
+   */
+  private static final class Bitmap {
+    private long[][] chunks = new long[1][];
+
+    /**
+     * Sets the bit of an id.
+     *
+     * @return true if the bit was not set before
+     */
+    boolean set(int id) {
+      int chunk = id >>> CHUNK_SHIFT;
+      if (chunk >= chunks.length) {
+        chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+      }
+      long[] words = chunks[chunk];
+      if (words == null) {
+        words = new long[WORDS_PER_CHUNK];
+        chunks[chunk] = words;
+      }
+      int bit = id & ((1 << CHUNK_SHIFT) - 1);
+      long before = words[bit >>> 6];
+      words[bit >>> 6] = before | 1L << bit;
+      return (before & 1L << bit) == 0;
+    }
+
+    long[] chunk(int chunk) {
+      return chunk < chunks.length ? chunks[chunk] : null;
+    }
+  }
+}
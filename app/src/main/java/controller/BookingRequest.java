@@ -0,0 +1,49 @@
+package controller;
+
+import java.time.LocalDate;
+
+/**
+ * One booking of a batch passed to {@link LendingSystem#createLendingContracts}.
+ */
+public final class BookingRequest {
+  private final String borrowerName;
+  private final String itemName;
+  private final LocalDate startDate;
+  private final LocalDate endDate;
+
+  /**
+   * Creates a booking request.
+   *
+   * @param borrowerName the name of the borrower
+   * @param itemName     the name of the item
+   * @param startDate    the first day of the booking
+   * @param endDate      the last day of the booking
+   * @throws IllegalArgumentException if a date is null
+   */
+  public BookingRequest(String borrowerName, String itemName, LocalDate startDate,
+      LocalDate endDate) {
+    if (startDate == null || endDate == null) {
+      throw new IllegalArgumentException("Start and end date cannot be null");
+    }
+    this.borrowerName = borrowerName;
+    this.itemName = itemName;
+    this.startDate = startDate;
+    this.endDate = endDate;
+  }
+
+  public String getBorrowerName() {
+    return borrowerName;
+  }
+
+  public String getItemName() {
+    return itemName;
+  }
+
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  public LocalDate getEndDate() {
+    return endDate;
+  }
+}
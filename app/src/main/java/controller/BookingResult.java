@@ -0,0 +1,32 @@
+package controller;
+
+/**
+ * The outcome of one booking of a batch passed to {@link LendingSystem#createLendingContracts}.
+ */
+public enum BookingResult {
+  /** The contract was created. */
+  CREATED(LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE),
+  /** No member has the borrower's name. */
+  UNKNOWN_BORROWER(LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE),
+  /** No item has the item's name. */
+  UNKNOWN_ITEM(LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE),
+  /** The item is booked on one of the days, or the end date is before the start date. */
+  NOT_AVAILABLE(LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE),
+  /** The borrower cannot pay for the booking. */
+  INSUFFICIENT_CREDITS(LendingSystem.INSUFFICIENT_CREDITS_MESSAGE);
+
+  private final String message;
+
+  BookingResult(String message) {
+    this.message = message;
+  }
+
+  /**
+   * Returns the message {@link LendingSystem#createLendingContract} gives for the same outcome.
+   *
+   * @return the message
+   */
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,281 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.Item;
+import model.Member;
+import persistence.RecordParser;
+
+/**
+ * Streams members, items and historical contracts from CSV or JSON Lines files into a lending
+ * system.
+ *
+ * <p>CSV files start with a header row naming their columns; JSON Lines files (.jsonl or .ndjson)
+ * hold one object per line with the same keys. The columns are:
+ * <ul>
+ *   <li>members: name, email, phone</li>
+ *   <li>items: owner, name, description, category, costPerDay</li>
+ *   <li>contracts: borrower, item, startDate, endDate (yyyy-mm-dd)</li>
+ * </ul>
+ *
+ * <p>Lines are read in chunks that are parsed on a thread pool while earlier chunks are applied.
+ * Only a few chunks are in flight at a time, so memory stays bounded whatever the file size.
+ * Chunks are applied in file order, each as one journal batch. Names of imported members and
+ * items are indexed once at the end of their file. The other indexes (category, search,
+ * availability and member lookup) are still updated per row: their additions are appends that
+ * cost no more one at a time than in bulk, and deferring them would hide imported entries from
+ * concurrent readers until the file is done. Rows missing a required field are rejected.
+ * Contracts go through the normal booking rules, so a contract for a taken period or without
+ * enough credits is rejected.
+ */
+public class BulkImporter implements AutoCloseable {
+  private static final int CHUNK_LINES = 8192;
+  private static final String[] MEMBER_COLUMNS = {"name", "email", "phone"};
+  private static final String[] ITEM_COLUMNS = {
+      "owner", "name", "description", "category", "costPerDay"};
+  private static final String[] CONTRACT_COLUMNS = {"borrower", "item", "startDate", "endDate"};
+
+  private final LendingSystem system;
+  private final ExecutorService parsers;
+  private final int maxChunksInFlight;
+
+  /**
+   * Creates an importer that parses on one thread per available processor.
+   *
+   * @param system the lending system to import into
+   */
+  public BulkImporter(LendingSystem system) {
+    this(system, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates an importer with the given number of parser threads.
+   *
+   * @param system        the lending system to import into
+   * @param parserThreads the number of threads parsing chunks
+   */
+  public BulkImporter(LendingSystem system, int parserThreads) {
+    this.system = system;
+    this.parsers = Executors.newFixedThreadPool(Math.max(1, parserThreads), task -> {
+      Thread thread = new Thread(task, "bulk-import-parser");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.maxChunksInFlight = 2 * Math.max(1, parserThreads);
+  }
+
+  /**
+   * Imports members.
+   *
+   * @param file the members file
+   * @return the outcome of the import
+   * @throws IOException if the file cannot be read or lacks a column
+   */
+  public ImportReport importMembers(Path file) throws IOException {
+    Registry<Member> registry = system.memberRegistry();
+    registry.deferNameIndex();
+    try {
+      return importFile(file, MEMBER_COLUMNS, row -> {
+        if (row[0] == null || row[0].isEmpty()) {
+          return false;
+        }
+        system.addMember(row[0], orEmpty(row[1]), orEmpty(row[2]));
+        return true;
+      });
+    } finally {
+      registry.indexDeferredNames();
+    }
+  }
+
+  /**
+   * Imports items. Owners must already exist.
+   *
+   * @param file the items file
+   * @return the outcome of the import
+   * @throws IOException if the file cannot be read or lacks a column
+   */
+  public ImportReport importItems(Path file) throws IOException {
+    Registry<Item> registry = system.itemRegistry();
+    registry.deferNameIndex();
+    try {
+      return importFile(file, ITEM_COLUMNS, row -> {
+        if (system.findMember(row[0]) == null || row[1] == null || row[4] == null) {
+          return false;
+        }
+        system.addItem(row[0], row[1], orEmpty(row[2]), orEmpty(row[3]),
+            Integer.parseInt(row[4].trim()));
+        return true;
+      });
+    } finally {
+      registry.indexDeferredNames();
+    }
+  }
+
+  /**
+   * Imports historical contracts. Borrowers and items must already exist.
+   *
+   * @param file the contracts file
+   * @return the outcome of the import
+   * @throws IOException if the file cannot be read or lacks a column
+   */
+  public ImportReport importContracts(Path file) throws IOException {
+    return importFile(file, CONTRACT_COLUMNS, row -> {
+      if (row[0] == null || row[1] == null || row[2] == null || row[3] == null) {
+        return false;
+      }
+      String message = system.createLendingContract(row[0], row[1],
+          LocalDate.parse(row[2].trim()), LocalDate.parse(row[3].trim()));
+      return LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE.equals(message);
+    });
+  }
+
+  @Override
+  public void close() {
+    parsers.shutdown();
+  }
+
+  private ImportReport importFile(Path file, String[] columns, RowHandler handler)
+      throws IOException {
+    long started = System.nanoTime();
+    boolean json = isJsonLines(file);
+    long[] counts = new long[2];
+    long rowsRead = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      int[] csvPositions = json ? null : csvPositions(reader.readLine(), columns, file);
+      Deque<Future<List<String[]>>> inFlight = new ArrayDeque<>();
+      List<String> chunk = new ArrayList<>(CHUNK_LINES);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        rowsRead++;
+        chunk.add(line);
+        if (chunk.size() == CHUNK_LINES) {
+          inFlight.add(submitParse(chunk, columns, csvPositions));
+          chunk = new ArrayList<>(CHUNK_LINES);
+          if (inFlight.size() >= maxChunksInFlight) {
+            apply(inFlight.poll(), handler, counts);
+          }
+        }
+      }
+      if (!chunk.isEmpty()) {
+        inFlight.add(submitParse(chunk, columns, csvPositions));
+      }
+      while (!inFlight.isEmpty()) {
+        apply(inFlight.poll(), handler, counts);
+      }
+    }
+    return new ImportReport(fileName(file), rowsRead, counts[0],
+        System.nanoTime() - started);
+  }
+
+  private Future<List<String[]>> submitParse(List<String> lines, String[] columns,
+      int[] csvPositions) {
+    return parsers.submit(() -> {
+      List<String[]> rows = new ArrayList<>(lines.size());
+      for (String line : lines) {
+        rows.add(parseRow(line, columns, csvPositions));
+      }
+      return rows;
+    });
+  }
+
+  private void apply(Future<List<String[]>> parsed, RowHandler handler, long[] counts)
+      throws IOException {
+    List<String[]> rows;
+    try {
+      rows = parsed.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Import interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Parsing failed", e.getCause());
+    }
+    system.runInBatch(() -> {
+      for (String[] row : rows) {
+        boolean accepted = false;
+        if (row != null) {
+          try {
+            accepted = handler.apply(row);
+          } catch (IllegalArgumentException | DateTimeParseException e) {
+            accepted = false;
+          }
+        }
+        counts[accepted ? 0 : 1]++;
+      }
+    });
+  }
+
+  private static String[] parseRow(String line, String[] columns, int[] csvPositions) {
+    try {
+      String[] row = new String[columns.length];
+      if (csvPositions == null) {
+        Map<String, String> values = RecordParser.parseJsonObject(line);
+        for (int i = 0; i < columns.length; i++) {
+          row[i] = values.get(columns[i]);
+        }
+      } else {
+        List<String> fields = RecordParser.parseCsvLine(line);
+        for (int i = 0; i < columns.length; i++) {
+          row[i] = csvPositions[i] < fields.size() ? fields.get(csvPositions[i]) : null;
+        }
+      }
+      return row;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static int[] csvPositions(String header, String[] columns, Path file)
+      throws IOException {
+    if (header == null) {
+      throw new IOException("Missing header row in " + file);
+    }
+    List<String> names = RecordParser.parseCsvLine(header);
+    int[] positions = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      positions[i] = names.indexOf(columns[i]);
+      if (positions[i] < 0) {
+        throw new IOException("Missing column '" + columns[i] + "' in " + file);
+      }
+    }
+    return positions;
+  }
+
+  private static boolean isJsonLines(Path file) {
+    String name = fileName(file).toLowerCase(Locale.ROOT);
+    return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+  }
+
+  private static String fileName(Path file) {
+    Path name = file.getFileName();
+    return name == null ? file.toString() : name.toString();
+  }
+
+  private static String orEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  /**
+   * Applies one parsed row to the lending system.
+   */
+  private interface RowHandler {
+    boolean apply(String[] row);
+  }
+}
@@ -0,0 +1,182 @@
+package controller;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Groups entries by category and counts them per category.
+ *
+ * <p>Category strings are dictionary encoded: each distinct category gets a small integer code
+ * and a single canonical string, handed out by {@link #intern(String)}. Entries built with the
+ * canonical string share it instead of each holding their own copy.
+ *
+ * <p>Each category keeps its entries in insertion order in an array, so counts are O(1) and a
+ * page of a category is an index range. Lookups may run concurrently with additions.
+ *
+ * @param <T> the type of entry being grouped
+ */
+public class CategoryIndex<T> {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final Map<String, Integer> codes;
+  private String[] names;
+  private Object[][] entries;
+  private int[] sizes;
+  private int categoryCount;
+
+  /**
+   * Creates an empty index.
+   */
+  public CategoryIndex() {
+    this.codes = new HashMap<>();
+    this.names = new String[INITIAL_CAPACITY];
+    this.entries = new Object[INITIAL_CAPACITY][];
+    this.sizes = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Returns the canonical string for a category, registering the category if it is new.
+   *
+   * @param category the category
+   * @return the canonical instance equal to the category, or null for a null category
+   */
+  public synchronized String intern(String category) {
+    if (category == null) {
+      return null;
+    }
+    // Resolved before reading names, which codeOf may replace with a larger array.
+    int code = codeOf(category);
+    return names[code];
+  }
+
+  /**
+   * Adds an entry to a category.
+   *
+   * @param category the category of the entry
+   * @param entry    the entry
+   * @throws IllegalArgumentException if the category or entry is null
+   */
+  public synchronized void add(String category, T entry) {
+    if (category == null || entry == null) {
+      throw new IllegalArgumentException("Category and entry cannot be null");
+    }
+    int code = codeOf(category);
+    Object[] bucket = entries[code];
+    if (sizes[code] == bucket.length) {
+      bucket = Arrays.copyOf(bucket, bucket.length * 2);
+      entries[code] = bucket;
+    }
+    bucket[sizes[code]++] = entry;
+  }
+
+  /**
+   * Returns the number of entries in a category.
+   *
+   * @param category the category
+   * @return the number of entries, 0 for an unknown category
+   */
+  public synchronized int count(String category) {
+    Integer code = category == null ? null : codes.get(category);
+    return code == null ? 0 : sizes[code];
+  }
+
+  /**
+   * Returns the number of entries in every non-empty category, in the order the categories
+   * were first seen.
+   *
+   * @return a map from category to number of entries
+   */
+  public synchronized Map<String, Integer> counts() {
+    Map<String, Integer> counts = new LinkedHashMap<>(categoryCount * 2);
+    for (int code = 0; code < categoryCount; code++) {
+      if (sizes[code] > 0) {
+        counts.put(names[code], sizes[code]);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Returns the entries of a category as of this call, in insertion order. The list is a
+   * read-only view and does not copy the entries; later additions do not show up in it.
+   *
+   * @param category the category
+   * @return the entries of the category, empty for an unknown category
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized List<T> entriesOf(String category) {
+    Integer code = category == null ? null : codes.get(category);
+    if (code == null || sizes[code] == 0) {
+      return Collections.emptyList();
+    }
+    return new Prefix<>((T[]) entries[code], sizes[code]);
+  }
+
+  /**
+   * Returns one page of the entries of a category.
+   *
+   * @param category the category
+   * @param offset   the index of the first entry of the page
+   * @param limit    the maximum number of entries on the page
+   * @return the entries of the page, empty if the offset is past the end
+   * @throws IllegalArgumentException if offset or limit is negative
+   */
+  public List<T> page(String category, int offset, int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("Offset and limit cannot be negative");
+    }
+    List<T> all = entriesOf(category);
+    int from = Math.min(offset, all.size());
+    return all.subList(from, (int) Math.min(all.size(), (long) from + limit));
+  }
+
+  private int codeOf(String category) {
+    Integer existing = codes.get(category);
+    if (existing != null) {
+      return existing;
+    }
+    int code = categoryCount++;
+    if (code == names.length) {
+      names = Arrays.copyOf(names, code * 2);
+      entries = Arrays.copyOf(entries, code * 2);
+      sizes = Arrays.copyOf(sizes, code * 2);
+    }
+    names[code] = category;
+    entries[code] = new Object[INITIAL_CAPACITY];
+    codes.put(category, code);
+    return code;
+  }
+
+  /**
+   * The first entries of a bucket. Buckets only ever grow, and a grown bucket is a new array,
+   * so the slots below the captured size never change.
+   */
+  private static final class Prefix<T> extends AbstractList<T> implements RandomAccess {
+    private final T[] array;
+    private final int size;
+
+    Prefix(T[] array, int size) {
+      this.array = array;
+      this.size = size;
+    }
+
+    @Override
+    public T get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+      }
+      return array[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
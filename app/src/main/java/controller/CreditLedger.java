@@ -0,0 +1,290 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only record of every credit movement, with the resulting balance of each member.
+ *
+ * <p>Entries are stored column by column in primitive arrays and balances in an array indexed
+ * by member id, so the ledger holds no object per entry. An entry either grants credits to a
+ * member out of nothing, transfers credits from one member to another, or withdraws credits
+ * from a member. Grants and withdrawals are the only way credits enter or leave the ledger, so
+ * the balances always sum to the total granted less the total withdrawn; {@link #verify} checks
+ * that by replaying the entries in parallel. Withdrawals only occur when the system is split
+ * into shards, each with its own ledger, and a rental fee moves between two of them.
+ *
+ * <p>Appends are serialized; reads may run concurrently with them.
+ */
+public class CreditLedger {
+  /** Balance a member had when the state was loaded from a snapshot. */
+  public static final byte OPENING_BALANCE = 1;
+  /** Credits a new member starts with. */
+  public static final byte SIGN_UP_GRANT = 2;
+  /** Credits granted to the owner for listing an item. */
+  public static final byte LISTING_BONUS = 3;
+  /** Rental fee moved from the borrower to the owner of an item. */
+  public static final byte RENTAL = 4;
+  /** Rental fee paid to an owner whose borrower's balance is kept in another ledger. */
+  public static final byte CROSS_SHARD_CREDIT = 5;
+  /** Rental fee paid by a borrower whose item's owner is kept in another ledger. */
+  public static final byte CROSS_SHARD_DEBIT = 6;
+
+  /** Member id used as the source of grants. Real member ids start at 1. */
+  static final int SYSTEM = 0;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private byte[] types;
+  private int[] sources;
+  private int[] targets;
+  private int[] amounts;
+  private long[] references;
+  private int size;
+  private long[] balances;
+  private long totalGranted;
+
+  /**
+   * Visits ledger entries.
+   */
+  @FunctionalInterface
+  public interface EntryVisitor {
+    /**
+     * Called for one entry.
+     *
+     * @param type      the kind of movement
+     * @param fromId    the id of the paying member, 0 for a grant
+     * @param toId      the id of the receiving member, 0 for a withdrawal
+     * @param amount    the number of credits moved
+     * @param reference the id of the item or contract the movement is for, 0 if none
+     */
+    void visit(byte type, long fromId, long toId, int amount, long reference);
+  }
+
+  /**
+   * Creates an empty ledger.
+   */
+  public CreditLedger() {
+    this.types = new byte[INITIAL_CAPACITY];
+    this.sources = new int[INITIAL_CAPACITY];
+    this.targets = new int[INITIAL_CAPACITY];
+    this.amounts = new int[INITIAL_CAPACITY];
+    this.references = new long[INITIAL_CAPACITY];
+    this.balances = new long[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Records credits granted to a member.
+   *
+   * @param type      {@link #OPENING_BALANCE}, {@link #SIGN_UP_GRANT} or {@link #LISTING_BONUS}
+   * @param memberId  the receiving member
+   * @param amount    the number of credits
+   * @param reference the id of the item the grant is for, 0 if none
+   */
+  public synchronized void recordGrant(byte type, long memberId, int amount, long reference) {
+    append(type, SYSTEM, checkedIndex(memberId), amount, reference);
+    totalGranted += amount;
+  }
+
+  /**
+   * Records credits taken from a member and paid out of this ledger.
+   *
+   * @param type      the kind of movement, {@link #CROSS_SHARD_DEBIT}
+   * @param memberId  the paying member
+   * @param amount    the number of credits
+   * @param reference the id of the contract the withdrawal is for
+   */
+  public synchronized void recordWithdrawal(byte type, long memberId, int amount,
+      long reference) {
+    int from = checkedIndex(memberId);
+    append(type, from, SYSTEM, amount, reference);
+    balances[from] -= amount;
+    totalGranted -= amount;
+  }
+
+  /**
+   * Records credits moved from one member to another.
+   *
+   * @param type      the kind of movement, {@link #RENTAL}
+   * @param fromId    the paying member
+   * @param toId      the receiving member
+   * @param amount    the number of credits
+   * @param reference the id of the contract the transfer is for
+   */
+  public synchronized void recordTransfer(byte type, long fromId, long toId, int amount,
+      long reference) {
+    int from = checkedIndex(fromId);
+    append(type, from, checkedIndex(toId), amount, reference);
+    balances[from] -= amount;
+  }
+
+  /**
+   * Records several transfers of one kind under a single acquisition of the ledger, such as
+   * the rental fees of a batch of bookings.
+   *
+   * @param type       the kind of movement, {@link #RENTAL}
+   * @param fromIds    the paying member of each transfer
+   * @param toIds      the receiving member of each transfer
+   * @param amounts    the number of credits of each transfer
+   * @param references the id of the contract each transfer is for
+   * @param count      the number of transfers, from the start of the arrays
+   */
+  public synchronized void recordTransfers(byte type, long[] fromIds, long[] toIds,
+      int[] amounts, long[] references, int count) {
+    for (int i = 0; i < count; i++) {
+      int from = checkedIndex(fromIds[i]);
+      append(type, from, checkedIndex(toIds[i]), amounts[i], references[i]);
+      balances[from] -= amounts[i];
+    }
+  }
+
+  /**
+   * Returns the balance of a member according to the ledger.
+   *
+   * @param memberId the member
+   * @return the balance, 0 for a member without entries
+   */
+  public synchronized long balanceOf(long memberId) {
+    return memberId > 0 && memberId < balances.length ? balances[(int) memberId] : 0;
+  }
+
+  /**
+   * Returns the number of entries.
+   *
+   * @return the number of entries
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the total of all grants less all withdrawals, which the balances must add up to.
+   *
+   * @return the net total granted
+   */
+  public synchronized long getTotalGranted() {
+    return totalGranted;
+  }
+
+  /**
+   * Visits the entries present when the call starts, oldest first.
+   *
+   * @param visitor receives each entry
+   */
+  public void forEachEntry(EntryVisitor visitor) {
+    View view = view();
+    for (int i = 0; i < view.size; i++) {
+      visitor.visit(view.types[i], view.sources[i], view.targets[i], view.amounts[i],
+          view.references[i]);
+    }
+  }
+
+  /**
+   * Recomputes every balance from the entries and compares the result with the maintained
+   * balances. The entries are split into ranges that are replayed on parallel threads into
+   * per-range balance deltas, which are then summed per member, again in parallel.
+   *
+   * @return the outcome of the check
+   */
+  public LedgerReport verify() {
+    final long started = System.nanoTime();
+    View view = view();
+    int members = view.balances.length;
+    int ranges = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+        view.size / 65_536 + 1));
+    long[][] deltas = new long[ranges][];
+    IntStream.range(0, ranges).parallel().forEach(range -> {
+      long[] delta = new long[members];
+      int from = (int) ((long) view.size * range / ranges);
+      int to = (int) ((long) view.size * (range + 1) / ranges);
+      for (int i = from; i < to; i++) {
+        delta[view.sources[i]] -= view.amounts[i];
+        delta[view.targets[i]] += view.amounts[i];
+      }
+      deltas[range] = delta;
+    });
+    long[] replayed = new long[members];
+    IntStream.range(0, members).parallel().forEach(member -> {
+      long balance = 0;
+      for (long[] delta : deltas) {
+        balance += delta[member];
+      }
+      replayed[member] = balance;
+    });
+
+    // The system account pays out every grant and takes in every withdrawal, so it ends at
+    // minus the net total granted.
+    long total = Arrays.stream(replayed, 1, members).parallel().sum();
+    int mismatches = 0;
+    for (int member = 1; member < members; member++) {
+      if (replayed[member] != view.balances[member]) {
+        mismatches++;
+      }
+    }
+    return new LedgerReport(view.size, view.totalGranted, total, -replayed[SYSTEM],
+        mismatches, System.nanoTime() - started);
+  }
+
+  private void append(byte type, int from, int to, int amount, long reference) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Amount cannot be negative");
+    }
+    if (size == types.length) {
+      int capacity = size * 2;
+      types = Arrays.copyOf(types, capacity);
+      sources = Arrays.copyOf(sources, capacity);
+      targets = Arrays.copyOf(targets, capacity);
+      amounts = Arrays.copyOf(amounts, capacity);
+      references = Arrays.copyOf(references, capacity);
+    }
+    types[size] = type;
+    sources[size] = from;
+    targets[size] = to;
+    amounts[size] = amount;
+    references[size] = reference;
+    size++;
+    balances[to] += amount;
+  }
+
+  private int checkedIndex(long memberId) {
+    if (memberId <= 0 || memberId >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Member id out of range: " + memberId);
+    }
+    if (memberId >= balances.length) {
+      balances = Arrays.copyOf(balances, (int) Math.min(Integer.MAX_VALUE - 8,
+          Math.max(memberId + 1, balances.length * 2L)));
+    }
+    return (int) memberId;
+  }
+
+  /**
+   * Captures the arrays and the number of entries. Appends only write past the captured size or
+   * into new arrays, so the captured prefix never changes.
+   */
+  private synchronized View view() {
+    return new View(types, sources, targets, amounts, references, size, balances.clone(),
+        totalGranted);
+  }
+
+  private static final class View {
+    private final byte[] types;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] amounts;
+    private final long[] references;
+    private final int size;
+    private final long[] balances;
+    private final long totalGranted;
+
+    View(byte[] types, int[] sources, int[] targets, int[] amounts, long[] references, int size,
+        long[] balances, long totalGranted) {
+      this.types = types;
+      this.sources = sources;
+      this.targets = targets;
+      this.amounts = amounts;
+      this.references = references;
+      this.size = size;
+      this.balances = balances;
+      this.totalGranted = totalGranted;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Holds events until the day they are due.
+ *
+ * <p>Events are grouped in one bucket per day, and the buckets are ordered by day. Draining up to
+ * a day removes whole buckets from the front, so a drain costs time proportional to the events
+ * it delivers plus a logarithmic step per non-empty day, regardless of how many events are
+ * scheduled further ahead.
+ *
+ * @param <E> the type of event
+ */
+public class EventScheduler<E> {
+  private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+  private final TreeMap<Long, Bucket> buckets;
+  private long size;
+
+  /**
+   * Creates an empty scheduler.
+   */
+  public EventScheduler() {
+    this.buckets = new TreeMap<>();
+  }
+
+  /**
+   * Schedules an event.
+   *
+   * @param day   the epoch day the event is due
+   * @param event the event
+   * @throws IllegalArgumentException if the event is null
+   */
+  public synchronized void schedule(long day, E event) {
+    if (event == null) {
+      throw new IllegalArgumentException("Event cannot be null");
+    }
+    buckets.computeIfAbsent(day, d -> new Bucket()).add(event);
+    size++;
+  }
+
+  /**
+   * Removes every event due on or before the given day and hands it to the handler, in order of
+   * due day and, within a day, in the order the events were scheduled.
+   *
+   * @param day     the last epoch day to drain
+   * @param handler receives each due event
+   * @return the number of events delivered
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized long drainThrough(long day, Consumer<? super E> handler) {
+    long delivered = 0;
+    Map.Entry<Long, Bucket> first;
+    while ((first = buckets.firstEntry()) != null && first.getKey() <= day) {
+      buckets.pollFirstEntry();
+      Bucket bucket = first.getValue();
+      for (int i = 0; i < bucket.size; i++) {
+        handler.accept((E) bucket.events[i]);
+      }
+      delivered += bucket.size;
+      size -= bucket.size;
+    }
+    return delivered;
+  }
+
+  /**
+   * Returns the number of events not yet drained.
+   *
+   * @return the number of pending events
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  /**
+   * The events due on one day, in scheduling order.
+   */
+  private static final class Bucket {
+    private Object[] events = new Object[INITIAL_BUCKET_CAPACITY];
+    private int size;
+
+    void add(Object event) {
+      if (size == events.length) {
+        events = Arrays.copyOf(events, size * 2);
+      }
+      events[size++] = event;
+    }
+  }
+}
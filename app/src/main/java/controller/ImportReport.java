@@ -0,0 +1,58 @@
+package controller;
+
+/**
+ * The outcome of importing one file with the {@link BulkImporter}.
+ */
+public class ImportReport {
+  private final String source;
+  private final long rowsRead;
+  private final long rowsImported;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a report.
+   *
+   * @param source       the name of the imported file
+   * @param rowsRead     the number of data rows in the file
+   * @param rowsImported the number of rows that were applied
+   * @param elapsedNanos the time the import took
+   */
+  public ImportReport(String source, long rowsRead, long rowsImported, long elapsedNanos) {
+    this.source = source;
+    this.rowsRead = rowsRead;
+    this.rowsImported = rowsImported;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getRowsImported() {
+    return rowsImported;
+  }
+
+  public long getRowsRejected() {
+    return rowsRead - rowsImported;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the import rate over all rows read.
+   *
+   * @return rows per second
+   */
+  public double getRowsPerSecond() {
+    return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: imported %d of %d rows (%d rejected) in %.2f s, %.0f rows/s",
+        source, rowsImported, rowsRead, getRowsRejected(), elapsedNanos / 1e9,
+        getRowsPerSecond());
+  }
+}
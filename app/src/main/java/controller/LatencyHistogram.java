@@ -0,0 +1,143 @@
+package controller;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in buckets that grow with the duration, so percentiles can be read at any
+ * time with about 12% precision and recording costs a couple of additions.
+ *
+ * <p>Durations below 8 ns get a bucket each. Above that, every power of two is split into 8
+ * equal buckets. Buckets are {@link LongAdder}s, so threads recording at the same time do not
+ * contend on one counter.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final LongAdder[] buckets;
+  private final LongAdder totalNanos = new LongAdder();
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    this.buckets = new LongAdder[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records one duration. Negative durations count as 0.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    buckets[bucketOf(value)].increment();
+    totalNanos.add(value);
+  }
+
+  /**
+   * Returns the number of recorded durations.
+   *
+   * @return the count
+   */
+  public long count() {
+    long count = 0;
+    for (LongAdder bucket : buckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the mean of the recorded durations.
+   *
+   * @return the mean in nanoseconds, 0 if nothing was recorded
+   */
+  public double meanNanos() {
+    long count = count();
+    return count == 0 ? 0 : (double) totalNanos.sum() / count;
+  }
+
+  /**
+   * Returns the duration below which the given fraction of the recorded durations fall, as the
+   * upper end of the bucket it lies in.
+   *
+   * @param fraction the fraction, from 0 to 1, such as 0.99 for the 99th percentile
+   * @return the duration in nanoseconds, 0 if nothing was recorded
+   * @throws IllegalArgumentException if the fraction is outside 0 to 1
+   */
+  public long percentileNanos(double fraction) {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1");
+    }
+    long[] counts = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      count += counts[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return upperBoundOf(i);
+      }
+    }
+    return upperBoundOf(BUCKETS - 1);
+  }
+
+  /**
+   * Returns the upper end of the highest non-empty bucket.
+   *
+   * @return the duration in nanoseconds, 0 if nothing was recorded
+   */
+  public long maxNanos() {
+    for (int i = BUCKETS - 1; i >= 0; i--) {
+      if (buckets[i].sum() > 0) {
+        return upperBoundOf(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Forgets all recorded durations. Durations recorded while resetting may be partly kept.
+   */
+  public void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    totalNanos.reset();
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    if (exponent == Long.SIZE - 1) {
+      return Long.MAX_VALUE;
+    }
+    long subBucket = bucket % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lower = (1L << exponent) + subBucket * width;
+    return lower + (width - 1);
+  }
+}
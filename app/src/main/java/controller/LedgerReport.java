@@ -0,0 +1,80 @@
+package controller;
+
+/**
+ * The outcome of replaying a {@link CreditLedger} to verify its balances.
+ */
+public class LedgerReport {
+  private final int entries;
+  private final long totalGranted;
+  private final long totalBalance;
+  private final long replayedGrants;
+  private final int mismatchedBalances;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a report.
+   *
+   * @param entries            the number of entries replayed
+   * @param totalGranted       the total of grants as recorded by the ledger
+   * @param totalBalance       the sum of all replayed member balances
+   * @param replayedGrants     the total of grants found during the replay
+   * @param mismatchedBalances the number of members whose replayed balance differs from the
+   *                           maintained one
+   * @param elapsedNanos       the time the replay took
+   */
+  public LedgerReport(int entries, long totalGranted, long totalBalance, long replayedGrants,
+      int mismatchedBalances, long elapsedNanos) {
+    this.entries = entries;
+    this.totalGranted = totalGranted;
+    this.totalBalance = totalBalance;
+    this.replayedGrants = replayedGrants;
+    this.mismatchedBalances = mismatchedBalances;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public int getEntries() {
+    return entries;
+  }
+
+  public long getTotalGranted() {
+    return totalGranted;
+  }
+
+  public long getTotalBalance() {
+    return totalBalance;
+  }
+
+  public int getMismatchedBalances() {
+    return mismatchedBalances;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Checks that transfers neither created nor destroyed credits: the replayed balances add up
+   * to exactly the credits granted.
+   *
+   * @return true if credits are conserved
+   */
+  public boolean isConserved() {
+    return totalBalance == totalGranted && replayedGrants == totalGranted;
+  }
+
+  /**
+   * Checks that credits are conserved and every maintained balance matches the replay.
+   *
+   * @return true if the ledger is consistent
+   */
+  public boolean isConsistent() {
+    return isConserved() && mismatchedBalances == 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d entries replayed in %.1f ms: %d credits granted, %d held, "
+        + "%d mismatched balances%s", entries, elapsedNanos / 1e6, totalGranted, totalBalance,
+        mismatchedBalances, isConsistent() ? "" : " - LEDGER IS INCONSISTENT");
+  }
+}
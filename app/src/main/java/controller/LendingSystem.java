@@ -1,15 +1,49 @@
 package controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import model.AppendOnlyList;
 import model.Contract;
+import model.ContractStatus;
+import model.IdAllocator;
 import model.Item;
 import model.Member;
 import model.Time;
+import persistence.ContractArchive;
+import persistence.Journal;
+import persistence.JournalListener;
+import persistence.JournalReader;
+import persistence.Snapshot;
+import persistence.SnapshotFile;
 
 /**
  * Represents the Controller(LendingSystem) for the Stuff Lending System.
+ *
+ * <p>Bookings may be made from several threads. A booking locks the stripes of its item, borrower
+ * and owner, so bookings that share none of them run in parallel.
+ *
+ * <p>A system opened with {@link #open(Path)} records every successful mutation in a journal
+ * before it becomes visible, and rebuilds its state from that journal on the next start. With a
+ * snapshot file it also writes a snapshot in the background every {@value #SNAPSHOT_INTERVAL}
+ * journal records and on close, and starts from the latest snapshot plus the journal tail. With
+ * a contract archive, contracts are moved out of memory into the archive once they are
+ * completed; see {@link #open(Path, Path, Path)}.
  */
 
 public class LendingSystem {
@@ -17,92 +51,704 @@ public class LendingSystem {
   /**
    * 'Messages' for different action performed by the methods.
    */
-  private static final String MEMBER_NOT_FOUND_MESSAGE = "Member not found!";
+  public static final String MEMBER_NOT_FOUND_MESSAGE = "Member not found!";
   private static final String ITEM_ADDED_SUCCESS_MESSAGE = "Item added successfully for ";
-  private static final String CONTRACT_CREATED_SUCCESS_MESSAGE = "Contract created successfully!";
-  private static final String INSUFFICIENT_CREDITS_MESSAGE = "Not enough credits for the borrower.";
-  private static final String ITEM_NOT_AVAILABLE_MESSAGE =
+  public static final String CONTRACT_CREATED_SUCCESS_MESSAGE = "Contract created successfully!";
+  public static final String INSUFFICIENT_CREDITS_MESSAGE = "Not enough credits for the borrower.";
+  public static final String ITEM_NOT_AVAILABLE_MESSAGE =
           "Borrower or Item not found, or item is not available for the selected dates.";
 
-  private final List<Member> members;
-  private final List<Item> items;
-  private final List<Contract> contracts;
+  private static final int BOOKING_LOCK_STRIPES = 256;
+  private static final int BOOKING_BATCH_CHUNK = 512;
+  static final long SNAPSHOT_INTERVAL = 100_000;
+
+  private final Registry<Member> members;
+  private final MemberIndex memberIndex;
+  private final Registry<Item> items;
+  private final CategoryIndex<Item> categories;
+  private final SearchIndex<Item> search;
+  private final AvailabilityIndex availability;
+  private final Metrics metrics;
+  private final AppendOnlyList<Contract> contracts;
+  private final IdAllocator contractIds;
   private final Time time;
+  private final EventScheduler<Contract> contractEvents;
+  private int activeContracts;
+  private final List<Contract> completedContracts;
+  private final StripedLocks bookingLocks;
+  private final CreditLedger ledger;
+  private final Aggregates aggregates;
+  private Journal journal;
+  private Path snapshotFile;
+  private ContractArchive archive;
+  private ExecutorService snapshotExecutor;
+  private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+  private volatile long lastSnapshotSequence;
+  private final ThreadLocal<long[]> batchSequence = new ThreadLocal<>();
 
   /**
    * Constructor of LendingSystem(Controller) class for members, Item, Contracts and Time.
    */
   public LendingSystem() {
-    this.members = new ArrayList<>();
-    this.items = new ArrayList<>();
-    this.contracts = new ArrayList<>();
+    this(true);
+  }
+
+  /**
+   * Creates an empty, unjournaled system to serve as one shard of a
+   * {@link ShardedLendingSystem}.
+   *
+   * @return the empty system
+   */
+  static LendingSystem emptyShard() {
+    return new LendingSystem(false);
+  }
+
+  private LendingSystem(boolean withSampleData) {
+    this.members = new Registry<>(Member::getName, Member::getId);
+    this.memberIndex = new MemberIndex();
+    this.items = new Registry<>(Item::getName, Item::getId);
+    this.categories = new CategoryIndex<>();
+    this.search = new SearchIndex<>();
+    this.availability = new AvailabilityIndex();
+    this.metrics = new Metrics();
+    this.contracts = new AppendOnlyList<>();
+    this.contractIds = new IdAllocator();
     this.time = new Time();
-    initializeData();
+    this.contractEvents = new EventScheduler<>();
+    this.completedContracts = new ArrayList<>();
+    this.bookingLocks = new StripedLocks(BOOKING_LOCK_STRIPES);
+    this.ledger = new CreditLedger();
+    this.aggregates = new Aggregates();
+    if (withSampleData) {
+      initializeData();
+    }
   }
 
-  public List<Member> getMembers() {
+  /**
+   * Opens a lending system backed by a journal file. The journal is replayed to rebuild the
+   * state; a missing or empty journal starts from the sample data, which is then journaled too.
+   *
+   * @param journalFile the journal file
+   * @return the restored lending system
+   * @throws IOException if the journal cannot be read or opened for writing
+   */
+  public static LendingSystem open(Path journalFile) throws IOException {
+    return open(journalFile, null);
+  }
+
+  /**
+   * Opens a lending system backed by a journal file and a snapshot file. If the snapshot exists
+   * it is loaded and only the journal records written after it are replayed.
+   *
+   * @param journalFile  the journal file
+   * @param snapshotFile the snapshot file, or null to rely on the journal alone
+   * @return the restored lending system
+   * @throws IOException if the snapshot or journal cannot be read or opened for writing
+   */
+  public static LendingSystem open(Path journalFile, Path snapshotFile) throws IOException {
+    return open(journalFile, snapshotFile, null);
+  }
+
+  /**
+   * Opens a lending system backed by a journal file, a snapshot file and a contract archive.
+   * Contracts that are completed when time advances are appended to the archive and dropped
+   * from memory, so only scheduled and active contracts stay in {@link #getContracts()}; the
+   * days they took stay booked. Completed contracts can still be found with
+   * {@link #getContractHistory}.
+   *
+   * @param journalFile  the journal file
+   * @param snapshotFile the snapshot file, or null to rely on the journal alone
+   * @param archiveFile  the contract archive, or null to keep every contract in memory
+   * @return the restored lending system
+   * @throws IOException if the snapshot, journal or archive cannot be read or opened for writing
+   */
+  public static LendingSystem open(Path journalFile, Path snapshotFile, Path archiveFile)
+      throws IOException {
+    LendingSystem system = new LendingSystem(false);
+    JournalReader reader = new JournalReader(journalFile);
+    Snapshot snapshot = null;
+    if (snapshotFile != null && Files.exists(snapshotFile)) {
+      snapshot = SnapshotFile.read(snapshotFile);
+      system.restore(snapshot);
+      system.lastSnapshotSequence = snapshot.getJournalSequence();
+      // Before the archive is read, so archived contracts do not fill the index first.
+      system.availability.dropBefore(system.time.getCurrentDate().toEpochDay());
+    }
+    if (archiveFile != null) {
+      system.openArchive(archiveFile, snapshot == null ? 0 : snapshot.getLastContractId());
+    }
+    try {
+      if (snapshot != null) {
+        reader.replayFrom(snapshot.getJournalPosition(), snapshot.getJournalSequence(),
+            system.new Replayer());
+      } else {
+        reader.replay(system.new Replayer());
+      }
+      system.archiveCompleted();
+      system.journal = Journal.open(journalFile, reader.getValidLength(),
+          reader.getRecordCount());
+    } catch (IOException | RuntimeException e) {
+      if (system.archive != null) {
+        system.archive.close();
+      }
+      throw e;
+    }
+    system.snapshotFile = snapshotFile;
+    if (reader.getRecordCount() == 0) {
+      system.journal.appendStartDate(system.time.getStartDate());
+      system.initializeData();
+    }
+    return system;
+  }
+
+  /**
+   * Attaches the contract archive. Contracts already in it up to the snapshot's last contract id
+   * that the snapshot does not hold were archived before it was taken, so their booked days and
+   * totals are restored from the archive; contracts the snapshot holds were archived after it
+   * and are already restored. Later ones are recreated by the journal replay that follows, and
+   * finding them in the archive keeps them from being archived twice.
+   */
+  private void openArchive(Path archiveFile, long restoredUpTo) throws IOException {
+    Set<Long> restored = new HashSet<>();
+    for (Contract contract : contracts.snapshot()) {
+      restored.add(contract.getId());
+    }
+    archive = ContractArchive.open(archiveFile, (contractId, borrowerId, itemId, startDay,
+        endDay) -> {
+      Item item = contractId <= restoredUpTo && !restored.contains(contractId)
+          ? items.findById(itemId) : null;
+      if (item != null) {
+        LocalDate startDate = LocalDate.ofEpochDay(startDay);
+        LocalDate endDate = LocalDate.ofEpochDay(endDay);
+        item.addBookedPeriod(startDate, endDate);
+        aggregates.recordRental(borrowerId, item, Contract.calculateCredits(item, startDate,
+            endDate), endDay - startDay + 1);
+        availability.markBooked(itemId, startDay, endDay);
+      }
+    });
+    synchronized (time) {
+      for (Contract contract : contracts.snapshot()) {
+        if (contract.getStatus() == ContractStatus.COMPLETED) {
+          completedContracts.add(contract);
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes all journaled changes durable, writes a final snapshot if the system has a snapshot
+   * file and closes the journal. Does nothing for a system without a journal.
+   *
+   * @throws IOException if the journal or snapshot cannot be written
+   */
+  public void close() throws IOException {
+    if (journal == null) {
+      return;
+    }
+    try {
+      if (snapshotExecutor != null) {
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      if (snapshotFile != null) {
+        writeSnapshot(captureSnapshot());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        journal.close();
+      } finally {
+        if (archive != null) {
+          archive.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Captures the current state and writes it to the snapshot file on a background thread.
+   * Capturing briefly holds every booking lock to get a consistent cut; writing the file does
+   * not block any operation. Only one snapshot is written at a time.
+   *
+   * @return the pending snapshot, or null if a snapshot is already being written
+   * @throws IllegalStateException if the system was not opened with a snapshot file
+   */
+  public synchronized Future<Snapshot> takeSnapshot() {
+    if (journal == null || snapshotFile == null) {
+      throw new IllegalStateException("This lending system has no snapshot file");
+    }
+    if (!snapshotRunning.compareAndSet(false, true)) {
+      return null;
+    }
+    if (snapshotExecutor == null) {
+      snapshotExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "lending-snapshot");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    Snapshot snapshot = captureSnapshot();
+    return snapshotExecutor.submit(() -> {
+      try {
+        writeSnapshot(snapshot);
+        return snapshot;
+      } finally {
+        snapshotRunning.set(false);
+      }
+    });
+  }
+
+  private Snapshot captureSnapshot() {
+    int[] held = bookingLocks.lockAll();
+    try {
+      synchronized (members) {
+        synchronized (items) {
+          synchronized (time) {
+            List<Member> memberList = members.asList();
+            int[] credits = new int[memberList.size()];
+            for (int i = 0; i < credits.length; i++) {
+              credits[i] = memberList.get(i).getCredits();
+            }
+            return new Snapshot(journal.getLastSequence(), journal.getLastPosition(),
+                time.getCurrentDay(), time.getStartDate(), memberList, credits, items.asList(),
+                contracts.snapshot(), contractIds.getLastId());
+          }
+        }
+      }
+    } finally {
+      bookingLocks.unlock(held);
+    }
+  }
+
+  private void writeSnapshot(Snapshot snapshot) throws IOException {
+    // The snapshot must never be ahead of the durable journal it points into.
+    journal.sync(snapshot.getJournalSequence());
+    SnapshotFile.write(snapshotFile, snapshot);
+    lastSnapshotSequence = snapshot.getJournalSequence();
+  }
+
+  private void restore(Snapshot snapshot) {
+    time.setStartDate(snapshot.getStartDate());
+    time.setCurrentDay(snapshot.getCurrentDay());
+    for (int i = 0; i < snapshot.getMembers().size(); i++) {
+      Member member = snapshot.getMembers().get(i);
+      members.add(member);
+      memberIndex.add(member);
+      ledger.recordGrant(CreditLedger.OPENING_BALANCE, member.getId(),
+          snapshot.getMemberCredits(i), 0);
+    }
+    for (Item item : snapshot.getItems()) {
+      items.add(item);
+      categories.add(item.getCategory(), item);
+      search.add(item, item.getName(), item.getDescription());
+      availability.addItem(item.getCategory(), item.getId());
+    }
+    for (Contract contract : snapshot.getContracts()) {
+      synchronized (contracts) {
+        contracts.add(contract);
+      }
+      contract.getItem().addContract(contract);
+      markBooked(contract);
+      recordRental(contract);
+      contractIds.reserveUpTo(contract.getId());
+      synchronized (time) {
+        scheduleContract(contract);
+      }
+    }
+    contractIds.reserveUpTo(snapshot.getLastContractId());
+  }
+
+  /**
+   * Runs a series of operations from the calling thread and makes their journal records durable
+   * with a single sync at the end, instead of one sync per operation. Nested calls join the
+   * outer batch.
+   *
+   * @param work the operations to run
+   */
+  public void runInBatch(Runnable work) {
+    if (batchSequence.get() != null) {
+      work.run();
+      return;
+    }
+    long[] pending = new long[1];
+    batchSequence.set(pending);
+    try {
+      work.run();
+    } finally {
+      batchSequence.remove();
+      syncJournal(pending[0]);
+    }
+  }
+
+  Registry<Member> memberRegistry() {
     return members;
   }
 
-  public List<Item> getItems() {
+  Registry<Item> itemRegistry() {
     return items;
   }
 
+  /**
+   * Returns the members as of this call, in registration order. The list is read-only and
+   * stays the same while other threads add members, so it can be iterated without locking.
+   * Nothing is copied.
+   *
+   * @return the current members
+   */
+  public List<Member> getMembers() {
+    return members.asList();
+  }
+
+  /**
+   * Returns the items as of this call, in the order they were added, like
+   * {@link #getMembers()}.
+   *
+   * @return the current items
+   */
+  public List<Item> getItems() {
+    return items.asList();
+  }
+
+  /**
+   * Returns the contracts in memory as of this call, in creation order, like
+   * {@link #getMembers()}. Later bookings and archiving do not change the list.
+   *
+   * @return the current contracts
+   */
   public List<Contract> getContracts() {
-    return contracts;
+    return contracts.snapshot();
+  }
+
+  /**
+   * Returns the number of items in every category that has items, in the order the categories
+   * were first used.
+   *
+   * @return a map from category to number of items
+   */
+  public Map<String, Integer> getCategoryCounts() {
+    return categories.counts();
+  }
+
+  /**
+   * Returns the number of items in a category in constant time.
+   *
+   * @param category the category
+   * @return the number of items, 0 for an unknown category
+   */
+  public int countItemsInCategory(String category) {
+    return categories.count(category);
+  }
+
+  /**
+   * Returns the items of a category as of this call, in the order they were added. The list is
+   * a read-only view and is not copied.
+   *
+   * @param category the category
+   * @return the items of the category
+   */
+  public List<Item> getItemsInCategory(String category) {
+    return categories.entriesOf(category);
+  }
+
+  /**
+   * Returns one page of the items of a category, in the order they were added.
+   *
+   * @param category the category
+   * @param offset   the index of the first item of the page
+   * @param limit    the maximum number of items on the page
+   * @return the items of the page
+   */
+  public List<Item> getItemsInCategory(String category, int offset, int limit) {
+    return categories.page(category, offset, limit);
+  }
+
+  /**
+   * Searches item names and descriptions. Every query term must occur in an item, as a word or
+   * the start of a word; matches in the name rank above matches in the description.
+   *
+   * @param query the search terms
+   * @param limit the maximum number of results
+   * @return the matching items, best match first
+   */
+  public List<Item> searchItems(String query, int limit) {
+    return search.search(query, limit);
+  }
+
+  /**
+   * Returns the items that are free on every day from startDate to endDate, as of this call.
+   * Answered from booking bitmaps rather than by checking every item. The bitmaps only keep days
+   * from the current day on, so for a range starting earlier the items they find free are
+   * checked one by one.
+   *
+   * @param category  the category to look in, or null for all categories
+   * @param startDate the first day the item is needed
+   * @param endDate   the last day the item is needed
+   * @return the free items, in the order they were added
+   * @throws IllegalArgumentException if endDate is before startDate
+   */
+  public List<Item> findAvailableItems(String category, LocalDate startDate,
+      LocalDate endDate) {
+    long[] ids = availability.freeItems(category, startDate.toEpochDay(), endDate.toEpochDay());
+    // Read after the query: days before the horizon were taken as free, so check those items.
+    boolean checkPast = startDate.toEpochDay() < availability.getHorizon();
+    List<Item> free = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      Item item = items.findById(id);
+      if (!checkPast || item.isAvailable(startDate, endDate)) {
+        free.add(item);
+      }
+    }
+    return free;
+  }
+
+  /**
+   * Returns completed contracts from the contract archive whose period shares a day with the
+   * given range. The contracts are rebuilt from the archive on every call; contracts that are
+   * still in memory are not included.
+   *
+   * @param borrowerName the name of the borrower, or null for any borrower
+   * @param itemName     the name of the item, or null for any item
+   * @param from         the first day of the range, or null for no lower bound
+   * @param to           the last day of the range, or null for no upper bound
+   * @return the archived contracts in the order they were archived, empty if the system has no
+   *     archive or the borrower or item does not exist
+   * @throws UncheckedIOException if the archive cannot be read
+   */
+  public List<Contract> getContractHistory(String borrowerName, String itemName,
+      LocalDate from, LocalDate to) {
+    List<Contract> history = new ArrayList<>();
+    Member borrower = borrowerName == null ? null : findMember(borrowerName);
+    Item item = itemName == null ? null : findItem(itemName);
+    if (archive == null || (borrowerName != null && borrower == null)
+        || (itemName != null && item == null)) {
+      return history;
+    }
+    LocalDate today = getCurrentDate();
+    try {
+      archive.forEach(from == null ? Long.MIN_VALUE : from.toEpochDay(),
+          to == null ? Long.MAX_VALUE : to.toEpochDay(),
+          (contractId, borrowerId, itemId, startDay, endDay) -> {
+            if ((borrower != null && borrowerId != borrower.getId())
+                || (item != null && itemId != item.getId())) {
+              return;
+            }
+            Member contractBorrower = members.findById(borrowerId);
+            Item contractItem = items.findById(itemId);
+            if (contractBorrower != null && contractItem != null) {
+              Contract contract = Contract.restore(contractId, contractBorrower, contractItem,
+                  LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(endDay));
+              contract.updateStatus(today);
+              history.add(contract);
+            }
+          });
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the contract archive", e);
+    }
+    return history;
+  }
+
+  /**
+   * Returns the number of contracts moved to the contract archive.
+   *
+   * @return the number of archived contracts, 0 if the system has no archive
+   */
+  public long getArchivedContractCount() {
+    return archive == null ? 0 : archive.size();
+  }
+
+  /**
+   * Returns the latency histograms and booking counters. Collection is off until
+   * {@link Metrics#setEnabled} turns it on.
+   *
+   * @return the metrics
+   */
+  public Metrics getMetrics() {
+    return metrics;
   }
 
   public int getCurrentDay() {
     return time.getCurrentDay();
   }
 
+  /**
+   * Returns the ledger of all credit movements made through this system.
+   *
+   * @return the credit ledger
+   */
+  public CreditLedger getCreditLedger() {
+    return ledger;
+  }
+
+  /**
+   * Returns the running totals of earnings, spend, revenue and use, kept up to date with every
+   * booking and status change.
+   *
+   * @return the aggregates
+   */
+  public Aggregates getAggregates() {
+    return aggregates;
+  }
+
+  /**
+   * Replays the credit ledger in parallel and checks that its balances are right and that
+   * credits were conserved.
+   *
+   * @return the outcome of the check
+   */
+  public LedgerReport verifyCreditLedger() {
+    return ledger.verify();
+  }
+
+  /**
+   * Compares every member's credits with the ledger balance. Bookings and additions are held
+   * off while comparing, so the two are seen at the same point.
+   *
+   * @return the members whose credits differ from the ledger, such as after credits were
+   *     changed directly on a {@link Member}
+   */
+  public List<Member> reconcileCredits() {
+    List<Member> mismatched = new ArrayList<>();
+    int[] held = bookingLocks.lockAll();
+    try {
+      synchronized (members) {
+        synchronized (items) {
+          for (Member member : members.asList()) {
+            if (member.getCredits() != ledger.balanceOf(member.getId())) {
+              mismatched.add(member);
+            }
+          }
+        }
+      }
+    } finally {
+      bookingLocks.unlock(held);
+    }
+    return mismatched;
+  }
+
+  /**
+   * Returns the calendar date of the current day.
+   *
+   * @return the current date
+   */
+  public LocalDate getCurrentDate() {
+    synchronized (time) {
+      return time.getCurrentDate();
+    }
+  }
+
+  /**
+   * Returns the number of contracts whose period includes the current day.
+   *
+   * @return the number of active contracts
+   */
+  public int getActiveContractCount() {
+    synchronized (time) {
+      return activeContracts;
+    }
+  }
+
   /**
   * Adds a new member to the lending system.
+  *
+  * @return the new member
+  * @throws IllegalArgumentException if a text is too long to be journaled
   */
-  public void addMember(String name, String email, String phoneNumber) {
-    Member member = new Member(name, email, phoneNumber);
-    members.add(member);
+  public Member addMember(String name, String email, String phoneNumber) {
+    long started = metrics.start();
+    Member member = registerMember(name, email, phoneNumber);
+    metrics.record(Metrics.Operation.ADD_MEMBER, started);
+    return member;
+  }
+
+  Member registerMember(String name, String email, String phoneNumber) {
+    if (journal != null) {
+      Journal.checkTexts(name, email, phoneNumber);
+    }
+    long sequence = 0;
+    Member member;
+    // Allocate the id, journal and register under the registry's monitor so ids follow the
+    // journal order and come out the same on replay.
+    synchronized (members) {
+      member = new Member(members.maxId() + 1, name, email, phoneNumber);
+      if (journal != null) {
+        sequence = journal.appendAddMember(name, email, phoneNumber);
+      }
+      members.add(member);
+      memberIndex.add(member);
+      ledger.recordGrant(CreditLedger.SIGN_UP_GRANT, member.getId(), Member.INITIAL_CREDITS, 0);
+    }
+    syncJournal(sequence);
+    return member;
   }
 
   // New Method to Initialize Data
   private void initializeData() {
     // Adding sample members for demonstration
-    Member johnDoe = new Member("John Doe", "john@example.com", "123456789");
-    Member janeSmith = new Member("Jane Smith", "jane.smith@example.com", "987654321");
-    Member aliceBrown = new Member("Alice Brown", "alice.brown@example.com", "555666777");
-
-    // Adding members to the system
-    members.add(johnDoe);
-    members.add(janeSmith);
-    members.add(aliceBrown);
+    addMember("John Doe", "john@example.com", "123456789");
+    addMember("Jane Smith", "jane.smith@example.com", "987654321");
+    addMember("Alice Brown", "alice.brown@example.com", "555666777");
 
     // Adding sample items for each member
-    addItem(johnDoe.getName(), "Laptop", "Gaming Laptop", "Electronic", 50);
-    addItem(johnDoe.getName(), "Camera", "DSLR Camera", "Photography", 30);
+    addItem("John Doe", "Laptop", "Gaming Laptop", "Electronic", 50);
+    addItem("John Doe", "Camera", "DSLR Camera", "Photography", 30);
 
-    addItem(janeSmith.getName(), "Bicycle", "Mountain Bike", "Sports", 20);
-    addItem(janeSmith.getName(), "Tent", "Camping Tent", "Outdoor", 25);
+    addItem("Jane Smith", "Bicycle", "Mountain Bike", "Sports", 20);
+    addItem("Jane Smith", "Tent", "Camping Tent", "Outdoor", 25);
 
-    addItem(aliceBrown.getName(), "Guitar", "Electric Guitar", "Musical Instrument", 40);
-    addItem(aliceBrown.getName(), "Projector", "HD Projector", "Electronic", 35);
+    addItem("Alice Brown", "Guitar", "Electric Guitar", "Musical Instrument", 40);
+    addItem("Alice Brown", "Projector", "HD Projector", "Electronic", 35);
 
     // Creating a sample lending contract
     LocalDate startDate = LocalDate.now();
     LocalDate endDate = startDate.plusDays(5);
-    String contractMessage = createLendingContract(janeSmith.getName(), "Laptop", startDate, endDate);
+    String contractMessage = createLendingContract("Jane Smith", "Laptop", startDate, endDate);
     System.out.println(contractMessage);
   }
 
   /**
   * Adds a new item to a specific member.
+  *
+  * @throws IllegalArgumentException if a text is too long to be journaled
   */
   public String addItem(String nameOfMember, String itemName, String description,
       String category, int costPerDay) {
+    long started = metrics.start();
+    String message = listItem(nameOfMember, itemName, description, category, costPerDay);
+    metrics.record(Metrics.Operation.ADD_ITEM, started);
+    return message;
+  }
+
+  private String listItem(String nameOfMember, String itemName, String description,
+      String category, int costPerDay) {
+    if (journal != null) {
+      Journal.checkTexts(itemName, description, category);
+    }
     Member member = findMember(nameOfMember);
     if (member != null) {
-      Item item = new Item(itemName, description, category, member, costPerDay);
-      member.addItem(item);
-      items.add(item);
+      long sequence = 0;
+      // The owner's stripe orders the listing bonus against the owner's own bookings.
+      int[] held = bookingLocks.lock(member);
+      try {
+        synchronized (items) {
+          Item item = new Item(items.maxId() + 1, itemName, description,
+              categories.intern(category), member, costPerDay);
+          if (journal != null) {
+            sequence = journal.appendAddItem(nameOfMember, itemName, description, category,
+                costPerDay);
+          }
+          member.addItem(item);
+          ledger.recordGrant(CreditLedger.LISTING_BONUS, member.getId(), Member.CREDIT_INCREMENT,
+              item.getId());
+          items.add(item);
+          categories.add(item.getCategory(), item);
+          search.add(item, itemName, description);
+          availability.addItem(item.getCategory(), item.getId());
+        }
+      } finally {
+        bookingLocks.unlock(held);
+      }
+      syncJournal(sequence);
       return ITEM_ADDED_SUCCESS_MESSAGE + nameOfMember;
     } else {
       return MEMBER_NOT_FOUND_MESSAGE;
@@ -110,24 +756,219 @@ public class LendingSystem {
   }
 
   /**
-  * Creates a lending contract if conditions are met.
+  * Creates a lending contract if conditions are met. The availability check, the credit transfer
+  * and the registration of the contract happen atomically with respect to other bookings.
   */
   public String createLendingContract(String borrowerName, String nameOfItem,
       LocalDate startDate, LocalDate endDate) {
+    long started = metrics.start();
+    String message = book(borrowerName, nameOfItem, startDate, endDate);
+    metrics.recordBooking(started, message);
+    return message;
+  }
+
+  private String book(String borrowerName, String nameOfItem, LocalDate startDate,
+      LocalDate endDate) {
     Member borrower = findMember(borrowerName);
     Item item = findItem(nameOfItem);
-    if (isValidContract(borrower, item, startDate, endDate)) {
-      Contract contract = new Contract(borrower, item, startDate, endDate);
-      if (contract.validateContract()) {
-        contracts.add(contract);
-        item.addContract(contract);
-        return CONTRACT_CREATED_SUCCESS_MESSAGE;
-      } else {
+    if (borrower == null || item == null) {
+      return ITEM_NOT_AVAILABLE_MESSAGE;
+    }
+    long sequence = 0;
+    int[] held = bookingLocks.lock(item, borrower, item.getOwner());
+    try {
+      if (!isValidContract(borrower, item, startDate, endDate)) {
+        return ITEM_NOT_AVAILABLE_MESSAGE;
+      }
+      // Checked up front so that only successful bookings take a contract id.
+      if (borrower.getCredits() < Contract.calculateCredits(item, startDate, endDate)) {
         return INSUFFICIENT_CREDITS_MESSAGE;
       }
-    } else {
-      return ITEM_NOT_AVAILABLE_MESSAGE;
+      Contract contract;
+      synchronized (contracts) {
+        contract = new Contract(contractIds.next(), borrower, item, startDate, endDate);
+        contract.validateContract();
+        ledger.recordTransfer(CreditLedger.RENTAL, borrower.getId(), item.getOwner().getId(),
+            contract.getCreditsTransferred(), contract.getId());
+        if (journal != null) {
+          sequence = journal.appendCreateContract(borrowerName, nameOfItem, startDate, endDate);
+        }
+        contracts.add(contract);
+      }
+      item.addContract(contract);
+      markBooked(contract);
+      recordRental(contract);
+      synchronized (time) {
+        scheduleContract(contract);
+      }
+    } finally {
+      bookingLocks.unlock(held);
+    }
+    syncJournal(sequence);
+    return CONTRACT_CREATED_SUCCESS_MESSAGE;
+  }
+
+  /**
+   * Books a batch of contracts. Each request gets the same checks as
+   * {@link #createLendingContract}, applied in list order, so a later request sees the bookings
+   * and credit changes of earlier ones.
+   *
+   * <p>All names are resolved in one pass first. The batch is then booked in chunks: a chunk
+   * takes the booking locks of all its items and members at once, allocates its contract ids
+   * and records its rental fees in the ledger under a single lock each, and schedules its
+   * contracts in one pass. The journal records of the whole batch share one sync.
+   *
+   * @param requests the bookings to make
+   * @return the outcome of each request, in the order of the requests
+   */
+  public List<BookingResult> createLendingContracts(List<BookingRequest> requests) {
+    final long started = metrics.start();
+    int count = requests.size();
+    BookingResult[] results = new BookingResult[count];
+    Member[] borrowers = new Member[count];
+    Item[] bookedItems = new Item[count];
+    for (int i = 0; i < count; i++) {
+      BookingRequest request = requests.get(i);
+      borrowers[i] = members.findByName(request.getBorrowerName());
+      bookedItems[i] = items.findByName(request.getItemName());
+      if (borrowers[i] == null) {
+        results[i] = BookingResult.UNKNOWN_BORROWER;
+      } else if (bookedItems[i] == null) {
+        results[i] = BookingResult.UNKNOWN_ITEM;
+      }
+    }
+    long sequence = 0;
+    for (int from = 0; from < count; from += BOOKING_BATCH_CHUNK) {
+      int to = Math.min(count, from + BOOKING_BATCH_CHUNK);
+      sequence = Math.max(sequence, bookChunk(requests, borrowers, bookedItems, results, from,
+          to));
+    }
+    syncJournal(sequence);
+    metrics.recordBookings(started, results);
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Books the requests from index from to index to that have no result yet.
+   *
+   * @return the sequence number of the last journal record written, 0 if none
+   */
+  private long bookChunk(List<BookingRequest> requests, Member[] borrowers, Item[] bookedItems,
+      BookingResult[] results, int from, int to) {
+    int size = to - from;
+    Object[] keys = new Object[size * 3];
+    for (int i = from; i < to; i++) {
+      if (results[i] == null) {
+        keys[(i - from) * 3] = bookedItems[i];
+        keys[(i - from) * 3 + 1] = borrowers[i];
+        keys[(i - from) * 3 + 2] = bookedItems[i].getOwner();
+      }
+    }
+    long[] payers = new long[size];
+    long[] payees = new long[size];
+    int[] fees = new int[size];
+    long[] references = new long[size];
+    int transfers = 0;
+    List<Contract> created = new ArrayList<>(size);
+    long sequence = 0;
+    int[] held = bookingLocks.lock(keys);
+    try {
+      synchronized (contracts) {
+        for (int i = from; i < to; i++) {
+          if (results[i] != null) {
+            continue;
+          }
+          BookingRequest request = requests.get(i);
+          Member borrower = borrowers[i];
+          Item item = bookedItems[i];
+          if (!item.isAvailable(request.getStartDate(), request.getEndDate())) {
+            results[i] = BookingResult.NOT_AVAILABLE;
+            continue;
+          }
+          if (borrower.getCredits() < Contract.calculateCredits(item, request.getStartDate(),
+              request.getEndDate())) {
+            results[i] = BookingResult.INSUFFICIENT_CREDITS;
+            continue;
+          }
+          Contract contract = new Contract(contractIds.next(), borrower, item,
+              request.getStartDate(), request.getEndDate());
+          contract.validateContract();
+          payers[transfers] = borrower.getId();
+          payees[transfers] = item.getOwner().getId();
+          fees[transfers] = contract.getCreditsTransferred();
+          references[transfers] = contract.getId();
+          transfers++;
+          if (journal != null) {
+            sequence = journal.appendCreateContract(request.getBorrowerName(),
+                request.getItemName(), request.getStartDate(), request.getEndDate());
+          }
+          item.addContract(contract);
+          markBooked(contract);
+          recordRental(contract);
+          created.add(contract);
+          results[i] = BookingResult.CREATED;
+        }
+        ledger.recordTransfers(CreditLedger.RENTAL, payers, payees, fees, references,
+            transfers);
+        for (Contract contract : created) {
+          contracts.add(contract);
+        }
+      }
+      synchronized (time) {
+        for (Contract contract : created) {
+          scheduleContract(contract);
+        }
+      }
+    } finally {
+      bookingLocks.unlock(held);
+    }
+    return sequence;
+  }
+
+  int[] lockForBooking(Object... keys) {
+    return bookingLocks.lock(keys);
+  }
+
+  void unlockBooking(int[] held) {
+    bookingLocks.unlock(held);
+  }
+
+  /**
+   * Commits the owner's side of a booking whose borrower belongs to another shard: registers
+   * the contract and credits the owner. The caller holds the item and owner stripes and has
+   * checked availability, so this cannot fail.
+   *
+   * @return the new contract
+   */
+  Contract commitRemoteBooking(Member borrower, Item item, LocalDate startDate,
+      LocalDate endDate) {
+    Contract contract;
+    synchronized (contracts) {
+      contract = new Contract(contractIds.next(), borrower, item, startDate, endDate);
+      Member owner = item.getOwner();
+      owner.addCredits(contract.getCreditsTransferred());
+      ledger.recordGrant(CreditLedger.CROSS_SHARD_CREDIT, owner.getId(),
+          contract.getCreditsTransferred(), contract.getId());
+      contracts.add(contract);
+    }
+    item.addContract(contract);
+    markBooked(contract);
+    aggregates.recordEarning(item, contract.getCreditsTransferred(), bookedDays(contract));
+    synchronized (time) {
+      scheduleContract(contract);
     }
+    return contract;
+  }
+
+  /**
+   * Commits the borrower's side of a booking whose item belongs to another shard. The caller
+   * holds the borrower's stripe and has checked the balance, so this cannot fail.
+   */
+  void commitRemoteDebit(Member borrower, int amount, long contractId) {
+    borrower.deductCredits(amount);
+    ledger.recordWithdrawal(CreditLedger.CROSS_SHARD_DEBIT, borrower.getId(), amount,
+        contractId);
+    aggregates.recordSpend(borrower.getId(), amount);
   }
 
   /**
@@ -143,32 +984,273 @@ public class LendingSystem {
   }
 
   /**
-  * Advances the system time by one day.
+  * Advances the system time by one day. Contracts that start or end on the new day change
+  * status.
+  *
+  * @throws IllegalArgumentException if the day count or date would overflow
   */
   public void advanceTime() {
-    time.advanceDay();
+    long sequence = 0;
+    synchronized (time) {
+      time.checkAdvance(1);
+      if (journal != null) {
+        sequence = journal.appendAdvanceTime();
+      }
+      advanceDaysLocked(1);
+    }
+    syncJournal(sequence);
+    archiveCompleted();
     System.out.println("Current day: " + time.getCurrentDay());
   }
 
+  /**
+  * Advances the system time by several days in one step. All contract events due in between are
+  * processed in a single pass, in date order, and the advance is journaled as one record.
+  * Nothing is printed.
+  *
+  * @param days the number of days to advance
+  * @return the number of contract events processed
+  * @throws IllegalArgumentException if days is not positive or the day count or date would
+  *                                  overflow
+  */
+  public long advanceDays(int days) {
+    if (days <= 0) {
+      throw new IllegalArgumentException("Days must be positive");
+    }
+    long sequence = 0;
+    long events;
+    synchronized (time) {
+      // Checked before journaling: a record that cannot be replayed would keep the journal
+      // from ever being opened again.
+      time.checkAdvance(days);
+      if (journal != null) {
+        sequence = journal.appendAdvanceDays(days);
+      }
+      events = advanceDaysLocked(days);
+    }
+    syncJournal(sequence);
+    archiveCompleted();
+    return events;
+  }
+
+  /**
+  * Finds a member by name. If several members share the name, the first one added is returned.
+  */
   public Member findMember(String name) {
-    return members.stream().filter(member ->
-    member.getName().equals(name)).findFirst().orElse(null);
+    long started = metrics.start();
+    Member member = members.findByName(name);
+    metrics.record(Metrics.Operation.FIND_MEMBER, started);
+    return member;
+  }
+
+  /**
+   * Finds a member from a name or email as a person would type it: the exact name first, then a
+   * name or email that differs only in case, accents or punctuation.
+   *
+   * @param text the name or email
+   * @return the member, or null if there is none
+   */
+  public Member lookupMember(String text) {
+    Member member = members.findByName(text);
+    return member != null ? member : memberIndex.find(text);
+  }
+
+  /**
+   * Returns the members whose name or email is closest to the text, for when
+   * {@link #lookupMember(String)} finds nothing, such as after a typo.
+   *
+   * @param text  the name or email
+   * @param limit the maximum number of members
+   * @return the members, best match first
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public List<Member> suggestMembers(String text, int limit) {
+    return memberIndex.suggest(text, limit);
   }
 
+  /**
+  * Finds an item by name. If several items share the name, the first one added is returned.
+  */
   public Item findItem(String name) {
-    return items.stream().filter(item ->
-    item.getName().equals(name)).findFirst().orElse(null);
+    long started = metrics.start();
+    Item item = items.findByName(name);
+    metrics.record(Metrics.Operation.FIND_ITEM, started);
+    return item;
+  }
+
+  public Member findMemberById(long memberId) {
+    return members.findById(memberId);
+  }
+
+  public Item findItemById(long itemId) {
+    return items.findById(itemId);
   }
 
   /**
   * Checks if an item is available between the specified dates.
   */
   public boolean isItemAvailable(Item item, LocalDate startDate, LocalDate endDate) {
-    return item.getContracts().stream().noneMatch(contract ->
-    !(endDate.isBefore(contract.getStartDate()) || startDate.isAfter(contract.getEndDate())));
+    long started = metrics.start();
+    boolean available = item.isAvailable(startDate, endDate);
+    metrics.record(Metrics.Operation.IS_ITEM_AVAILABLE, started);
+    return available;
   }
 
   public boolean isValidContract(Member borrower, Item item, LocalDate startDate, LocalDate endDate) {
     return borrower != null && item != null && isItemAvailable(item, startDate, endDate);
   }
-}
\ No newline at end of file
+
+  // Callers hold the time monitor, which guards the contract events and activeContracts.
+  private long advanceDaysLocked(int days) {
+    time.advanceDays(days);
+    LocalDate today = time.getCurrentDate();
+    availability.dropBefore(today.toEpochDay());
+    return contractEvents.drainThrough(today.toEpochDay(),
+        contract -> updateStatus(contract, today));
+  }
+
+  private void recordRental(Contract contract) {
+    aggregates.recordRental(contract.getBorrower().getId(), contract.getItem(),
+        contract.getCreditsTransferred(), bookedDays(contract));
+  }
+
+  private static long bookedDays(Contract contract) {
+    return contract.getEndDate().toEpochDay() - contract.getStartDate().toEpochDay() + 1;
+  }
+
+  private void markBooked(Contract contract) {
+    availability.markBooked(contract.getItem().getId(), contract.getStartDate().toEpochDay(),
+        contract.getEndDate().toEpochDay());
+  }
+
+  /**
+   * Sets the status of a new contract and schedules its remaining changes: becoming active on
+   * its start date and completed the day after its end date. Callers hold the time monitor.
+   */
+  private void scheduleContract(Contract contract) {
+    ContractStatus status = updateStatus(contract, time.getCurrentDate());
+    if (status == ContractStatus.SCHEDULED) {
+      contractEvents.schedule(contract.getStartDate().toEpochDay(), contract);
+    }
+    if (status != ContractStatus.COMPLETED) {
+      contractEvents.schedule(contract.getEndDate().toEpochDay() + 1, contract);
+    }
+  }
+
+  private ContractStatus updateStatus(Contract contract, LocalDate today) {
+    ContractStatus previous = contract.updateStatus(today);
+    ContractStatus current = contract.getStatus();
+    if (previous != ContractStatus.ACTIVE && current == ContractStatus.ACTIVE) {
+      activeContracts++;
+      aggregates.recordActiveChange(contract.getItem().getCategory(), 1);
+    } else if (previous == ContractStatus.ACTIVE && current != ContractStatus.ACTIVE) {
+      activeContracts--;
+      aggregates.recordActiveChange(contract.getItem().getCategory(), -1);
+    }
+    if (archive != null && previous != ContractStatus.COMPLETED
+        && current == ContractStatus.COMPLETED) {
+      completedContracts.add(contract);
+    }
+    return current;
+  }
+
+  /**
+   * Moves the contracts completed since the last call to the archive and drops them from the
+   * contract lists. If the archive cannot be written they stay in memory and are tried again
+   * next time.
+   *
+   * @throws UncheckedIOException if the archive cannot be written
+   */
+  private void archiveCompleted() {
+    if (archive == null) {
+      return;
+    }
+    synchronized (time) {
+      if (completedContracts.isEmpty()) {
+        return;
+      }
+      try {
+        archive.append(completedContracts);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not write the contract archive", e);
+      }
+      Set<Contract> archived = Collections.newSetFromMap(new IdentityHashMap<>());
+      Set<Item> affectedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Contract contract : completedContracts) {
+        archived.add(contract);
+        affectedItems.add(contract.getItem());
+      }
+      for (Item item : affectedItems) {
+        item.removeContractsIf(archived::contains);
+      }
+      synchronized (contracts) {
+        contracts.removeIf(archived::contains);
+      }
+      completedContracts.clear();
+    }
+  }
+
+  private void syncJournal(long sequence) {
+    long[] pending = batchSequence.get();
+    if (pending != null) {
+      pending[0] = Math.max(pending[0], sequence);
+      return;
+    }
+    if (sequence > 0) {
+      try {
+        journal.sync(sequence);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not write the journal", e);
+      }
+      if (snapshotFile != null && sequence - lastSnapshotSequence >= SNAPSHOT_INTERVAL) {
+        takeSnapshot();
+      }
+    }
+  }
+
+  /**
+   * Applies replayed journal records through the same code paths as live calls. The journal
+   * is only attached after replay, so nothing is journaled twice.
+   */
+  private final class Replayer implements JournalListener {
+    @Override
+    public void onAddMember(String name, String email, String phoneNumber) {
+      addMember(name, email, phoneNumber);
+    }
+
+    @Override
+    public void onAddItem(String memberName, String itemName, String description,
+        String category, int costPerDay) {
+      addItem(memberName, itemName, description, category, costPerDay);
+    }
+
+    @Override
+    public void onCreateContract(String borrowerName, String itemName, LocalDate startDate,
+        LocalDate endDate) {
+      createLendingContract(borrowerName, itemName, startDate, endDate);
+    }
+
+    @Override
+    public void onAdvanceTime() {
+      synchronized (time) {
+        advanceDaysLocked(1);
+      }
+      archiveCompleted();
+    }
+
+    @Override
+    public void onAdvanceDays(int days) {
+      synchronized (time) {
+        advanceDaysLocked(days);
+      }
+      archiveCompleted();
+    }
+
+    @Override
+    public void onStartDate(LocalDate startDate) {
+      synchronized (time) {
+        time.setStartDate(startDate);
+      }
+    }
+  }
+}
@@ -0,0 +1,626 @@
+package controller;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import model.Member;
+
+/**
+ * Finds members from names and emails as people type them: in any case, without accents, and
+ * with typos.
+ *
+ * <p>Text is normalized before it is compared: accents are dropped, letters are lower-cased and
+ * every run of other characters becomes one space, so "Jane.Smith" and "jane smith" are the same.
+ * A normalized name or email finds its member directly. When several members share one, the first
+ * one added is found, as in the {@link Registry}.
+ *
+ * <p>Suggestions work on the words of names only; an email is found when it is typed in full, up to
+ * case, accents and punctuation, but a mistyped one suggests nothing. Every distinct word is split
+ * into trigrams, padded with two spaces in front and one behind, and each trigram lists the words
+ * containing it. A query word is first matched against these words by trigram similarity, the
+ * shared trigrams divided by the trigrams of both together, keeping the {@value #MAX_EXPANSIONS}
+ * closest. Members are then scored by how well their words cover the query words, with the same
+ * ratio: the summed similarity of the best match of each query word, divided by the query and
+ * member words together less that sum. Members below {@value #MIN_SIMILARITY} are left out.
+ *
+ * <p>There are far fewer distinct words than members, and each query word reads at most
+ * {@value #POSTINGS_BUDGET} trigram postings. At most {@value #MAX_CANDIDATES} members are
+ * scored, taking the members of the rarest query word first. A query therefore costs about the
+ * same however many members there are.
+ *
+ * <p>Members are indexed as they are added. Additions and lookups are synchronized on the index,
+ * as queries share scratch arrays, so a lookup waits for an addition in progress.
+ */
+public class MemberIndex {
+  static final float MIN_SIMILARITY = 0.3f;
+  static final float MIN_WORD_SIMILARITY = 0.2f;
+  static final int MAX_EXPANSIONS = 16;
+  static final int POSTINGS_BUDGET = 1 << 14;
+  static final int MAX_CANDIDATES = 4096;
+  private static final int MAX_QUERY_WORDS = 8;
+  private static final int MAX_WORD_SCORINGS = 128;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Member[] members;
+  private int size;
+  // The word ids of member i are memberWords[wordStarts[i]] up to wordStarts[i + 1].
+  private int[] wordStarts;
+  private int[] memberWords;
+  // Open addressing over normalized emails: a slot holds a member index plus one, or 0 when
+  // empty, next to the hash of its email. The emails themselves are not kept.
+  private int[] emailSlots;
+  private int[] emailHashes;
+  private int emailCount;
+  private final Map<String, Word> wordsByText;
+  private Word[] words;
+  // The number of distinct trigrams of each word, kept apart from the words so that bounds can
+  // be checked without visiting them.
+  private byte[] wordTrigrams;
+  private int wordCount;
+  private final Map<Long, IntList> trigrams;
+  // Only non-zero during a query.
+  private byte[] wordCounts;
+  private byte[] visited;
+  private int[] touched;
+  private long[] scratch;
+
+  /**
+   * Creates an empty index.
+   */
+  public MemberIndex() {
+    this.members = new Member[INITIAL_CAPACITY];
+    this.wordStarts = new int[INITIAL_CAPACITY + 1];
+    this.memberWords = new int[INITIAL_CAPACITY];
+    this.emailSlots = new int[2 * INITIAL_CAPACITY];
+    this.emailHashes = new int[2 * INITIAL_CAPACITY];
+    this.wordsByText = new HashMap<>();
+    this.words = new Word[INITIAL_CAPACITY];
+    this.trigrams = new HashMap<>();
+    this.wordTrigrams = new byte[INITIAL_CAPACITY];
+    this.wordCounts = new byte[INITIAL_CAPACITY];
+    this.visited = new byte[INITIAL_CAPACITY];
+    this.touched = new int[INITIAL_CAPACITY];
+    this.scratch = new long[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Indexes a member under its name and email.
+   *
+   * @param member the member
+   * @throws IllegalArgumentException if the member is null
+   */
+  public synchronized void add(Member member) {
+    if (member == null) {
+      throw new IllegalArgumentException("Member cannot be null");
+    }
+    if (size == members.length) {
+      members = Arrays.copyOf(members, size * 2);
+      wordStarts = Arrays.copyOf(wordStarts, size * 2 + 1);
+      visited = Arrays.copyOf(visited, size * 2);
+    }
+    int index = size;
+    members[size++] = member;
+    int next = wordStarts[index];
+    for (String text : splitWords(normalize(member.getName()))) {
+      int word = wordIdOf(text);
+      words[word].add(index);
+      if (next == memberWords.length) {
+        memberWords = Arrays.copyOf(memberWords, next * 2);
+      }
+      memberWords[next++] = word;
+    }
+    wordStarts[index + 1] = next;
+    for (int i = wordStarts[index]; i < next; i++) {
+      Word word = words[memberWords[i]];
+      word.fewestWords = Math.min(word.fewestWords, next - wordStarts[index]);
+    }
+    String email = normalize(member.getEmail());
+    if (!email.isEmpty() && findByEmail(email) < 0) {
+      if (2 * (emailCount + 1) > emailSlots.length) {
+        rehashEmails();
+      }
+      insertEmail(email.hashCode(), index);
+    }
+  }
+
+  /**
+   * Finds the first member whose name, or else whose email, equals the text once both are
+   * normalized.
+   *
+   * @param text the name or email, may be null
+   * @return the member, or null if there is none
+   */
+  public synchronized Member find(String text) {
+    String normalized = normalize(text);
+    if (normalized.isEmpty()) {
+      return null;
+    }
+    String[] query = splitWords(normalized);
+    int[] ids = new int[query.length];
+    Word rarest = null;
+    for (int i = 0; i < query.length && ids != null; i++) {
+      Word word = wordsByText.get(query[i]);
+      if (word == null) {
+        ids = null;
+      } else {
+        ids[i] = word.id;
+        if (rarest == null || word.size < rarest.size) {
+          rarest = word;
+        }
+      }
+    }
+    if (ids != null) {
+      for (int i = 0; i < rarest.size; i++) {
+        int member = rarest.members[i];
+        if (Arrays.equals(memberWords, wordStarts[member], wordStarts[member + 1], ids, 0,
+            ids.length)) {
+          return members[member];
+        }
+      }
+    }
+    int index = findByEmail(normalized);
+    return index < 0 ? null : members[index];
+  }
+
+  /**
+   * Returns the members whose name is most similar to the text, best first. Members with the
+   * same similarity come in the order they were added.
+   *
+   * @param text  the text, a name with possible typos; only its first
+   *              {@value #MAX_QUERY_WORDS} words are used
+   * @param limit the maximum number of members
+   * @return the members, empty if nothing is similar enough
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public synchronized List<Member> suggest(String text, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative");
+    }
+    String normalized = normalize(text);
+    if (normalized.isEmpty() || limit == 0) {
+      return Collections.emptyList();
+    }
+    String[] query = splitWords(normalized);
+    Expansion[] expansions = new Expansion[Math.min(query.length, MAX_QUERY_WORDS)];
+    for (int i = 0; i < expansions.length; i++) {
+      expansions[i] = expand(query[i]);
+    }
+    Expansion[] byRarity = expansions.clone();
+    Arrays.sort(byRarity, (a, b) -> Long.compare(a.postings, b.postings));
+    // A member not reached through the first query words in this order matches the rest at
+    // best as well as their closest words do, and has at least as many words as the shortest
+    // name containing one of those.
+    float[] remaining = new float[byRarity.length + 1];
+    int[] fewestWords = new int[byRarity.length + 1];
+    fewestWords[byRarity.length] = Integer.MAX_VALUE;
+    for (int i = byRarity.length - 1; i >= 0; i--) {
+      remaining[i] = remaining[i + 1] + byRarity[i].closest();
+      fewestWords[i] = Math.min(fewestWords[i + 1], byRarity[i].fewestWordsFrom(0));
+    }
+
+    // Higher score first, then lower member index: the complement of the index sorts
+    // ascending.
+    PriorityQueue<Long> best = new PriorityQueue<>();
+    int scored = 0;
+    try {
+      search:
+      for (int w = 0; w < byRarity.length; w++) {
+        Expansion expansion = byRarity[w];
+        for (int e = 0; e < expansion.count && scored < MAX_CANDIDATES; e++) {
+          float covered = expansion.similarities[e] + remaining[w + 1];
+          int fewest = Math.min(expansion.fewestWordsFrom(e), fewestWords[w + 1]);
+          float bound = covered / (expansions.length + fewest - covered);
+          if (bound < MIN_SIMILARITY || (best.size() == limit
+              && bound < Float.intBitsToFloat((int) (best.peek() >>> 32)))) {
+            break search;
+          }
+          Word word = words[expansion.words[e]];
+          for (int i = 0; i < word.size && scored < MAX_CANDIDATES; i++) {
+            int member = word.members[i];
+            if (visited[member] != 0) {
+              continue;
+            }
+            visited[member] = 1;
+            touched = grow(touched, scored);
+            touched[scored++] = member;
+            float score = score(member, expansions);
+            if (score < MIN_SIMILARITY) {
+              continue;
+            }
+            long entry = ((long) Float.floatToIntBits(score) << 32) | (~member & 0xFFFFFFFFL);
+            if (best.size() < limit) {
+              best.add(entry);
+            } else if (entry > best.peek()) {
+              best.poll();
+              best.add(entry);
+            }
+          }
+        }
+      }
+    } finally {
+      for (int i = 0; i < scored; i++) {
+        visited[touched[i]] = 0;
+      }
+    }
+    Member[] results = new Member[best.size()];
+    for (int i = results.length - 1; i >= 0; i--) {
+      results[i] = members[~(int) (long) best.poll()];
+    }
+    return Arrays.asList(results);
+  }
+
+  private float score(int member, Expansion[] expansions) {
+    int start = wordStarts[member];
+    int end = wordStarts[member + 1];
+    float covered = 0;
+    for (Expansion expansion : expansions) {
+      float match = 0;
+      for (int i = start; i < end; i++) {
+        match = Math.max(match, expansion.similarityOf(memberWords[i]));
+      }
+      covered += match;
+    }
+    return covered / (expansions.length + (end - start) - covered);
+  }
+
+  /**
+   * Finds the known words closest to a query word. The trigram lists are read shortest first,
+   * and the words found are scored in order of trigrams shared so far, stopping once even the
+   * lists left unread could not make a word close enough.
+   */
+  private Expansion expand(String text) {
+    int queryCount = trigramsOf(text);
+    long[] query = Arrays.copyOf(scratch, queryCount);
+    List<IntList> lists = new ArrayList<>(queryCount);
+    for (long trigram : query) {
+      IntList list = trigrams.get(trigram);
+      if (list != null) {
+        lists.add(list);
+      }
+    }
+    lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+    // A word sharing fewer trigrams than this cannot be close enough, so once only that many
+    // lists are left, words not seen yet are skipped; the lists still count for words seen.
+    int minShared = (int) Math.ceil(MIN_WORD_SIMILARITY * queryCount);
+    int unread = lists.size();
+    int candidates = 0;
+    long read = 0;
+    for (IntList list : lists) {
+      if (read > 0 && read + list.size > POSTINGS_BUDGET) {
+        break;
+      }
+      int length = Math.min(list.size, POSTINGS_BUDGET);
+      if (unread < minShared) {
+        for (int i = 0; i < length; i++) {
+          int word = list.values[i];
+          if (wordCounts[word] != 0) {
+            wordCounts[word]++;
+          }
+        }
+      } else {
+        for (int i = 0; i < length; i++) {
+          int word = list.values[i];
+          if (wordCounts[word]++ == 0) {
+            touched = grow(touched, candidates);
+            touched[candidates++] = word;
+          }
+        }
+      }
+      read += length;
+      if (length < list.size) {
+        break;
+      }
+      unread--;
+    }
+    try {
+      return closestWords(query, candidates, unread);
+    } finally {
+      for (int i = 0; i < candidates; i++) {
+        wordCounts[touched[i]] = 0;
+      }
+    }
+  }
+
+  private Expansion closestWords(long[] query, int candidates, int unread) {
+    // Orders the candidates by trigrams shared so far, most first. Counts stay below the
+    // number of query trigrams, so a counting sort does it.
+    int maxShared = query.length;
+    int[] starts = new int[maxShared + 2];
+    for (int i = 0; i < candidates; i++) {
+      starts[maxShared - wordCounts[touched[i]] + 1]++;
+    }
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] += starts[i - 1];
+    }
+    int[] order = new int[candidates];
+    for (int i = 0; i < candidates; i++) {
+      order[starts[maxShared - wordCounts[touched[i]]]++] = touched[i];
+    }
+
+    PriorityQueue<Long> best = new PriorityQueue<>();
+    boolean[] matched = new boolean[query.length];
+    int scored = 0;
+    for (int i = 0; i < candidates && i < 4 * MAX_WORD_SCORINGS && scored < MAX_WORD_SCORINGS;
+        i++) {
+      int word = order[i];
+      float bound = Math.min(1f, (float) (wordCounts[word] + unread) / query.length);
+      float least = best.size() < MAX_EXPANSIONS
+          ? MIN_WORD_SIMILARITY : Float.intBitsToFloat((int) (best.peek() >>> 32));
+      if (bound < least) {
+        break;
+      }
+      // Closer bound for this word, which also has trigrams of its own.
+      int own = wordTrigrams[word];
+      int reachable = Math.min(wordCounts[word] + unread, own);
+      if ((float) reachable / (query.length + own - reachable) < least) {
+        continue;
+      }
+      // With every list read the count is exact and the word need not be split again.
+      float similarity = unread == 0
+          ? (float) wordCounts[word] / (query.length + own - wordCounts[word])
+          : similarity(query, matched, words[word].text, own);
+      scored++;
+      if (similarity < MIN_WORD_SIMILARITY) {
+        continue;
+      }
+      long entry = ((long) Float.floatToIntBits(similarity) << 32) | (~word & 0xFFFFFFFFL);
+      if (best.size() < MAX_EXPANSIONS) {
+        best.add(entry);
+      } else if (entry > best.peek()) {
+        best.poll();
+        best.add(entry);
+      }
+    }
+    Expansion expansion = new Expansion(best.size());
+    int fewest = Integer.MAX_VALUE;
+    for (int i = expansion.count - 1; i >= 0; i--) {
+      long entry = best.poll();
+      Word word = words[~(int) entry];
+      expansion.words[i] = ~(int) entry;
+      expansion.similarities[i] = Float.intBitsToFloat((int) (entry >>> 32));
+      expansion.postings += word.size;
+      fewest = Math.min(fewest, word.fewestWords);
+      expansion.fewestWords[i] = fewest;
+    }
+    return expansion;
+  }
+
+  private static float similarity(long[] query, boolean[] matched, String text, int own) {
+    Arrays.fill(matched, false);
+    int shared = 0;
+    char first = ' ';
+    char second = ' ';
+    for (int i = 0; i < Math.min(Byte.MAX_VALUE, text.length() + 1); i++) {
+      char third = i < text.length() ? text.charAt(i) : ' ';
+      int index = Arrays.binarySearch(query, trigram(first, second, third));
+      if (index >= 0 && !matched[index]) {
+        matched[index] = true;
+        shared++;
+      }
+      first = second;
+      second = third;
+    }
+    return (float) shared / (query.length + own - shared);
+  }
+
+  private int findByEmail(String email) {
+    int hash = email.hashCode();
+    int mask = emailSlots.length - 1;
+    for (int slot = spread(hash) & mask; emailSlots[slot] != 0; slot = (slot + 1) & mask) {
+      int member = emailSlots[slot] - 1;
+      if (emailHashes[slot] == hash && email.equals(normalize(members[member].getEmail()))) {
+        return member;
+      }
+    }
+    return -1;
+  }
+
+  private void insertEmail(int hash, int member) {
+    int mask = emailSlots.length - 1;
+    int slot = spread(hash) & mask;
+    while (emailSlots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    emailSlots[slot] = member + 1;
+    emailHashes[slot] = hash;
+    emailCount++;
+  }
+
+  private void rehashEmails() {
+    int[] slots = emailSlots;
+    int[] hashes = emailHashes;
+    emailSlots = new int[slots.length * 2];
+    emailHashes = new int[slots.length * 2];
+    emailCount = 0;
+    for (int i = 0; i < slots.length; i++) {
+      if (slots[i] != 0) {
+        insertEmail(hashes[i], slots[i] - 1);
+      }
+    }
+  }
+
+  private static int spread(int hash) {
+    return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+  }
+
+  private int wordIdOf(String text) {
+    Word existing = wordsByText.get(text);
+    if (existing != null) {
+      return existing.id;
+    }
+    if (wordCount == words.length) {
+      words = Arrays.copyOf(words, wordCount * 2);
+      wordTrigrams = Arrays.copyOf(wordTrigrams, wordCount * 2);
+      wordCounts = Arrays.copyOf(wordCounts, wordCount * 2);
+    }
+    int word = wordCount++;
+    int count = trigramsOf(text);
+    words[word] = new Word(word, text);
+    wordTrigrams[word] = (byte) count;
+    wordsByText.put(text, words[word]);
+    for (int i = 0; i < count; i++) {
+      trigrams.computeIfAbsent(scratch[i], trigram -> new IntList()).add(word);
+    }
+    return word;
+  }
+
+  /**
+   * Writes the distinct trigrams of a word to the scratch array, sorted. At most
+   * {@value Byte#MAX_VALUE} are written, so shared counts fit in a byte.
+   *
+   * @return the number of trigrams
+   */
+  private int trigramsOf(String word) {
+    // A word of n letters yields n + 1 trigrams.
+    int count = Math.min(Byte.MAX_VALUE, word.length() + 1);
+    if (scratch.length < count) {
+      scratch = new long[Math.max(scratch.length * 2, count)];
+    }
+    char first = ' ';
+    char second = ' ';
+    for (int i = 0; i < count; i++) {
+      char third = i < word.length() ? word.charAt(i) : ' ';
+      scratch[i] = trigram(first, second, third);
+      first = second;
+      second = third;
+    }
+    Arrays.sort(scratch, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || scratch[distinct - 1] != scratch[i]) {
+        scratch[distinct++] = scratch[i];
+      }
+    }
+    return distinct;
+  }
+
+  private static long trigram(char first, char second, char third) {
+    return ((long) first << 32) | ((long) second << 16) | third;
+  }
+
+  private static int[] grow(int[] values, int used) {
+    return used < values.length ? values : Arrays.copyOf(values, used * 2);
+  }
+
+  private static String[] splitWords(String normalized) {
+    return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+  }
+
+  /**
+   * Drops accents, lower-cases letters and turns every run of other characters into one space,
+   * with none at either end.
+   *
+   * @param text the text, may be null
+   * @return the normalized text, empty for null
+   */
+  static String normalize(String text) {
+    if (text == null || text.isEmpty()) {
+      return "";
+    }
+    String source = text;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) >= 0x80) {
+        source = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        break;
+      }
+    }
+    StringBuilder normalized = new StringBuilder(source.length());
+    boolean separated = false;
+    for (int i = 0; i < source.length(); i++) {
+      char c = source.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        if (separated && normalized.length() > 0) {
+          normalized.append(' ');
+        }
+        separated = false;
+        normalized.append(Character.toLowerCase(c));
+      } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+        separated = true;
+      }
+    }
+    return normalized.toString();
+  }
+
+  /**
+   * A distinct word of the names, with the members whose name contains it in ascending order.
+   */
+  private static final class Word {
+    private final int id;
+    private final String text;
+    private int[] members = new int[2];
+    private int size;
+    private int fewestWords = Integer.MAX_VALUE;
+
+    Word(int id, String text) {
+      this.id = id;
+      this.text = text;
+    }
+
+    void add(int member) {
+      if (size > 0 && members[size - 1] == member) {
+        return;
+      }
+      if (size == members.length) {
+        members = Arrays.copyOf(members, size * 2);
+      }
+      members[size++] = member;
+    }
+  }
+
+  /**
+   * The ids of the words containing one trigram, in ascending order.
+   */
+  private static final class IntList {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+  }
+
+  /**
+   * The known words closest to one query word, closest first, and how many members they have.
+   */
+  private static final class Expansion {
+    private final int[] words;
+    private final float[] similarities;
+    // The fewest words in a name containing one of words[i] and later.
+    private final int[] fewestWords;
+    private final int count;
+    private long postings;
+
+    Expansion(int count) {
+      this.words = new int[count];
+      this.similarities = new float[count];
+      this.fewestWords = new int[count];
+      this.count = count;
+    }
+
+    float closest() {
+      return count == 0 ? 0 : similarities[0];
+    }
+
+    int fewestWordsFrom(int index) {
+      return index < count ? fewestWords[index] : Integer.MAX_VALUE;
+    }
+
+    float similarityOf(int word) {
+      for (int i = 0; i < count; i++) {
+        if (words[i] == word) {
+          return similarities[i];
+        }
+      }
+      return 0;
+    }
+  }
+}
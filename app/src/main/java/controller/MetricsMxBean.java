@@ -0,0 +1,49 @@
+package controller;
+
+import javax.management.MXBean;
+
+/**
+ * The management interface of {@link Metrics}, as seen over JMX.
+ */
+@MXBean
+public interface MetricsMxBean {
+
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  long getBookingsAccepted();
+
+  long getBookingsRejectedForCredits();
+
+  long getBookingsRejectedForAvailability();
+
+  /**
+   * Returns one line per operation with its count and latency percentiles.
+   *
+   * @return the summary lines
+   */
+  String[] getLatencySummary();
+
+  /**
+   * Returns how many times an operation was timed.
+   *
+   * @param operation the name of the operation, as listed in the summary
+   * @return the count
+   */
+  long count(String operation);
+
+  /**
+   * Returns a latency percentile of an operation.
+   *
+   * @param operation the name of the operation, as listed in the summary
+   * @param fraction  the fraction, such as 0.99 for the 99th percentile
+   * @return the latency in microseconds
+   */
+  double percentileMicros(String operation, double fraction);
+
+  /**
+   * Clears all counters and histograms.
+   */
+  void reset();
+}
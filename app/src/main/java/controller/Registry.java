@@ -0,0 +1,160 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import model.AppendOnlyList;
+
+/**
+ * Keeps registered entities in insertion order and indexes them by name and by id.
+ *
+ * <p>Ids are the dense numeric ids handed out by an {@link model.IdAllocator}, so the id index is
+ * a plain array with the id as the slot.
+ *
+ * <p>Names are not required to be unique. When several entries share a name, lookups by name
+ * return the one registered first, which is the same answer a linear scan would give. Names are
+ * indexed when an entry is added.
+ *
+ * <p>Lookups and listings may run concurrently with additions; additions are serialized. A
+ * listing is a snapshot of the entries at the time it was taken, so it can be iterated while
+ * entries are being added.
+ *
+ * @param <T> the type of entity stored in the registry
+ */
+public class Registry<T> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final AppendOnlyList<T> entries;
+  private final Map<String, T> byName;
+  private volatile Object[] byId;
+  private long maxId;
+  private int deferredFrom = -1;
+  private final Function<T, String> nameOf;
+  private final ToLongFunction<T> idOf;
+
+  /**
+   * Creates an empty registry.
+   *
+   * @param nameOf extracts the name an entry is looked up by
+   * @param idOf   extracts the id an entry is looked up by
+   */
+  public Registry(Function<T, String> nameOf, ToLongFunction<T> idOf) {
+    this.entries = new AppendOnlyList<>();
+    this.byName = new ConcurrentHashMap<>();
+    this.byId = new Object[INITIAL_CAPACITY];
+    this.nameOf = nameOf;
+    this.idOf = idOf;
+  }
+
+  /**
+   * Registers an entry and indexes it by name and id.
+   *
+   * @param entry the entry to register
+   * @throws IllegalArgumentException if the entry is null or its id is not a positive int
+   */
+  public synchronized void add(T entry) {
+    if (entry == null) {
+      throw new IllegalArgumentException("Entry cannot be null");
+    }
+    long id = idOf.applyAsLong(entry);
+    if (id <= 0 || id >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Id out of range: " + id);
+    }
+    Object[] slots = byId;
+    if (id >= slots.length) {
+      slots = Arrays.copyOf(slots, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(id + 1,
+          slots.length * 2L)));
+    }
+    if (slots[(int) id] == null) {
+      slots[(int) id] = entry;
+    }
+    maxId = Math.max(maxId, id);
+    // Publishing the array and then the name makes the slot visible to any reader that found
+    // the entry by name.
+    byId = slots;
+    entries.add(entry);
+    if (deferredFrom < 0) {
+      putIfAbsent(byName, nameOf.apply(entry), entry);
+    }
+  }
+
+  /**
+   * Stops indexing names of new entries until {@link #indexDeferredNames()} is called. Used by
+   * bulk loads, which add many entries without looking any of them up by name.
+   */
+  public synchronized void deferNameIndex() {
+    if (deferredFrom < 0) {
+      deferredFrom = entries.size();
+    }
+  }
+
+  /**
+   * Indexes the names of all entries added since {@link #deferNameIndex()} in one pass, in
+   * insertion order, and resumes indexing on every add.
+   */
+  public synchronized void indexDeferredNames() {
+    if (deferredFrom < 0) {
+      return;
+    }
+    List<T> added = entries.snapshot();
+    for (int i = deferredFrom; i < added.size(); i++) {
+      T entry = added.get(i);
+      putIfAbsent(byName, nameOf.apply(entry), entry);
+    }
+    deferredFrom = -1;
+  }
+
+  /**
+   * Finds the first registered entry with the given name.
+   *
+   * @param name the name to look up
+   * @return the entry, or null if there is none
+   */
+  public T findByName(String name) {
+    return name == null ? null : byName.get(name);
+  }
+
+  /**
+   * Finds the entry with the given id.
+   *
+   * @param id the id to look up
+   * @return the entry, or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  public T findById(long id) {
+    Object[] slots = byId;
+    return id > 0 && id < slots.length ? (T) slots[(int) id] : null;
+  }
+
+  /**
+   * Returns the entries registered so far in insertion order, as a read-only list that later
+   * additions do not change. Nothing is copied.
+   *
+   * @return the current entries
+   */
+  public List<T> asList() {
+    return entries.snapshot();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void putIfAbsent(Map<String, T> index, String key, T entry) {
+    if (key != null) {
+      index.putIfAbsent(key, entry);
+    }
+  }
+
+  /**
+   * Returns the highest id registered so far.
+   *
+   * @return the highest id, or 0 if the registry is empty
+   */
+  public synchronized long maxId() {
+    return maxId;
+  }
+}
@@ -0,0 +1,54 @@
+package controller;
+
+/**
+ * The outcome of running a command script with the {@link ScriptRunner}.
+ */
+public class ScriptReport {
+  private final long commands;
+  private final long commandsSucceeded;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a report.
+   *
+   * @param commands          the number of commands in the script
+   * @param commandsSucceeded the number of commands that were accepted
+   * @param elapsedNanos      the time the run took
+   */
+  public ScriptReport(long commands, long commandsSucceeded, long elapsedNanos) {
+    this.commands = commands;
+    this.commandsSucceeded = commandsSucceeded;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getCommands() {
+    return commands;
+  }
+
+  public long getCommandsSucceeded() {
+    return commandsSucceeded;
+  }
+
+  public long getCommandsFailed() {
+    return commands - commandsSucceeded;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the rate over all commands run.
+   *
+   * @return commands per second
+   */
+  public double getOpsPerSecond() {
+    return elapsedNanos == 0 ? 0 : commands * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Ran %d commands (%d failed) in %.2f s, %.0f ops/s",
+        commands, getCommandsFailed(), elapsedNanos / 1e9, getOpsPerSecond());
+  }
+}
@@ -0,0 +1,259 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import persistence.RecordParser;
+
+/**
+ * Runs a script of lending system commands without prompting, for operations tasks and as a
+ * load driver.
+ *
+ * <p>A script holds one command per line, with its arguments separated by commas and quoted as
+ * in CSV. Blank lines and lines starting with {@code #} are skipped. The commands are:
+ * <ul>
+ *   <li>{@code add-member,name,email,phone}</li>
+ *   <li>{@code add-item,owner,name,description,category,costPerDay}</li>
+ *   <li>{@code book,borrower,item,startDate,endDate} (yyyy-mm-dd)</li>
+ *   <li>{@code advance} or {@code advance,days}</li>
+ * </ul>
+ *
+ * <p>Lines are read and parsed on a separate thread while earlier commands are applied. Commands
+ * are applied in script order, in chunks that each form one journal batch. A chunk is cut when
+ * it is full or when no more input is buffered, so commands piped in slowly still run as they
+ * arrive. The result of every command is written to a buffered output, one line per command,
+ * which is flushed whenever the runner catches up with its input.
+ */
+public class ScriptRunner {
+  private static final int CHUNK_COMMANDS = 4096;
+  private static final int MAX_CHUNKS_IN_FLIGHT = 4;
+  private static final int OUTPUT_BUFFER_CHARS = 1 << 16;
+  private static final List<Command> END_OF_SCRIPT = new ArrayList<>();
+
+  private static final int ADD_MEMBER = 1;
+  private static final int ADD_ITEM = 2;
+  private static final int BOOK = 3;
+  private static final int ADVANCE = 4;
+
+  private final LendingSystem system;
+
+  /**
+   * Creates a runner.
+   *
+   * @param system the lending system the commands are applied to
+   */
+  public ScriptRunner(LendingSystem system) {
+    this.system = system;
+  }
+
+  /**
+   * Runs a script file.
+   *
+   * @param script the script file
+   * @param output where the result of each command is written
+   * @return the outcome of the run
+   * @throws IOException if the script cannot be read or the output cannot be written
+   */
+  public ScriptReport run(Path script, Writer output) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+      return run(reader, output);
+    }
+  }
+
+  /**
+   * Runs a script read from a reader, such as piped standard input. The reader is read to its
+   * end but not closed.
+   *
+   * @param script the script
+   * @param output where the result of each command is written; flushed but not closed
+   * @return the outcome of the run
+   * @throws IOException if the script cannot be read or the output cannot be written
+   */
+  public ScriptReport run(BufferedReader script, Writer output) throws IOException {
+    final long started = System.nanoTime();
+    BlockingQueue<List<Command>> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS_IN_FLIGHT);
+    IOException[] readFailure = new IOException[1];
+    Thread parser = new Thread(() -> readCommands(script, chunks, readFailure), "script-parser");
+    parser.setDaemon(true);
+    parser.start();
+
+    BufferedWriter out = new BufferedWriter(output, OUTPUT_BUFFER_CHARS);
+    long[] counts = new long[2];
+    try {
+      while (true) {
+        List<Command> chunk = chunks.take();
+        if (chunk == END_OF_SCRIPT) {
+          break;
+        }
+        system.runInBatch(() -> {
+          for (Command command : chunk) {
+            counts[apply(command, out) ? 0 : 1]++;
+          }
+        });
+        if (chunks.isEmpty()) {
+          out.flush();
+        }
+      }
+      parser.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Script interrupted", e);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      parser.interrupt();
+      out.flush();
+    }
+    if (readFailure[0] != null) {
+      throw readFailure[0];
+    }
+    return new ScriptReport(counts[0] + counts[1], counts[0], System.nanoTime() - started);
+  }
+
+  private static void readCommands(BufferedReader script, BlockingQueue<List<Command>> chunks,
+      IOException[] failure) {
+    try {
+      try {
+        List<Command> chunk = new ArrayList<>();
+        int lineNumber = 0;
+        String line;
+        while ((line = script.readLine()) != null) {
+          lineNumber++;
+          if (line.isBlank() || line.trim().startsWith("#")) {
+            continue;
+          }
+          chunk.add(Command.parse(lineNumber, line));
+          // Hand over what there is rather than wait for a full chunk on a slow pipe.
+          if (chunk.size() == CHUNK_COMMANDS || !script.ready()) {
+            chunks.put(chunk);
+            chunk = new ArrayList<>();
+          }
+        }
+        if (!chunk.isEmpty()) {
+          chunks.put(chunk);
+        }
+      } catch (IOException e) {
+        failure[0] = e;
+      }
+      chunks.put(END_OF_SCRIPT);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean apply(Command command, Writer out) {
+    String message;
+    boolean succeeded;
+    if (command.error != null) {
+      message = "error: " + command.error;
+      succeeded = false;
+    } else {
+      try {
+        switch (command.kind) {
+          case ADD_MEMBER:
+            system.addMember(command.args[0], command.args[1], command.args[2]);
+            message = "Member added: " + command.args[0];
+            succeeded = true;
+            break;
+          case ADD_ITEM:
+            message = system.addItem(command.args[0], command.args[1], command.args[2],
+                command.args[3], command.number);
+            succeeded = !LendingSystem.MEMBER_NOT_FOUND_MESSAGE.equals(message);
+            break;
+          case BOOK:
+            message = system.createLendingContract(command.args[0], command.args[1],
+                command.startDate, command.endDate);
+            succeeded = LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE.equals(message);
+            break;
+          default:
+            long events = system.advanceDays(command.number);
+            message = "Current day: " + system.getCurrentDay() + " (" + events + " events)";
+            succeeded = true;
+            break;
+        }
+      } catch (IllegalArgumentException e) {
+        message = "error: " + e.getMessage();
+        succeeded = false;
+      }
+    }
+    try {
+      out.write(command.lineNumber + ": " + message);
+      out.write(System.lineSeparator());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return succeeded;
+  }
+
+  /**
+   * One parsed script line. Arguments are converted while parsing, so a malformed line is
+   * reported without touching the lending system.
+   */
+  private static final class Command {
+    private final int lineNumber;
+    private int kind;
+    private String[] args;
+    private int number;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String error;
+
+    private Command(int lineNumber) {
+      this.lineNumber = lineNumber;
+    }
+
+    static Command parse(int lineNumber, String line) {
+      Command command = new Command(lineNumber);
+      try {
+        List<String> fields = RecordParser.parseCsvLine(line.trim());
+        String verb = fields.get(0).trim();
+        command.args = fields.subList(1, fields.size()).toArray(new String[0]);
+        switch (verb) {
+          case "add-member":
+            command.expectArgs(3);
+            command.kind = ADD_MEMBER;
+            break;
+          case "add-item":
+            command.expectArgs(5);
+            command.kind = ADD_ITEM;
+            command.number = Integer.parseInt(command.args[4].trim());
+            break;
+          case "book":
+            command.expectArgs(4);
+            command.kind = BOOK;
+            command.startDate = LocalDate.parse(command.args[2].trim());
+            command.endDate = LocalDate.parse(command.args[3].trim());
+            break;
+          case "advance":
+            command.kind = ADVANCE;
+            command.number = command.args.length == 0 ? 1 : Integer.parseInt(
+                command.args[0].trim());
+            break;
+          default:
+            command.error = "Unknown command '" + verb + "'";
+        }
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        command.error = e.getMessage();
+      }
+      return command;
+    }
+
+    private void expectArgs(int count) {
+      if (args.length != count) {
+        throw new IllegalArgumentException("Expected " + count + " arguments, got "
+            + args.length);
+      }
+    }
+  }
+}
@@ -0,0 +1,317 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index for full-text search over a name and a description per entry.
+ *
+ * <p>Text is split into lower-case tokens of letters and digits. Every token maps to a posting
+ * list of the entries containing it, in insertion order, with a weight counting its occurrences;
+ * occurrences in the name weigh {@value #NAME_WEIGHT} times as much as those in the description.
+ *
+ * <p>A query matches the entries that contain every query term, either as a whole token or as
+ * the prefix of one. Results are ranked by the sum over query terms of weight times inverse
+ * document frequency, with prefix matches counting half as much as whole-token matches. Ties are
+ * broken by insertion order.
+ *
+ * <p>Entries are indexed incrementally as they are added. Additions and searches are
+ * synchronized on the index, so a search waits for an addition in progress and sees every entry
+ * added before it.
+ *
+ * @param <T> the type of entry being indexed
+ */
+public class SearchIndex<T> {
+  static final int NAME_WEIGHT = 3;
+  private static final float PREFIX_FACTOR = 0.5f;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final TreeMap<String, Postings> terms;
+  private Object[] entries;
+  private int size;
+
+  /**
+   * Creates an empty index.
+   */
+  public SearchIndex() {
+    this.terms = new TreeMap<>();
+    this.entries = new Object[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Indexes an entry under the tokens of its name and description.
+   *
+   * @param entry       the entry
+   * @param name        the name of the entry, may be null
+   * @param description the description of the entry, may be null
+   * @throws IllegalArgumentException if the entry is null
+   */
+  public synchronized void add(T entry, String name, String description) {
+    if (entry == null) {
+      throw new IllegalArgumentException("Entry cannot be null");
+    }
+    if (size == entries.length) {
+      entries = Arrays.copyOf(entries, size * 2);
+    }
+    int doc = size;
+    entries[size++] = entry;
+    for (String token : tokenize(name)) {
+      terms.computeIfAbsent(token, t -> new Postings()).add(doc, NAME_WEIGHT);
+    }
+    for (String token : tokenize(description)) {
+      terms.computeIfAbsent(token, t -> new Postings()).add(doc, 1);
+    }
+  }
+
+  /**
+   * Returns the best matching entries for a query, best first.
+   *
+   * @param query the query, a list of terms
+   * @param limit the maximum number of results
+   * @return the matching entries, empty if the query has no terms or nothing matches
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized List<T> search(String query, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative");
+    }
+    List<String> queryTerms = tokenize(query);
+    if (queryTerms.isEmpty() || limit == 0) {
+      return Collections.emptyList();
+    }
+    List<TermMatch> matches = new ArrayList<>(queryTerms.size());
+    for (String term : queryTerms) {
+      TermMatch match = match(term);
+      if (match.documentFrequency == 0) {
+        return Collections.emptyList();
+      }
+      matches.add(match);
+    }
+    // Start from the rarest term so the candidate set is as small as it gets.
+    matches.sort((a, b) -> Long.compare(a.documentFrequency, b.documentFrequency));
+
+    TermMatch rarest = matches.get(0);
+    int[] docs = new int[(int) rarest.documentFrequency];
+    float[] scores = new float[docs.length];
+    int count = rarest.collect(docs, scores);
+    for (int m = 1; m < matches.size() && count > 0; m++) {
+      TermMatch match = matches.get(m);
+      int kept = 0;
+      for (int i = 0; i < count; i++) {
+        float score = match.scoreOf(docs[i]);
+        if (score > 0) {
+          docs[kept] = docs[i];
+          scores[kept++] = scores[i] + score;
+        }
+      }
+      count = kept;
+    }
+
+    // Higher score first, then lower document number: the complement of the document number
+    // sorts ascending when read as unsigned. Only the best keys are kept, in a min-heap.
+    int resultCount = Math.min(limit, count);
+    long[] best = new long[resultCount];
+    int heapSize = 0;
+    for (int i = 0; i < count; i++) {
+      long key = ((long) Float.floatToIntBits(scores[i]) << 32) | (~docs[i] & 0xFFFFFFFFL);
+      if (heapSize < resultCount) {
+        best[heapSize++] = key;
+        siftUp(best, heapSize - 1);
+      } else if (key > best[0]) {
+        best[0] = key;
+        siftDown(best, heapSize);
+      }
+    }
+    Arrays.sort(best);
+    List<T> results = new ArrayList<>(resultCount);
+    for (int i = resultCount - 1; i >= 0; i--) {
+      results.add((T) entries[~(int) best[i]]);
+    }
+    return results;
+  }
+
+  /**
+   * Returns the number of indexed entries.
+   *
+   * @return the number of entries
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Splits text into lower-case tokens of letters and digits.
+   *
+   * @param text the text, may be null
+   * @return the tokens in order of appearance
+   */
+  static List<String> tokenize(String text) {
+    if (text == null || text.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<String> tokens = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (letterOrDigit && start < 0) {
+        start = i;
+      } else if (!letterOrDigit && start >= 0) {
+        tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private static void siftUp(long[] heap, int index) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (heap[parent] <= heap[index]) {
+        return;
+      }
+      swap(heap, parent, index);
+      index = parent;
+    }
+  }
+
+  private static void siftDown(long[] heap, int size) {
+    int index = 0;
+    while (true) {
+      int smallest = index;
+      int left = 2 * index + 1;
+      int right = left + 1;
+      if (left < size && heap[left] < heap[smallest]) {
+        smallest = left;
+      }
+      if (right < size && heap[right] < heap[smallest]) {
+        smallest = right;
+      }
+      if (smallest == index) {
+        return;
+      }
+      swap(heap, index, smallest);
+      index = smallest;
+    }
+  }
+
+  private static void swap(long[] heap, int i, int j) {
+    long tmp = heap[i];
+    heap[i] = heap[j];
+    heap[j] = tmp;
+  }
+
+  private TermMatch match(String term) {
+    NavigableMap<String, Postings> expansions =
+        terms.subMap(term, true, term + Character.MAX_VALUE, false);
+    Postings[] postings = new Postings[expansions.size()];
+    float[] factors = new float[postings.length];
+    long documentFrequency = 0;
+    int i = 0;
+    for (Map.Entry<String, Postings> expansion : expansions.entrySet()) {
+      Postings list = expansion.getValue();
+      postings[i] = list;
+      float idf = (float) Math.log(1 + (double) size / list.size);
+      factors[i] = expansion.getKey().length() == term.length() ? idf : idf * PREFIX_FACTOR;
+      documentFrequency += list.size;
+      i++;
+    }
+    return new TermMatch(postings, factors, documentFrequency);
+  }
+
+  /**
+   * The entries containing one token, in ascending document order, with their weights.
+   */
+  private static final class Postings {
+    private int[] docs = new int[4];
+    private int[] weights = new int[4];
+    private int size;
+
+    void add(int doc, int weight) {
+      if (size > 0 && docs[size - 1] == doc) {
+        weights[size - 1] += weight;
+        return;
+      }
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        weights = Arrays.copyOf(weights, size * 2);
+      }
+      docs[size] = doc;
+      weights[size++] = weight;
+    }
+
+    int weightOf(int doc) {
+      int index = Arrays.binarySearch(docs, 0, size, doc);
+      return index >= 0 ? weights[index] : 0;
+    }
+  }
+
+  /**
+   * The tokens a query term matches, each with the factor its weights are scored by.
+   */
+  private static final class TermMatch {
+    private final Postings[] postings;
+    private final float[] factors;
+    private final long documentFrequency;
+
+    TermMatch(Postings[] postings, float[] factors, long documentFrequency) {
+      this.postings = postings;
+      this.factors = factors;
+      this.documentFrequency = documentFrequency;
+    }
+
+    float scoreOf(int doc) {
+      float score = 0;
+      for (int i = 0; i < postings.length; i++) {
+        score += postings[i].weightOf(doc) * factors[i];
+      }
+      return score;
+    }
+
+    /**
+     * Writes every matching document with its score, in ascending document order.
+     *
+     * @return the number of documents written
+     */
+    int collect(int[] docs, float[] scores) {
+      if (postings.length == 1) {
+        Postings list = postings[0];
+        System.arraycopy(list.docs, 0, docs, 0, list.size);
+        for (int j = 0; j < list.size; j++) {
+          scores[j] = list.weights[j] * factors[0];
+        }
+        return list.size;
+      }
+      // Packed as document number in the high and score bits in the low half, sorting groups
+      // the entries of a document together; their scores are then summed.
+      long[] packed = new long[docs.length];
+      int count = 0;
+      for (int i = 0; i < postings.length; i++) {
+        Postings list = postings[i];
+        for (int j = 0; j < list.size; j++) {
+          packed[count++] = ((long) list.docs[j] << 32)
+              | (Float.floatToIntBits(list.weights[j] * factors[i]) & 0xFFFFFFFFL);
+        }
+      }
+      Arrays.sort(packed);
+      int distinct = 0;
+      for (int i = 0; i < count; i++) {
+        int doc = (int) (packed[i] >>> 32);
+        float score = Float.intBitsToFloat((int) packed[i]);
+        if (distinct > 0 && docs[distinct - 1] == doc) {
+          scores[distinct - 1] += score;
+        } else {
+          docs[distinct] = doc;
+          scores[distinct++] = score;
+        }
+      }
+      return distinct;
+    }
+  }
+}
@@ -0,0 +1,279 @@
+package controller;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Contract;
+import model.Item;
+import model.Member;
+
+/**
+ * A lending system split into independent shards by member id.
+ *
+ * <p>Each shard is a {@link LendingSystem} of its own that holds a share of the members, their
+ * items and the contracts on those items, with its own locks, contract list and credit ledger.
+ * Operations that touch a single shard run entirely inside it, so they scale with the number of
+ * shards.
+ *
+ * <p>A member's global id is derived from its shard and its id within the shard, so the shard of
+ * a member follows from its id: {@code (id - 1) % shardCount}. New members are placed on the
+ * shards in turn.
+ *
+ * <p>A booking whose borrower and item owner are on different shards is a two-phase credit
+ * transfer. In the prepare phase the borrower's stripe on one shard and the item and owner
+ * stripes on the other are locked, always the lower shard first, and each side checks that it
+ * can commit: the item is free and the borrower can pay. Only if both agree does the commit
+ * phase register the contract and credit the owner on the owner's shard and debit the borrower
+ * on the borrower's shard. Since both sides stay locked from prepare to commit, no other booking
+ * can invalidate a vote in between, and the commit steps cannot fail.
+ *
+ * <p>Shards are kept in memory only; contract ids are unique per shard.
+ */
+public final class ShardedLendingSystem {
+  private final LendingSystem[] shards;
+  private final Map<String, Integer> memberShards;
+  private final Map<String, Integer> itemShards;
+  private final AtomicLong placements;
+
+  /**
+   * Creates an empty system with the given number of shards.
+   *
+   * @param shardCount the number of shards
+   * @throws IllegalArgumentException if the shard count is not positive
+   */
+  public ShardedLendingSystem(int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    this.shards = new LendingSystem[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = LendingSystem.emptyShard();
+    }
+    this.memberShards = new ConcurrentHashMap<>();
+    this.itemShards = new ConcurrentHashMap<>();
+    this.placements = new AtomicLong();
+  }
+
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Returns one shard, to inspect the members, items and contracts it holds.
+   *
+   * @param index the shard index
+   * @return the shard
+   */
+  public LendingSystem getShard(int index) {
+    return shards[index];
+  }
+
+  /**
+   * Adds a member to the next shard in turn.
+   *
+   * @param name        the name of the member
+   * @param email       the email of the member
+   * @param phoneNumber the phone number of the member
+   * @return the global id of the new member
+   */
+  public long addMember(String name, String email, String phoneNumber) {
+    int shard = (int) (placements.getAndIncrement() % shards.length);
+    Member member = shards[shard].registerMember(name, email, phoneNumber);
+    if (name != null) {
+      memberShards.putIfAbsent(name, shard);
+    }
+    return globalId(shard, member.getId());
+  }
+
+  /**
+   * Adds an item to the shard of its owner.
+   *
+   * @return the outcome message of the owner's shard
+   */
+  public String addItem(String nameOfMember, String itemName, String description,
+      String category, int costPerDay) {
+    Integer shard = nameOfMember == null ? null : memberShards.get(nameOfMember);
+    if (shard == null) {
+      return LendingSystem.MEMBER_NOT_FOUND_MESSAGE;
+    }
+    String message = shards[shard].addItem(nameOfMember, itemName, description, category,
+        costPerDay);
+    if (itemName != null && !LendingSystem.MEMBER_NOT_FOUND_MESSAGE.equals(message)) {
+      itemShards.putIfAbsent(itemName, shard);
+    }
+    return message;
+  }
+
+  /**
+   * Books an item. Within one shard this is an ordinary booking; across shards it is a
+   * two-phase credit transfer.
+   *
+   * @return the outcome message, the same ones {@link LendingSystem} uses
+   */
+  public String createLendingContract(String borrowerName, String nameOfItem,
+      LocalDate startDate, LocalDate endDate) {
+    Integer borrowerShard = borrowerName == null ? null : memberShards.get(borrowerName);
+    Integer ownerShard = nameOfItem == null ? null : itemShards.get(nameOfItem);
+    if (borrowerShard == null || ownerShard == null) {
+      return LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE;
+    }
+    if (borrowerShard.equals(ownerShard)) {
+      return shards[borrowerShard].createLendingContract(borrowerName, nameOfItem, startDate,
+          endDate);
+    }
+    LendingSystem paying = shards[borrowerShard];
+    LendingSystem owning = shards[ownerShard];
+    Member borrower = paying.findMember(borrowerName);
+    Item item = owning.findItem(nameOfItem);
+
+    // Prepare: lock both sides, lower shard first, and let each side vote.
+    int[] borrowerLocks = null;
+    int[] ownerLocks = null;
+    try {
+      if (borrowerShard < ownerShard) {
+        borrowerLocks = paying.lockForBooking(borrower);
+        ownerLocks = owning.lockForBooking(item, item.getOwner());
+      } else {
+        ownerLocks = owning.lockForBooking(item, item.getOwner());
+        borrowerLocks = paying.lockForBooking(borrower);
+      }
+      if (!owning.isValidContract(borrower, item, startDate, endDate)) {
+        return LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE;
+      }
+      int credits = Contract.calculateCredits(item, startDate, endDate);
+      if (borrower.getCredits() < credits) {
+        return LendingSystem.INSUFFICIENT_CREDITS_MESSAGE;
+      }
+
+      // Commit: both sides agreed and are still locked.
+      Contract contract = owning.commitRemoteBooking(borrower, item, startDate, endDate);
+      paying.commitRemoteDebit(borrower, contract.getCreditsTransferred(), contract.getId());
+      return LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE;
+    } finally {
+      if (ownerLocks != null) {
+        owning.unlockBooking(ownerLocks);
+      }
+      if (borrowerLocks != null) {
+        paying.unlockBooking(borrowerLocks);
+      }
+    }
+  }
+
+  /**
+   * Finds a member by name. If several members share the name, the first one added is returned.
+   */
+  public Member findMember(String name) {
+    Integer shard = name == null ? null : memberShards.get(name);
+    return shard == null ? null : shards[shard].findMember(name);
+  }
+
+  /**
+   * Finds an item by name. If several items share the name, the first one added is returned.
+   */
+  public Item findItem(String name) {
+    Integer shard = name == null ? null : itemShards.get(name);
+    return shard == null ? null : shards[shard].findItem(name);
+  }
+
+  /**
+   * Finds a member by global id.
+   *
+   * @param memberId the global id
+   * @return the member, or null if there is none
+   */
+  public Member findMemberById(long memberId) {
+    if (memberId <= 0) {
+      return null;
+    }
+    int shard = shardOf(memberId);
+    return shards[shard].findMemberById((memberId - 1) / shards.length + 1);
+  }
+
+  /**
+   * Returns the shard a global member id belongs to.
+   *
+   * @param memberId the global id
+   * @return the shard index
+   */
+  public int shardOf(long memberId) {
+    return (int) ((memberId - 1) % shards.length);
+  }
+
+  /**
+   * Advances every shard by the given number of days.
+   *
+   * @param days the number of days
+   * @return the number of contract events processed over all shards
+   */
+  public long advanceDays(int days) {
+    long events = 0;
+    for (LendingSystem shard : shards) {
+      events += shard.advanceDays(days);
+    }
+    return events;
+  }
+
+  /**
+   * Returns the number of members over all shards.
+   *
+   * @return the number of members
+   */
+  public int getMemberCount() {
+    int count = 0;
+    for (LendingSystem shard : shards) {
+      count += shard.getMembers().size();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of contracts over all shards.
+   *
+   * @return the number of contracts
+   */
+  public int getContractCount() {
+    int count = 0;
+    for (LendingSystem shard : shards) {
+      count += shard.getContracts().size();
+    }
+    return count;
+  }
+
+  /**
+   * Verifies every shard's credit ledger and checks that credits were conserved across shards:
+   * all cross-shard debits were matched by credits, so the balances of all shards add up to
+   * the credits granted to members. Bookings should be quiet while this runs.
+   *
+   * @return true if every ledger is consistent and credits are conserved overall
+   */
+  public boolean verifyCredits() {
+    long netGranted = 0;
+    long[] crossShard = new long[2];
+    boolean consistent = true;
+    for (LendingSystem shard : shards) {
+      LedgerReport report = shard.verifyCreditLedger();
+      consistent &= report.isConsistent();
+      netGranted += report.getTotalGranted();
+      shard.getCreditLedger().forEachEntry((type, from, to, amount, reference) -> {
+        if (type == CreditLedger.CROSS_SHARD_CREDIT) {
+          crossShard[0] += amount;
+        } else if (type == CreditLedger.CROSS_SHARD_DEBIT) {
+          crossShard[1] += amount;
+        }
+      });
+    }
+    long granted = netGranted - crossShard[0] + crossShard[1];
+    long held = 0;
+    for (LendingSystem shard : shards) {
+      for (Member member : shard.getMembers()) {
+        held += member.getCredits();
+      }
+    }
+    return consistent && crossShard[0] == crossShard[1] && held == granted;
+  }
+
+  private long globalId(int shard, long localId) {
+    return (localId - 1) * shards.length + shard + 1;
+  }
+}
@@ -0,0 +1,87 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks that keys are hashed onto, so unrelated keys rarely share a lock.
+ *
+ * <p>Several keys can be locked together. Their stripes are always taken in ascending order,
+ * which keeps two threads locking overlapping key sets from deadlocking each other.
+ */
+public class StripedLocks {
+  private final ReentrantLock[] locks;
+  private final int mask;
+
+  /**
+   * Creates a lock set with at least the given number of stripes, rounded up to a power of two.
+   *
+   * @param minimumStripes the minimum number of stripes
+   */
+  public StripedLocks(int minimumStripes) {
+    int stripes = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+    this.locks = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.mask = stripes - 1;
+  }
+
+  /**
+   * Locks the stripes of all given keys.
+   *
+   * @param keys the keys to lock, null keys are ignored
+   * @return the locked stripes, to be passed to {@link #unlock(int[])}
+   */
+  public int[] lock(Object... keys) {
+    int[] stripes = new int[keys.length];
+    int count = 0;
+    for (Object key : keys) {
+      if (key != null) {
+        stripes[count++] = stripeOf(key);
+      }
+    }
+    Arrays.sort(stripes, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || stripes[distinct - 1] != stripes[i]) {
+        stripes[distinct++] = stripes[i];
+      }
+    }
+    int[] held = Arrays.copyOf(stripes, distinct);
+    for (int stripe : held) {
+      locks[stripe].lock();
+    }
+    return held;
+  }
+
+  /**
+   * Locks every stripe, which excludes all holders of any key.
+   *
+   * @return the locked stripes, to be passed to {@link #unlock(int[])}
+   */
+  public int[] lockAll() {
+    int[] all = new int[locks.length];
+    for (int i = 0; i < all.length; i++) {
+      all[i] = i;
+      locks[i].lock();
+    }
+    return all;
+  }
+
+  /**
+   * Releases stripes previously returned by {@link #lock(Object...)} or {@link #lockAll()}.
+   *
+   * @param stripes the stripes to release
+   */
+  public void unlock(int[] stripes) {
+    for (int i = stripes.length - 1; i >= 0; i--) {
+      locks[stripes[i]].unlock();
+    }
+  }
+
+  private int stripeOf(Object key) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
@@ -0,0 +1,188 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A list that grows at its end, with read-only views that need no copying.
+ *
+ * <p>Elements are never moved or replaced below the current size: a full array is replaced by a
+ * larger copy, and each append publishes a new (array, size) pair only after the element is in
+ * place. Removing elements builds a fresh array rather than shifting the old one. Any pair a
+ * reader picks up therefore stays valid forever, which lets the live view and snapshots be read
+ * without locking while another thread appends or removes. Changes must be serialized by the
+ * owner.
+ *
+ * <p>A snapshot is such a pair: taking one copies nothing and costs the writers nothing, and it
+ * keeps showing the same elements however the list changes afterwards.
+ *
+ * @param <E> the type of element
+ */
+public final class AppendOnlyList<E> {
+  private static final int INITIAL_CAPACITY = 4;
+
+  private volatile Prefix<E> current;
+  private final List<E> view;
+
+  /**
+   * Creates an empty list.
+   */
+  public AppendOnlyList() {
+    this.current = new Prefix<>(new Object[INITIAL_CAPACITY], 0);
+    this.view = new LiveView();
+  }
+
+  /**
+   * Appends an element. Callers serialize changes.
+   *
+   * @param element the element to append
+   */
+  public void add(E element) {
+    Prefix<E> state = current;
+    int count = state.size;
+    Object[] array = state.array;
+    if (count == array.length) {
+      array = Arrays.copyOf(array, count * 2);
+    }
+    array[count] = element;
+    current = new Prefix<>(array, count + 1);
+  }
+
+  /**
+   * Removes every element the filter accepts, keeping the order of the rest. Views and
+   * snapshots taken before keep seeing the removed elements. Callers serialize changes.
+   *
+   * @param filter selects the elements to remove
+   * @return the number of elements removed
+   */
+  @SuppressWarnings("unchecked")
+  public int removeIf(Predicate<? super E> filter) {
+    Prefix<E> state = current;
+    Object[] kept = new Object[Math.max(INITIAL_CAPACITY, state.array.length)];
+    int count = 0;
+    for (int i = 0; i < state.size; i++) {
+      Object element = state.array[i];
+      if (!filter.test((E) element)) {
+        kept[count++] = element;
+      }
+    }
+    int removed = state.size - count;
+    if (removed > 0) {
+      current = new Prefix<>(kept, count);
+    }
+    return removed;
+  }
+
+  public int size() {
+    return current.size;
+  }
+
+  /**
+   * Returns a read-only view that always reflects the current elements. The same view is
+   * returned on every call.
+   *
+   * @return the live view
+   */
+  public List<E> view() {
+    return view;
+  }
+
+  /**
+   * Returns a read-only list of the elements present now, unaffected by later changes. The
+   * elements are not copied.
+   *
+   * @return the snapshot
+   */
+  public List<E> snapshot() {
+    Prefix<E> state = current;
+    return state.size == 0 ? Collections.emptyList() : state;
+  }
+
+  /**
+   * Hands every current element to the action without allocating.
+   *
+   * @param action receives each element in order
+   */
+  public void forEach(Consumer<? super E> action) {
+    current.forEach(action);
+  }
+
+  /**
+   * The current elements, read through the owning list on every access. Iterating goes over the
+   * elements present when it starts, so a removal meanwhile cannot make it skip or fail.
+   */
+  private final class LiveView extends AbstractList<E> implements RandomAccess {
+    @Override
+    public E get(int index) {
+      return current.get(index);
+    }
+
+    @Override
+    public int size() {
+      return current.size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return current.iterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+      return current.listIterator(index);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+      return current.spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+      current.forEach(action);
+    }
+  }
+
+  /**
+   * The first elements of an array that will not change below the captured size.
+   */
+  private static final class Prefix<E> extends AbstractList<E> implements RandomAccess {
+    private final Object[] array;
+    private final int size;
+
+    Prefix(Object[] array, int size) {
+      this.array = array;
+      this.size = size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+      }
+      return (E) array[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+      for (int i = 0; i < size; i++) {
+        action.accept((E) array[i]);
+      }
+    }
+  }
+}
@@ -1,18 +1,21 @@
 package model;
 
 import java.time.LocalDate;
-import java.util.UUID;
 
 /**
  * Represents a contract for borrowing an item.
  */
 public class Contract {
-  private final String contractId; // Changed to camelCase
+  private static final char ID_PREFIX = 'C';
+  private static final IdAllocator STANDALONE_IDS = new IdAllocator();
+
+  private final long contractId; // Changed to camelCase
   private final Member borrower;
   private final Item item;
   private final LocalDate startDate;
   private final LocalDate endDate;
   private final int creditsTransferred;
+  private volatile ContractStatus status = ContractStatus.SCHEDULED;
 
   /**
    * Constructs a Contract with the specified borrower, item, start date, and end date.
@@ -23,24 +26,65 @@ public class Contract {
    * @param endDate   the end date of the contract
    */
   public Contract(Member borrower, Item item, LocalDate startDate, LocalDate endDate) {
-    this.contractId = UUID.randomUUID().toString().substring(0, 6);
+    this(STANDALONE_IDS.next(), borrower, item, startDate, endDate);
+  }
+
+  /**
+   * Constructs a Contract with an id allocated by its lending system.
+   *
+   * @param contractId the id of the contract
+   * @param borrower   the member borrowing the item
+   * @param item       the item being borrowed
+   * @param startDate  the start date of the contract
+   * @param endDate    the end date of the contract
+   */
+  public Contract(long contractId, Member borrower, Item item, LocalDate startDate,
+      LocalDate endDate) {
+    this.contractId = contractId;
     this.borrower = borrower;
     this.item = item;
     this.startDate = startDate;
     this.endDate = endDate;
-    this.creditsTransferred = item.getCostPerDay() * calculateDuration();
+    this.creditsTransferred = calculateCredits(item, startDate, endDate);
+  }
+
+  /**
+   * Calculates the credits a contract for the given item and period costs.
+   *
+   * @param item      the item being borrowed
+   * @param startDate the start date of the contract
+   * @param endDate   the end date of the contract
+   * @return the cost per day times the duration of the contract in days
+   */
+  public static int calculateCredits(Item item, LocalDate startDate, LocalDate endDate) {
+    return item.getCostPerDay() * (int) (endDate.toEpochDay() - startDate.toEpochDay());
   }
 
   /**
-   * Calculates the duration of the contract in days.
+   * Recreates a previously saved contract with its original id. No credits are moved, since
+   * the saved balances already include the transfer.
    *
-   * @return the duration of the contract
+   * @param contractId the original id of the contract
+   * @param borrower   the restored borrower
+   * @param item       the restored item
+   * @param startDate  the start date of the contract
+   * @param endDate    the end date of the contract
+   * @return the restored contract
    */
-  private int calculateDuration() {
-    return (int) (endDate.toEpochDay() - startDate.toEpochDay());
+  public static Contract restore(long contractId, Member borrower, Item item,
+      LocalDate startDate, LocalDate endDate) {
+    return new Contract(contractId, borrower, item, startDate, endDate);
   }
 
   // Data access methods
+  public long getId() {
+    return contractId;
+  }
+
+  public String getContractId() {
+    return IdAllocator.format(ID_PREFIX, contractId);
+  }
+
   public Member getBorrower() {
     return borrower;
   }
@@ -61,13 +105,29 @@ public class Contract {
     return creditsTransferred;
   }
 
+  public ContractStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * Moves the contract to its status on the given day.
+   *
+   * @param today the current day of the lending system
+   * @return the status before the update
+   */
+  public ContractStatus updateStatus(LocalDate today) {
+    ContractStatus previous = status;
+    status = ContractStatus.on(startDate, endDate, today);
+    return previous;
+  }
+
   /**
    * Provides information about the contract.
    *
    * @return a string containing contract information
    */
   public String getContractInfo() { // Changed to camelCase
-    return "Contract ID: " + contractId + "\n"
+    return "Contract ID: " + getContractId() + "\n"
       + "Borrower: " + borrower.getName() + "\n"
       + "Item: " + item.getName() + "\n"
       + "Credits Transferred: "
@@ -0,0 +1,30 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * The stage of a contract relative to the current day.
+ */
+public enum ContractStatus {
+  /** The contract starts after the current day. */
+  SCHEDULED,
+  /** The current day lies between the start and end date of the contract, both inclusive. */
+  ACTIVE,
+  /** The contract ended before the current day. */
+  COMPLETED;
+
+  /**
+   * Determines the status of a contract period on a given day.
+   *
+   * @param startDate the first day of the contract
+   * @param endDate   the last day of the contract
+   * @param today     the day to evaluate
+   * @return the status on that day
+   */
+  public static ContractStatus on(LocalDate startDate, LocalDate endDate, LocalDate today) {
+    if (today.isBefore(startDate)) {
+      return SCHEDULED;
+    }
+    return today.isAfter(endDate) ? COMPLETED : ACTIVE;
+  }
+}
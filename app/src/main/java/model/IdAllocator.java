@@ -0,0 +1,60 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out dense, increasing numeric ids starting at 1.
+ *
+ * <p>Dense ids can be used directly as array indexes by registries and stores. Each lending
+ * system owns one allocator per kind of entity, so replaying the same operations in the same
+ * order gives every entity the same id again.
+ */
+public class IdAllocator {
+  private final AtomicLong lastId;
+
+  /**
+   * Creates an allocator whose first id is 1.
+   */
+  public IdAllocator() {
+    this.lastId = new AtomicLong();
+  }
+
+  /**
+   * Allocates the next id.
+   *
+   * @return the new id
+   */
+  public long next() {
+    return lastId.incrementAndGet();
+  }
+
+  /**
+   * Returns the last id handed out or reserved.
+   *
+   * @return the highest id taken, 0 if none
+   */
+  public long getLastId() {
+    return lastId.get();
+  }
+
+  /**
+   * Makes sure the allocator never hands out the given id or any lower one, for example after
+   * restoring entities that already have ids.
+   *
+   * @param id an id that is already taken
+   */
+  public void reserveUpTo(long id) {
+    lastId.accumulateAndGet(id, Math::max);
+  }
+
+  /**
+   * Formats an id for display, such as "M42" for member 42.
+   *
+   * @param prefix the letter identifying the kind of entity
+   * @param id     the numeric id
+   * @return the printable id
+   */
+  public static String format(char prefix, long id) {
+    return prefix + Long.toString(id);
+  }
+}
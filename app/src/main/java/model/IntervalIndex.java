@@ -0,0 +1,107 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of non-overlapping day intervals used to answer overlap queries.
+ *
+ * <p>Intervals are inclusive on both ends and keyed on epoch day. Overlapping or touching
+ * intervals are merged when added, so the stored segments stay disjoint and sorted by both
+ * start and end. A query is then a single binary search and allocates nothing.
+ */
+public class IntervalIndex {
+  private static final int INITIAL_CAPACITY = 4;
+
+  private long[] starts;
+  private long[] ends;
+  private int size;
+
+  /**
+   * Creates an empty index.
+   */
+  public IntervalIndex() {
+    this.starts = new long[INITIAL_CAPACITY];
+    this.ends = new long[INITIAL_CAPACITY];
+    this.size = 0;
+  }
+
+  /**
+   * Adds the interval [startDay, endDay], merging it with any segments it overlaps or touches.
+   *
+   * @param startDay the first day of the interval
+   * @param endDay   the last day of the interval
+   * @throws IllegalArgumentException if endDay is before startDay
+   */
+  public void add(long startDay, long endDay) {
+    if (endDay < startDay) {
+      throw new IllegalArgumentException("End day cannot be before start day");
+    }
+    // First segment that could merge: the first one ending on or after startDay - 1.
+    int first = firstEndingOnOrAfter(startDay - 1);
+    int last = first;
+    long mergedStart = startDay;
+    long mergedEnd = endDay;
+    while (last < size && starts[last] <= endDay + 1) {
+      mergedStart = Math.min(mergedStart, starts[last]);
+      mergedEnd = Math.max(mergedEnd, ends[last]);
+      last++;
+    }
+
+    int removed = last - first;
+    if (removed == 0) {
+      ensureCapacity(size + 1);
+      System.arraycopy(starts, first, starts, first + 1, size - first);
+      System.arraycopy(ends, first, ends, first + 1, size - first);
+      size++;
+    } else if (removed > 1) {
+      System.arraycopy(starts, last, starts, first + 1, size - last);
+      System.arraycopy(ends, last, ends, first + 1, size - last);
+      size -= removed - 1;
+    }
+    starts[first] = mergedStart;
+    ends[first] = mergedEnd;
+  }
+
+  /**
+   * Checks whether any stored interval shares at least one day with [startDay, endDay].
+   *
+   * @param startDay the first day of the queried interval
+   * @param endDay   the last day of the queried interval
+   * @return true if the interval overlaps a stored one
+   */
+  public boolean overlaps(long startDay, long endDay) {
+    int index = firstEndingOnOrAfter(startDay);
+    return index < size && starts[index] <= endDay;
+  }
+
+  /**
+   * Returns the number of disjoint segments currently stored.
+   *
+   * @return the number of segments
+   */
+  public int segmentCount() {
+    return size;
+  }
+
+  private int firstEndingOnOrAfter(long day) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (ends[mid] < day) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > starts.length) {
+      int newCapacity = Math.max(capacity, starts.length * 2);
+      starts = Arrays.copyOf(starts, newCapacity);
+      ends = Arrays.copyOf(ends, newCapacity);
+    }
+  }
+}
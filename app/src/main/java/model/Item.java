@@ -1,22 +1,26 @@
 package model;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Represents an item that can be rented or borrowed.
  */
 public class Item {
-  private final String itemId;
+  private static final char ID_PREFIX = 'I';
+  private static final IdAllocator STANDALONE_IDS = new IdAllocator();
+
+  private final long itemId;
   private final String name;
   private final String description;
   private final String category;
   private final Member owner;
   private final int costPerDay;
   private final LocalDate createdDate;
-  private final List<Contract> contracts;
+  private final AppendOnlyList<Contract> contracts;
+  private final IntervalIndex bookedDays;
 
   /**
    * Constructs an Item with the specified details.
@@ -29,6 +33,27 @@ public class Item {
    * @throws IllegalArgumentException if named, description, category, or owner is null
    */
   public Item(String name, String description, String category, Member owner, int costPerDay) {
+    this(STANDALONE_IDS.next(), name, description, category, owner, costPerDay);
+  }
+
+  /**
+   * Constructs an Item with an id allocated by its lending system.
+   *
+   * @param itemId      the id of the item
+   * @param name        the name of the item
+   * @param description the description of the item
+   * @param category    the category of the item
+   * @param owner       the owner of the item
+   * @param costPerDay  the cost per day for renting the item
+   * @throws IllegalArgumentException if named, description, category, or owner is null
+   */
+  public Item(long itemId, String name, String description, String category, Member owner,
+      int costPerDay) {
+    this(itemId, name, description, category, owner, costPerDay, LocalDate.now());
+  }
+
+  private Item(long itemId, String name, String description, String category, Member owner,
+      int costPerDay, LocalDate createdDate) {
     if (name == null || description == null || category == null || owner == null) {
       throw new IllegalArgumentException("Name, description, category, and owner cannot be null");
     }
@@ -36,14 +61,36 @@ public class Item {
       throw new IllegalArgumentException("Cost per day cannot be negative");
     }
 
-    this.itemId = UUID.randomUUID().toString().substring(0, 6);
+    this.itemId = itemId;
     this.name = name;
     this.description = description;
     this.category = category;
     this.owner = owner;
     this.costPerDay = costPerDay;
-    this.createdDate = LocalDate.now();
-    this.contracts = new ArrayList<>();
+    this.createdDate = createdDate;
+    this.contracts = new AppendOnlyList<>();
+    this.bookedDays = new IntervalIndex();
+  }
+
+  /**
+   * Recreates a previously saved item with its original id and creation date and attaches it to
+   * its owner. The owner's balance is not changed, since the saved balance already includes the
+   * credits granted for listing the item.
+   *
+   * @param itemId      the original id of the item
+   * @param name        the name of the item
+   * @param description the description of the item
+   * @param category    the category of the item
+   * @param owner       the restored owner of the item
+   * @param costPerDay  the cost per day for renting the item
+   * @param createdDate the original creation date
+   * @return the restored item
+   */
+  public static Item restore(long itemId, String name, String description, String category,
+      Member owner, int costPerDay, LocalDate createdDate) {
+    Item item = new Item(itemId, name, description, category, owner, costPerDay, createdDate);
+    owner.attachRestoredItem(item);
+    return item;
   }
 
   // Getters
@@ -63,18 +110,47 @@ public class Item {
     return category;
   }
 
+  /**
+   * Returns a read-only view of the contracts of the item that reflects later bookings. The
+   * view is not a copy; use {@link #getContractsSnapshot()} for a list that stays the same.
+   *
+   * @return the live read-only contracts
+   */
   public List<Contract> getContracts() {
-    return new ArrayList<>(contracts); // Return a copy to prevent modification
+    return contracts.view();
+  }
+
+  /**
+   * Returns the contracts booked so far as a read-only list that later bookings do not change.
+   * Nothing is copied.
+   *
+   * @return the current contracts
+   */
+  public List<Contract> getContractsSnapshot() {
+    return contracts.snapshot();
+  }
+
+  /**
+   * Hands every contract of the item to the action, in booking order, without allocating.
+   *
+   * @param action receives each contract
+   */
+  public void forEachContract(Consumer<? super Contract> action) {
+    contracts.forEach(action);
   }
 
   public String getDescription() {
     return description;
   }
 
-  public String getItemId() {
+  public long getId() {
     return itemId;
   }
 
+  public String getItemId() {
+    return IdAllocator.format(ID_PREFIX, itemId);
+  }
+
   public LocalDate getCreatedDate() {
     return createdDate;
   }
@@ -96,17 +172,55 @@ public class Item {
     *
     * @param contract the contract to be added
     */
-  public void addContract(Contract contract) {
+  public synchronized void addContract(Contract contract) {
     if (contract == null) {
       throw new IllegalArgumentException("Contract cannot be null");
     }
     this.contracts.add(contract);
+    this.bookedDays.add(contract.getStartDate().toEpochDay(), contract.getEndDate().toEpochDay());
+  }
+
+  /**
+   * Marks the days from startDate to endDate as taken without keeping a contract for them, for
+   * bookings that have been moved to the contract archive.
+   *
+   * @param startDate the first booked day
+   * @param endDate   the last booked day
+   * @throws IllegalArgumentException if endDate is before startDate
+   */
+  public synchronized void addBookedPeriod(LocalDate startDate, LocalDate endDate) {
+    this.bookedDays.add(startDate.toEpochDay(), endDate.toEpochDay());
+  }
+
+  /**
+   * Drops the contracts the filter accepts from the item's contract list. Their days stay
+   * booked, so a period that was lent out can never be booked a second time.
+   *
+   * @param filter selects the contracts to drop
+   * @return the number of contracts dropped
+   */
+  public synchronized int removeContractsIf(Predicate<? super Contract> filter) {
+    return this.contracts.removeIf(filter);
+  }
+
+  /**
+    * Checks whether the item is free on every day from startDate to endDate, both inclusive.
+    *
+    * @param startDate the first day of the requested period
+    * @param endDate   the last day of the requested period
+    * @return true if no contract overlaps the period and the period is not reversed
+    */
+  public synchronized boolean isAvailable(LocalDate startDate, LocalDate endDate) {
+    if (endDate.isBefore(startDate)) {
+      return false;
+    }
+    return !bookedDays.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     return "Item{"
-      + "itemId='" + itemId + '\''
+      + "itemId='" + getItemId() + '\''
       + ", name='" + name + '\''
       + ", description='" + description + '\''
       + ", category='" + category + '\''
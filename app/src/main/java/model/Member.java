@@ -1,44 +1,76 @@
 package model;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Represents a member with personal information and owned items.
+ * Credit balance and owned items may be updated from several threads.
  */
 public class Member {
-  private static final int INITIAL_CREDITS = 100; // Constant for initial credits
-  private static final int CREDIT_INCREMENT = 100; // Constant for credits added when an item is owned
+  public static final int INITIAL_CREDITS = 100; // Constant for initial credits
+  public static final int CREDIT_INCREMENT = 100; // Constant for credits added when an item is owned
+  private static final char ID_PREFIX = 'M';
+  private static final IdAllocator STANDALONE_IDS = new IdAllocator();
 
-  private final String memberId; // Changed to final as it's generated once
+  private final long memberId; // Changed to final as it's generated once
   private String name;
   private String email;
   private String phoneNumber;
   private int credits;
-  private final List<Item> ownedItems;
+  private final AppendOnlyList<Item> ownedItems;
   private final LocalDate createdDate;
 
   /**
-  * Constructor to create a new member.
+  * Constructor to create a new member with an id from a process-wide allocator.
   *
   * @param name        the name of the member
   * @param email       the email of the member
   * @param phoneNumber the phone number of the member
   */
   public Member(String name, String email, String phoneNumber) {
-    this.memberId = generateUniqueId();
+    this(STANDALONE_IDS.next(), name, email, phoneNumber);
+  }
+
+  /**
+  * Constructor to create a new member with an id allocated by its lending system.
+  *
+  * @param memberId    the id of the member
+  * @param name        the name of the member
+  * @param email       the email of the member
+  * @param phoneNumber the phone number of the member
+  */
+  public Member(long memberId, String name, String email, String phoneNumber) {
+    this(memberId, name, email, phoneNumber, INITIAL_CREDITS, LocalDate.now());
+  }
+
+  private Member(long memberId, String name, String email, String phoneNumber, int credits,
+      LocalDate createdDate) {
+    this.memberId = memberId;
     this.name = name;
     this.email = email;
     this.phoneNumber = phoneNumber;
-    this.credits = INITIAL_CREDITS;
-    this.ownedItems = new ArrayList<>();
-    this.createdDate = LocalDate.now();
+    this.credits = credits;
+    this.ownedItems = new AppendOnlyList<>();
+    this.createdDate = createdDate;
   }
 
-  private String generateUniqueId() {
-    return UUID.randomUUID().toString().substring(0, 6);
+  /**
+  * Recreates a previously saved member with its original id, balance and creation date.
+  * Its items are attached again when they are restored.
+  *
+  * @param memberId    the original id of the member
+  * @param name        the name of the member
+  * @param email       the email of the member
+  * @param phoneNumber the phone number of the member
+  * @param credits     the saved credit balance
+  * @param createdDate the original creation date
+  * @return the restored member
+  */
+  public static Member restore(long memberId, String name, String email, String phoneNumber,
+      int credits, LocalDate createdDate) {
+    return new Member(memberId, name, email, phoneNumber, credits, createdDate);
   }
 
   // Getters
@@ -54,22 +86,51 @@ public class Member {
     return phoneNumber;
   }
 
-  public int getCredits() {
+  public synchronized int getCredits() {
     return credits;
   }
 
+  /**
+  * Returns a read-only view of the member's items that reflects items added later. The view is
+  * not a copy; use {@link #getOwnedItemsSnapshot()} for a list that stays the same.
+  *
+  * @return the live read-only owned items
+  */
   public List<Item> getOwnedItems() {
-    return new ArrayList<>(ownedItems); // Return a copy for immutability
+    return ownedItems.view();
+  }
+
+  /**
+  * Returns the items owned so far as a read-only list that later additions do not change.
+  * Nothing is copied.
+  *
+  * @return the current owned items
+  */
+  public List<Item> getOwnedItemsSnapshot() {
+    return ownedItems.snapshot();
+  }
+
+  /**
+  * Hands every owned item to the action, in the order they were added, without allocating.
+  *
+  * @param action receives each item
+  */
+  public void forEachOwnedItem(Consumer<? super Item> action) {
+    ownedItems.forEach(action);
   }
 
   public LocalDate getCreatedDate() {
     return createdDate;
   }
 
-  public String getMemberId() {
+  public long getId() {
     return memberId;
   }
 
+  public String getMemberId() {
+    return IdAllocator.format(ID_PREFIX, memberId);
+  }
+
   /**
   * Updates the member's information.
   *
@@ -89,11 +150,11 @@ public class Member {
   * @return member details
   */
   public String getMemberDetails() {
-    return "Member ID: " + memberId + "\n"
+    return "Member ID: " + getMemberId() + "\n"
       + "Name: " + name + "\n"
       + "Email: " + email + "\n"
       + "Phone: " + phoneNumber + "\n"
-      + "Credits: " + credits;
+      + "Credits: " + getCredits();
   }
 
   /**
@@ -101,18 +162,27 @@ public class Member {
   *
   * @param item the item to be added
   */
-  public void addItem(Item item) {
+  public synchronized void addItem(Item item) {
     this.ownedItems.add(item);
     this.credits += CREDIT_INCREMENT;
   }
 
+  /**
+  * Attaches a restored item without granting the listing credits again.
+  *
+  * @param item the restored item
+  */
+  synchronized void attachRestoredItem(Item item) {
+    this.ownedItems.add(item);
+  }
+
   /**
   * Deducts credits from the member.
   *
   * @param amount the amount to deduct
   * @throws IllegalArgumentException if not enough credits are available
   */
-  public void deductCredits(int amount) {
+  public synchronized void deductCredits(int amount) {
     if (this.credits >= amount) {
       this.credits -= amount;
     } else {
@@ -125,7 +195,7 @@ public class Member {
   *
   * @param amount the amount to add
   */
-  public void addCredits(int amount) {
+  public synchronized void addCredits(int amount) {
     this.credits += amount;
   }
 }
\ No newline at end of file
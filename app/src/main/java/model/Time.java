@@ -1,23 +1,64 @@
 package model;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
 /**
- * Represents a time tracker that keeps track of the current day.
+ * Represents a time tracker that keeps track of the current day. Day 0 is the start date, so
+ * the current day also maps to a calendar date.
  */
 public class Time {
   private int currentDayCount;
+  private LocalDate startDate;
 
   /**
-  * Constructs a Time object with the current day initialized to 0.
+  * Constructs a Time object with the current day initialized to 0 and today as start date.
   */
   public Time() {
     this.currentDayCount = 0;
+    this.startDate = LocalDate.now();
   }
 
   /**
   * Advances the current day by one.
+  *
+  * @throws IllegalArgumentException if the day count or date would overflow
   */
   public void advanceDay() {
-    currentDayCount++;
+    advanceDays(1);
+  }
+
+  /**
+  * Advances the current day by the given number of days.
+  *
+  * @param days the number of days to advance
+  * @throws IllegalArgumentException if days is negative or the day count or date would overflow
+  */
+  public void advanceDays(int days) {
+    checkAdvance(days);
+    currentDayCount += days;
+  }
+
+  /**
+  * Checks that the current day can be advanced by the given number of days, so that callers can
+  * reject an advance before recording it anywhere.
+  *
+  * @param days the number of days to advance
+  * @throws IllegalArgumentException if days is negative or the day count or date would overflow
+  */
+  public void checkAdvance(int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("Days cannot be negative");
+    }
+    long day = (long) currentDayCount + days;
+    if (day > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Cannot advance past day " + Integer.MAX_VALUE);
+    }
+    try {
+      startDate.plusDays(day);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Cannot advance past " + LocalDate.MAX, e);
+    }
   }
 
   /**
@@ -37,4 +78,30 @@ public class Time {
   public void setCurrentDay(int day) {
     this.currentDayCount = day;
   }
-}
\ No newline at end of file
+
+  /**
+  * Gets the calendar date of the current day.
+  *
+  * @return the start date plus the current day count
+  */
+  public LocalDate getCurrentDate() {
+    return startDate.plusDays(currentDayCount);
+  }
+
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  /**
+  * Sets the calendar date of day 0.
+  *
+  * @param startDate the new start date
+  * @throws IllegalArgumentException if the start date is null
+  */
+  public void setStartDate(LocalDate startDate) {
+    if (startDate == null) {
+      throw new IllegalArgumentException("Start date cannot be null");
+    }
+    this.startDate = startDate;
+  }
+}
@@ -0,0 +1,359 @@
+package persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import model.Contract;
+
+/**
+ * Append-only file of completed contracts, so that finished history is kept on disk instead of
+ * on the heap.
+ *
+ * <p>The file starts with a magic number and a format version. Contracts are written in frames,
+ * one per batch archived together. A frame header holds the payload length, a CRC32, the number
+ * of contracts and the first start day and last end day in the frame. The payload is the
+ * contracts sorted by id as variable-length deltas, deflated; a contract takes a few bytes. A
+ * query only reads the frames whose days meet the requested range, found from an index of frame
+ * headers kept in memory. A frame torn by a crash fails its checksum and is cut off on open.
+ */
+public final class ContractArchive implements Closeable {
+  static final int MAGIC = 0x534c4131;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int FRAME_HEADER_SIZE = 28;
+  static final int MAX_FRAME_SIZE = 1 << 24;
+
+  /**
+   * Receives archived contracts, identified by the ids of their borrower and item.
+   */
+  @FunctionalInterface
+  public interface RecordVisitor {
+    /**
+     * Handles one archived contract.
+     *
+     * @param contractId the id of the contract
+     * @param borrowerId the id of the borrower
+     * @param itemId     the id of the item
+     * @param startDay   the first epoch day of the contract
+     * @param endDay     the last epoch day of the contract
+     */
+    void visit(long contractId, long borrowerId, long itemId, long startDay, long endDay);
+  }
+
+  private final FileChannel channel;
+  private final BitSet archivedIds = new BitSet();
+  private long[] framePositions = new long[16];
+  private long[] frameStartDays = new long[16];
+  private long[] frameEndDays = new long[16];
+  private int frameCount;
+  private long contractCount;
+  private long length;
+
+  private ContractArchive(FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Opens an archive for appending and queries, creating it if it is missing. Every archived
+   * contract is handed to the visitor once, in file order. Anything after the last valid frame
+   * is cut off.
+   *
+   * @param file   the archive file
+   * @param loaded receives the archived contracts, or null
+   * @return the opened archive
+   * @throws IOException if the file cannot be read or written or is not a contract archive
+   */
+  public static ContractArchive open(Path file, RecordVisitor loaded) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ContractArchive archive = new ContractArchive(channel);
+      if (channel.size() < HEADER_SIZE) {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        writeFully(channel, header, 0);
+        channel.force(true);
+      } else {
+        ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+          throw new IOException("Not a contract archive: " + file);
+        }
+      }
+      archive.load(loaded);
+      return archive;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private synchronized void load(RecordVisitor loaded) throws IOException {
+    long size = channel.size();
+    long position = HEADER_SIZE;
+    CRC32 crc = new CRC32();
+    while (position + FRAME_HEADER_SIZE <= size) {
+      ByteBuffer header = readFully(channel, position, FRAME_HEADER_SIZE);
+      int payloadLength = header.getInt();
+      final int checksum = header.getInt();
+      if (payloadLength <= 0 || payloadLength > MAX_FRAME_SIZE
+          || position + FRAME_HEADER_SIZE + payloadLength > size) {
+        break;
+      }
+      ByteBuffer payload = readFully(channel, position + FRAME_HEADER_SIZE, payloadLength);
+      crc.reset();
+      crc.update(header.array(), 8, FRAME_HEADER_SIZE - 8);
+      crc.update(payload.array(), 0, payloadLength);
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      int count = header.getInt();
+      decode(payload.array(), count, (contractId, borrowerId, itemId, startDay, endDay) -> {
+        archivedIds.set((int) contractId);
+        if (loaded != null) {
+          loaded.visit(contractId, borrowerId, itemId, startDay, endDay);
+        }
+      });
+      addFrame(position, header.getLong(), header.getLong());
+      contractCount += count;
+      position += FRAME_HEADER_SIZE + payloadLength;
+    }
+    length = position;
+    if (size > position) {
+      channel.truncate(position);
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Archives contracts as one frame and makes it durable. Contracts that are already archived
+   * are skipped, so archiving the same contract again, such as during journal replay, is
+   * harmless.
+   *
+   * @param contracts the contracts to archive
+   * @return the number of contracts written
+   * @throws IOException if the frame cannot be written; nothing is archived then
+   * @throws IllegalArgumentException if a contract id does not fit the archive
+   */
+  public synchronized int append(Collection<Contract> contracts) throws IOException {
+    List<Contract> batch = new ArrayList<>(contracts.size());
+    BitSet inBatch = new BitSet();
+    for (Contract contract : contracts) {
+      int id = checkId(contract.getId());
+      if (!archivedIds.get(id) && !inBatch.get(id)) {
+        inBatch.set(id);
+        batch.add(contract);
+      }
+    }
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    batch.sort(Comparator.comparingLong(Contract::getId));
+    long firstStart = Long.MAX_VALUE;
+    long lastEnd = Long.MIN_VALUE;
+    for (Contract contract : batch) {
+      firstStart = Math.min(firstStart, contract.getStartDate().toEpochDay());
+      lastEnd = Math.max(lastEnd, contract.getEndDate().toEpochDay());
+    }
+    byte[] payload = encode(batch);
+    if (payload.length > MAX_FRAME_SIZE) {
+      throw new IOException("Too many contracts for one archive frame: " + batch.size());
+    }
+    ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+    frame.putInt(payload.length).putInt(0).putInt(batch.size()).putLong(firstStart)
+        .putLong(lastEnd).put(payload);
+    CRC32 crc = new CRC32();
+    crc.update(frame.array(), 8, frame.capacity() - 8);
+    frame.putInt(4, (int) crc.getValue());
+    frame.flip();
+
+    long position = length;
+    try {
+      writeFully(channel, frame, position);
+      channel.force(false);
+    } catch (IOException e) {
+      try {
+        channel.truncate(position);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    length = position + frame.capacity();
+    addFrame(position, firstStart, lastEnd);
+    archivedIds.or(inBatch);
+    contractCount += batch.size();
+    return batch.size();
+  }
+
+  /**
+   * Checks whether a contract has been archived.
+   *
+   * @param contractId the id of the contract
+   * @return true if the contract is in the archive
+   */
+  public synchronized boolean contains(long contractId) {
+    return contractId > 0 && contractId <= Integer.MAX_VALUE
+        && archivedIds.get((int) contractId);
+  }
+
+  /**
+   * Returns the number of archived contracts.
+   *
+   * @return the number of contracts
+   */
+  public synchronized long size() {
+    return contractCount;
+  }
+
+  /**
+   * Hands every archived contract whose period shares a day with [fromDay, toDay] to the
+   * visitor, in the order they were archived. Frames entirely outside the range are not read.
+   *
+   * @param fromDay the first epoch day of the range
+   * @param toDay   the last epoch day of the range
+   * @param visitor receives the matching contracts
+   * @throws IOException if the file cannot be read
+   */
+  public synchronized void forEach(long fromDay, long toDay, RecordVisitor visitor)
+      throws IOException {
+    for (int i = 0; i < frameCount; i++) {
+      if (frameStartDays[i] > toDay || frameEndDays[i] < fromDay) {
+        continue;
+      }
+      ByteBuffer header = readFully(channel, framePositions[i], FRAME_HEADER_SIZE);
+      int payloadLength = header.getInt();
+      header.getInt();
+      int count = header.getInt();
+      ByteBuffer payload = readFully(channel, framePositions[i] + FRAME_HEADER_SIZE,
+          payloadLength);
+      decode(payload.array(), count, (contractId, borrowerId, itemId, startDay, endDay) -> {
+        if (startDay <= toDay && endDay >= fromDay) {
+          visitor.visit(contractId, borrowerId, itemId, startDay, endDay);
+        }
+      });
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private void addFrame(long position, long startDay, long endDay) {
+    if (frameCount == framePositions.length) {
+      framePositions = Arrays.copyOf(framePositions, frameCount * 2);
+      frameStartDays = Arrays.copyOf(frameStartDays, frameCount * 2);
+      frameEndDays = Arrays.copyOf(frameEndDays, frameCount * 2);
+    }
+    framePositions[frameCount] = position;
+    frameStartDays[frameCount] = startDay;
+    frameEndDays[frameCount] = endDay;
+    frameCount++;
+  }
+
+  private static int checkId(long contractId) {
+    if (contractId <= 0 || contractId > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Contract id out of range: " + contractId);
+    }
+    return (int) contractId;
+  }
+
+  private static byte[] encode(List<Contract> batch) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 4 + 16);
+    try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+      long previousId = 0;
+      long previousStart = 0;
+      for (Contract contract : batch) {
+        writeVarLong(out, contract.getId() - previousId);
+        writeVarLong(out, contract.getBorrower().getId());
+        writeVarLong(out, contract.getItem().getId());
+        long startDay = contract.getStartDate().toEpochDay();
+        long endDay = contract.getEndDate().toEpochDay();
+        long delta = startDay - previousStart;
+        writeVarLong(out, (delta << 1) ^ (delta >> 63));
+        writeVarLong(out, endDay - startDay);
+        previousId = contract.getId();
+        previousStart = startDay;
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void decode(byte[] payload, int count, RecordVisitor visitor)
+      throws IOException {
+    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+      long contractId = 0;
+      long startDay = 0;
+      for (int i = 0; i < count; i++) {
+        contractId += readVarLong(in);
+        long borrowerId = readVarLong(in);
+        long itemId = readVarLong(in);
+        long delta = readVarLong(in);
+        startDay += (delta >>> 1) ^ -(delta & 1);
+        long endDay = startDay + readVarLong(in);
+        visitor.visit(contractId, borrowerId, itemId, startDay, endDay);
+      }
+    }
+  }
+
+  private static void writeVarLong(DeflaterOutputStream out, long value) throws IOException {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      out.write((int) (remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.write((int) remaining);
+  }
+
+  private static long readVarLong(InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("Archive frame is truncated");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Archive frame is corrupt");
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int size)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Archive is truncated");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      offset += channel.write(buffer, offset);
+    }
+  }
+}
@@ -0,0 +1,367 @@
+package persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of the mutations made to a lending system.
+ *
+ * <p>The file starts with a magic number and a format version. Each record is its payload length,
+ * a CRC32 of the payload and the payload itself, so a record torn by a crash is detected on
+ * replay and cut off when the journal is reopened.
+ *
+ * <p>Appends only copy the record into memory and return its sequence number. {@link #sync(long)}
+ * makes a record durable. Threads that call it while another thread is forcing the file wait for
+ * that force and then usually find their record already covered, so concurrent writers share
+ * one fsync (group commit). If a flush fails, its records are kept ahead of later ones and
+ * written again from the same position by the next sync.
+ */
+public class Journal implements Closeable {
+  static final int MAGIC = 0x534c4a31;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int MAX_RECORD_SIZE = 1 << 20;
+  /**
+   * The longest text a record can hold, in bytes of the modified UTF-8 the journal writes.
+   */
+  public static final int MAX_TEXT_BYTES = 65535;
+
+  static final byte ADD_MEMBER = 1;
+  static final byte ADD_ITEM = 2;
+  static final byte CREATE_CONTRACT = 3;
+  static final byte ADVANCE_TIME = 4;
+  static final byte START_DATE = 5;
+  static final byte ADVANCE_DAYS = 6;
+
+  private final FileChannel channel;
+  private final Object syncLock = new Object();
+  private final RecordBuffer record = new RecordBuffer();
+  private final DataOutputStream recordOut = new DataOutputStream(record);
+  private final CRC32 crc = new CRC32();
+  private RecordBuffer pending = new RecordBuffer();
+  private RecordBuffer flushing = new RecordBuffer();
+  private long lastSequence;
+  private long lastPosition;
+  private long durableSequence;
+  // Where the next flush starts; only changed under syncLock.
+  private long flushPosition;
+
+  Journal(FileChannel channel, long length, long recordCount) {
+    this.channel = channel;
+    this.lastPosition = length;
+    this.flushPosition = length;
+    this.lastSequence = recordCount;
+    this.durableSequence = recordCount;
+  }
+
+  /**
+   * Opens a journal for appending. Anything after validLength, such as a torn last record, is
+   * cut off. An empty or missing file gets a fresh header.
+   *
+   * @param file        the journal file
+   * @param validLength the length of the valid prefix, as reported by {@link JournalReader}
+   * @param recordCount the number of records in the valid prefix
+   * @return the opened journal
+   * @throws IOException if the file cannot be opened or written
+   */
+  public static Journal open(Path file, long validLength, long recordCount) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (validLength < HEADER_SIZE) {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        channel.force(true);
+        validLength = HEADER_SIZE;
+      } else if (channel.size() > validLength) {
+        channel.truncate(validLength);
+        channel.force(true);
+      }
+      channel.position(validLength);
+      return new Journal(channel, validLength, recordCount);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Checks that texts fit in a record. Callers check before changing any state, so that an
+   * append cannot fail after the change is made.
+   *
+   * @param texts the texts to check; null entries are skipped
+   * @throws IllegalArgumentException if a text is longer than {@link #MAX_TEXT_BYTES} encoded
+   */
+  public static void checkTexts(String... texts) {
+    for (String text : texts) {
+      if (text != null && encodedLength(text) > MAX_TEXT_BYTES) {
+        throw new IllegalArgumentException("Text longer than " + MAX_TEXT_BYTES + " bytes");
+      }
+    }
+  }
+
+  /**
+   * Records the addition of a member.
+   *
+   * @param name        the name of the member
+   * @param email       the email of the member
+   * @param phoneNumber the phone number of the member
+   * @return the sequence number of the record
+   */
+  public synchronized long appendAddMember(String name, String email, String phoneNumber) {
+    try {
+      recordOut.writeByte(ADD_MEMBER);
+      recordOut.writeUTF(name);
+      recordOut.writeUTF(email);
+      recordOut.writeUTF(phoneNumber);
+      return commitRecord();
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e);
+    } finally {
+      record.reset();
+    }
+  }
+
+  /**
+   * Records the addition of an item.
+   *
+   * @param memberName  the name of the owning member
+   * @param itemName    the name of the item
+   * @param description the description of the item
+   * @param category    the category of the item
+   * @param costPerDay  the cost per day of the item
+   * @return the sequence number of the record
+   */
+  public synchronized long appendAddItem(String memberName, String itemName, String description,
+      String category, int costPerDay) {
+    try {
+      recordOut.writeByte(ADD_ITEM);
+      recordOut.writeUTF(memberName);
+      recordOut.writeUTF(itemName);
+      recordOut.writeUTF(description);
+      recordOut.writeUTF(category);
+      recordOut.writeInt(costPerDay);
+      return commitRecord();
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e);
+    } finally {
+      record.reset();
+    }
+  }
+
+  /**
+   * Records a lending contract.
+   *
+   * @param borrowerName the name of the borrower
+   * @param itemName     the name of the item
+   * @param startDate    the start date of the contract
+   * @param endDate      the end date of the contract
+   * @return the sequence number of the record
+   */
+  public synchronized long appendCreateContract(String borrowerName, String itemName,
+      LocalDate startDate, LocalDate endDate) {
+    try {
+      recordOut.writeByte(CREATE_CONTRACT);
+      recordOut.writeUTF(borrowerName);
+      recordOut.writeUTF(itemName);
+      recordOut.writeLong(startDate.toEpochDay());
+      recordOut.writeLong(endDate.toEpochDay());
+      return commitRecord();
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e);
+    } finally {
+      record.reset();
+    }
+  }
+
+  /**
+   * Records an advance of time by one day.
+   *
+   * @return the sequence number of the record
+   */
+  public synchronized long appendAdvanceTime() {
+    try {
+      recordOut.writeByte(ADVANCE_TIME);
+      return commitRecord();
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e);
+    } finally {
+      record.reset();
+    }
+  }
+
+  /**
+   * Records an advance of time by several days at once.
+   *
+   * @param days the number of days
+   * @return the sequence number of the record
+   */
+  public synchronized long appendAdvanceDays(int days) {
+    try {
+      recordOut.writeByte(ADVANCE_DAYS);
+      recordOut.writeInt(days);
+      return commitRecord();
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e);
+    } finally {
+      record.reset();
+    }
+  }
+
+  /**
+   * Records the calendar date of day 0 of the journaled system.
+   *
+   * @param startDate the start date
+   * @return the sequence number of the record
+   */
+  public synchronized long appendStartDate(LocalDate startDate) {
+    try {
+      recordOut.writeByte(START_DATE);
+      recordOut.writeLong(startDate.toEpochDay());
+      return commitRecord();
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory write failed", e);
+    } finally {
+      record.reset();
+    }
+  }
+
+  /**
+   * Returns the sequence number of the last appended record. Sequence numbers count records from
+   * the start of the file, so this is also the number of records in the journal.
+   *
+   * @return the last sequence number
+   */
+  public synchronized long getLastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * Returns the byte offset just after the last appended record, where replay of any later
+   * records would start.
+   *
+   * @return the end position of the last record
+   */
+  public synchronized long getLastPosition() {
+    return lastPosition;
+  }
+
+  /**
+   * Makes every record up to and including the given sequence number durable.
+   *
+   * @param sequence the sequence number to wait for
+   * @throws IOException if writing or forcing the file fails
+   */
+  public void sync(long sequence) throws IOException {
+    synchronized (syncLock) {
+      if (durableSequence >= sequence) {
+        return;
+      }
+      long upTo;
+      RecordBuffer toWrite;
+      synchronized (this) {
+        toWrite = pending;
+        pending = flushing;
+        flushing = toWrite;
+        upTo = lastSequence;
+      }
+      // Only one thread holds syncLock, so nobody appends to toWrite until the next swap.
+      try {
+        toWrite.writeTo(channel, flushPosition);
+        channel.force(false);
+      } catch (IOException | RuntimeException e) {
+        requeue(toWrite);
+        throw e;
+      }
+      flushPosition += toWrite.size();
+      toWrite.reset();
+      durableSequence = upTo;
+    }
+  }
+
+  /**
+   * Puts records whose flush failed back ahead of those appended since, so the next flush writes
+   * them in order from the same position, over anything a partial write left behind.
+   */
+  private void requeue(RecordBuffer unwritten) {
+    synchronized (this) {
+      unwritten.write(pending.buffer(), 0, pending.size());
+      pending.reset();
+      flushing = pending;
+      pending = unwritten;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      sync(getLastSequence());
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static int encodedLength(String text) {
+    // Every char takes at most three bytes, so only long texts need counting.
+    if (text.length() <= MAX_TEXT_BYTES / 3) {
+      return text.length();
+    }
+    int length = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      length += c >= 1 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+    }
+    return length;
+  }
+
+  private long commitRecord() {
+    int length = record.size();
+    crc.reset();
+    crc.update(record.buffer(), 0, length);
+    pending.writeInt(length);
+    pending.writeInt((int) crc.getValue());
+    pending.write(record.buffer(), 0, length);
+    lastPosition += 8 + length;
+    return ++lastSequence;
+  }
+
+  /**
+   * Byte buffer whose backing array can be read without copying.
+   */
+  private static final class RecordBuffer extends ByteArrayOutputStream {
+    RecordBuffer() {
+      super(8192);
+    }
+
+    byte[] buffer() {
+      return buf;
+    }
+
+    void writeInt(int value) {
+      write(value >>> 24);
+      write(value >>> 16);
+      write(value >>> 8);
+      write(value);
+    }
+
+    void writeTo(FileChannel channel, long position) throws IOException {
+      ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+      while (bytes.hasRemaining()) {
+        channel.write(bytes, position + bytes.position());
+      }
+    }
+  }
+}
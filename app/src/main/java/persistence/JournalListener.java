@@ -0,0 +1,60 @@
+package persistence;
+
+import java.time.LocalDate;
+
+/**
+ * Receives the records of a journal, in the order they were written, during replay.
+ */
+public interface JournalListener {
+
+  /**
+   * Called for a recorded member addition.
+   *
+   * @param name        the name of the member
+   * @param email       the email of the member
+   * @param phoneNumber the phone number of the member
+   */
+  void onAddMember(String name, String email, String phoneNumber);
+
+  /**
+   * Called for a recorded item addition.
+   *
+   * @param memberName  the name of the owning member
+   * @param itemName    the name of the item
+   * @param description the description of the item
+   * @param category    the category of the item
+   * @param costPerDay  the cost per day of the item
+   */
+  void onAddItem(String memberName, String itemName, String description, String category,
+      int costPerDay);
+
+  /**
+   * Called for a recorded lending contract.
+   *
+   * @param borrowerName the name of the borrower
+   * @param itemName     the name of the item
+   * @param startDate    the start date of the contract
+   * @param endDate      the end date of the contract
+   */
+  void onCreateContract(String borrowerName, String itemName, LocalDate startDate,
+      LocalDate endDate);
+
+  /**
+   * Called for a recorded advance of time by one day.
+   */
+  void onAdvanceTime();
+
+  /**
+   * Called for a recorded advance of time by several days at once.
+   *
+   * @param days the number of days
+   */
+  void onAdvanceDays(int days);
+
+  /**
+   * Called for the recorded calendar date of day 0.
+   *
+   * @param startDate the start date
+   */
+  void onStartDate(LocalDate startDate);
+}
@@ -0,0 +1,188 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Streams the records of a journal file to a {@link JournalListener}.
+ *
+ * <p>The file is read sequentially through a large buffer and records are decoded from one reused
+ * payload array. Reading stops at the end of the file or at the first record that is incomplete
+ * or fails its checksum, which is where a crash during a write leaves the journal.
+ */
+public class JournalReader {
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final Path file;
+  private long validLength;
+  private long recordCount;
+
+  /**
+   * Creates a reader for the given journal file.
+   *
+   * @param file the journal file, which does not have to exist
+   */
+  public JournalReader(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Replays every valid record of the journal in order.
+   *
+   * @param listener receives the records
+   * @return the number of records replayed
+   * @throws IOException if the file cannot be read or is not a journal
+   */
+  public long replay(JournalListener listener) throws IOException {
+    return replayFrom(Journal.HEADER_SIZE, 0, listener);
+  }
+
+  /**
+   * Replays the valid records that follow the given position, such as the tail after a snapshot.
+   *
+   * @param position the byte offset of the first record to replay
+   * @param sequence the number of records before that position
+   * @param listener receives the records
+   * @return the number of records replayed
+   * @throws IOException if the file cannot be read, is not a journal or ends before position
+   */
+  public long replayFrom(long position, long sequence, JournalListener listener)
+      throws IOException {
+    validLength = 0;
+    recordCount = 0;
+    if (!Files.exists(file) || Files.size(file) < Journal.HEADER_SIZE) {
+      if (sequence > 0) {
+        throw new IOException("Journal is missing records before position " + position);
+      }
+      return 0;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(Journal.HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        continue;
+      }
+      header.flip();
+      if (header.getInt() != Journal.MAGIC || header.getInt() != Journal.VERSION) {
+        throw new IOException("Not a lending journal: " + file);
+      }
+      if (channel.size() < position) {
+        throw new IOException("Journal is missing records before position " + position);
+      }
+      channel.position(position);
+      validLength = position;
+      recordCount = sequence;
+      DataInputStream in = new DataInputStream(
+          new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+      readRecords(in, listener);
+    }
+    return recordCount - sequence;
+  }
+
+  private void readRecords(DataInputStream in, JournalListener listener) throws IOException {
+    PayloadStream payload = new PayloadStream();
+    DataInputStream payloadIn = new DataInputStream(payload);
+    CRC32 crc = new CRC32();
+    while (true) {
+      int length;
+      int checksum;
+      try {
+        length = in.readInt();
+        checksum = in.readInt();
+        if (length <= 0 || length > Journal.MAX_RECORD_SIZE) {
+          return;
+        }
+        in.readFully(payload.prepare(length), 0, length);
+      } catch (EOFException e) {
+        return;
+      }
+      crc.reset();
+      crc.update(payload.array(), 0, length);
+      if ((int) crc.getValue() != checksum) {
+        return;
+      }
+      dispatch(payloadIn, listener);
+      validLength += 8 + length;
+      recordCount++;
+    }
+  }
+
+  /**
+   * Returns the length of the valid prefix found by the last replay.
+   *
+   * @return the number of bytes up to the end of the last valid record
+   */
+  public long getValidLength() {
+    return validLength;
+  }
+
+  /**
+   * Returns the number of records in the valid prefix found by the last replay, including the
+   * records before its starting position.
+   *
+   * @return the number of valid records
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  private void dispatch(DataInputStream in, JournalListener listener) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case Journal.ADD_MEMBER:
+        listener.onAddMember(in.readUTF(), in.readUTF(), in.readUTF());
+        break;
+      case Journal.ADD_ITEM:
+        listener.onAddItem(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readInt());
+        break;
+      case Journal.CREATE_CONTRACT:
+        listener.onCreateContract(in.readUTF(), in.readUTF(),
+            LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()));
+        break;
+      case Journal.ADVANCE_TIME:
+        listener.onAdvanceTime();
+        break;
+      case Journal.ADVANCE_DAYS:
+        listener.onAdvanceDays(in.readInt());
+        break;
+      case Journal.START_DATE:
+        listener.onStartDate(LocalDate.ofEpochDay(in.readLong()));
+        break;
+      default:
+        throw new IOException("Unknown journal record type " + type + " in " + file);
+    }
+  }
+
+  /**
+   * Input stream over a reusable payload array.
+   */
+  private static final class PayloadStream extends ByteArrayInputStream {
+    PayloadStream() {
+      super(new byte[256]);
+    }
+
+    byte[] prepare(int length) {
+      if (buf.length < length) {
+        buf = new byte[Math.max(length, buf.length * 2)];
+      }
+      pos = 0;
+      count = length;
+      mark = 0;
+      return buf;
+    }
+
+    byte[] array() {
+      return buf;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package persistence;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses single lines of CSV and JSON Lines files into fields.
+ *
+ * <p>CSV follows RFC 4180 within one line: fields are separated by commas and may be quoted,
+ * with doubled quotes inside quoted fields. JSON lines must hold one flat object whose values
+ * are strings, numbers, booleans or null; every value is returned as text.
+ */
+public final class RecordParser {
+
+  private RecordParser() {
+  }
+
+  /**
+   * Splits one CSV line into its fields.
+   *
+   * @param line the line to parse
+   * @return the fields of the line
+   * @throws IllegalArgumentException if a quoted field is not closed
+   */
+  public static List<String> parseCsvLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    int i = 0;
+    while (true) {
+      if (i < line.length() && line.charAt(i) == '"') {
+        i++;
+        while (true) {
+          if (i >= line.length()) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+          }
+          char c = line.charAt(i++);
+          if (c != '"') {
+            field.append(c);
+          } else if (i < line.length() && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            break;
+          }
+        }
+      }
+      while (i < line.length() && line.charAt(i) != ',') {
+        field.append(line.charAt(i++));
+      }
+      fields.add(field.toString());
+      field.setLength(0);
+      if (i >= line.length()) {
+        return fields;
+      }
+      i++;
+    }
+  }
+
+  /**
+   * Parses one flat JSON object.
+   *
+   * @param line the line holding the object
+   * @return the values by key, in the order they appear
+   * @throws IllegalArgumentException if the line is not a flat JSON object
+   */
+  public static Map<String, String> parseJsonObject(String line) {
+    JsonCursor cursor = new JsonCursor(line);
+    Map<String, String> values = new LinkedHashMap<>();
+    cursor.expect('{');
+    if (!cursor.consume('}')) {
+      do {
+        String key = cursor.readString();
+        cursor.expect(':');
+        values.put(key, cursor.readValue());
+      } while (cursor.consume(','));
+      cursor.expect('}');
+    }
+    cursor.expectEnd();
+    return values;
+  }
+
+  /**
+   * Position within a JSON line.
+   */
+  private static final class JsonCursor {
+    private final String text;
+    private int position;
+
+    JsonCursor(String text) {
+      this.text = text;
+    }
+
+    private void skipWhitespace() {
+      while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+        position++;
+      }
+    }
+
+    boolean consume(char expected) {
+      skipWhitespace();
+      if (position < text.length() && text.charAt(position) == expected) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    void expect(char expected) {
+      if (!consume(expected)) {
+        throw new IllegalArgumentException("Expected '" + expected + "' at " + position);
+      }
+    }
+
+    void expectEnd() {
+      skipWhitespace();
+      if (position != text.length()) {
+        throw new IllegalArgumentException("Unexpected text at " + position);
+      }
+    }
+
+    String readValue() {
+      skipWhitespace();
+      if (position < text.length() && text.charAt(position) == '"') {
+        return readString();
+      }
+      int start = position;
+      while (position < text.length() && ",} \t".indexOf(text.charAt(position)) < 0) {
+        position++;
+      }
+      String literal = text.substring(start, position);
+      if (literal.isEmpty()) {
+        throw new IllegalArgumentException("Missing value at " + start);
+      }
+      return "null".equals(literal) ? null : literal;
+    }
+
+    String readString() {
+      expect('"');
+      StringBuilder value = new StringBuilder();
+      while (position < text.length()) {
+        char c = text.charAt(position++);
+        if (c == '"') {
+          return value.toString();
+        }
+        if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+        if (position >= text.length()) {
+          break;
+        }
+        char escaped = text.charAt(position++);
+        switch (escaped) {
+          case 'n':
+            value.append('\n');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'u':
+            if (position + 4 > text.length()) {
+              throw new IllegalArgumentException("Bad unicode escape at " + position);
+            }
+            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+            position += 4;
+            break;
+          default:
+            value.append(escaped);
+        }
+      }
+      throw new IllegalArgumentException("Unterminated string");
+    }
+  }
+}
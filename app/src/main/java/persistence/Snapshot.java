@@ -0,0 +1,91 @@
+package persistence;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import model.Contract;
+import model.Item;
+import model.Member;
+
+/**
+ * A consistent point-in-time copy of a lending system's state, together with the journal
+ * position it corresponds to. Records after that position still have to be replayed on load.
+ */
+public final class Snapshot {
+  private final long journalSequence;
+  private final long journalPosition;
+  private final int currentDay;
+  private final LocalDate startDate;
+  private final List<Member> members;
+  private final int[] memberCredits;
+  private final List<Item> items;
+  private final List<Contract> contracts;
+  private final long lastContractId;
+
+  /**
+   * Creates a snapshot.
+   *
+   * @param journalSequence the number of journal records the state includes
+   * @param journalPosition the journal byte offset just after the last included record
+   * @param currentDay      the current day of the system
+   * @param startDate       the calendar date of day 0
+   * @param members         the members in registration order
+   * @param memberCredits   the credit balance of each member, by position in members
+   * @param items           the items in registration order
+   * @param contracts       the contracts in creation order
+   * @param lastContractId  the highest contract id handed out, including contracts that are
+   *                        only in the contract archive
+   */
+  public Snapshot(long journalSequence, long journalPosition, int currentDay, LocalDate startDate,
+      List<Member> members, int[] memberCredits, List<Item> items, List<Contract> contracts,
+      long lastContractId) {
+    if (memberCredits.length != members.size()) {
+      throw new IllegalArgumentException("Every member needs exactly one credit balance");
+    }
+    this.journalSequence = journalSequence;
+    this.journalPosition = journalPosition;
+    this.currentDay = currentDay;
+    this.startDate = startDate;
+    this.members = Collections.unmodifiableList(members);
+    this.memberCredits = memberCredits.clone();
+    this.items = Collections.unmodifiableList(items);
+    this.contracts = Collections.unmodifiableList(contracts);
+    this.lastContractId = lastContractId;
+  }
+
+  public long getJournalSequence() {
+    return journalSequence;
+  }
+
+  public long getJournalPosition() {
+    return journalPosition;
+  }
+
+  public int getCurrentDay() {
+    return currentDay;
+  }
+
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  public List<Member> getMembers() {
+    return members;
+  }
+
+  public int getMemberCredits(int memberIndex) {
+    return memberCredits[memberIndex];
+  }
+
+  public List<Item> getItems() {
+    return items;
+  }
+
+  public List<Contract> getContracts() {
+    return contracts;
+  }
+
+  public long getLastContractId() {
+    return lastContractId;
+  }
+}
@@ -0,0 +1,303 @@
+package persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import model.Contract;
+import model.Item;
+import model.Member;
+
+/**
+ * Reads and writes {@link Snapshot}s in a compact binary format.
+ *
+ * <p>The file holds a header with the journal position, the day, the highest contract id and the
+ * entity counts, then all members, items and contracts with their numeric ids. Items and
+ * contracts refer to members and items by their position in the file. Strings are UTF-8 with a
+ * two byte length. A trailing magic number marks a complete file.
+ *
+ * <p>Snapshots are written through a {@link FileChannel} to a temporary file that is forced and
+ * then moved over the old snapshot, so a crash never leaves a half-written snapshot behind. They
+ * are read through {@link MappedByteBuffer}s, one window of the file at a time.
+ */
+public final class SnapshotFile {
+  static final int MAGIC = 0x534c5331;
+  static final int VERSION = 4;
+
+  private static final int WRITE_BUFFER_SIZE = 1 << 20;
+  private static final long MAP_WINDOW_SIZE = 1L << 28;
+  private static final int LONG_STRING = 0xFFFF;
+
+  private SnapshotFile() {
+  }
+
+  /**
+   * Writes a snapshot, replacing any existing snapshot at the same path.
+   *
+   * @param file     the snapshot file
+   * @param snapshot the snapshot to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Path file, Snapshot snapshot) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ChannelOutput out = new ChannelOutput(channel);
+      List<Member> members = snapshot.getMembers();
+      List<Item> items = snapshot.getItems();
+      List<Contract> contracts = snapshot.getContracts();
+
+      out.ensure(56);
+      out.buffer.putInt(MAGIC).putInt(VERSION)
+          .putLong(snapshot.getJournalSequence())
+          .putLong(snapshot.getJournalPosition())
+          .putInt(snapshot.getCurrentDay())
+          .putLong(snapshot.getStartDate().toEpochDay())
+          .putLong(snapshot.getLastContractId())
+          .putInt(members.size())
+          .putInt(items.size())
+          .putInt(contracts.size());
+
+      Map<Member, Integer> memberIndexes = new IdentityHashMap<>(members.size() * 2);
+      for (int i = 0; i < members.size(); i++) {
+        Member member = members.get(i);
+        memberIndexes.put(member, i);
+        out.ensure(8);
+        out.buffer.putLong(member.getId());
+        out.putString(member.getName());
+        out.putString(member.getEmail());
+        out.putString(member.getPhoneNumber());
+        out.ensure(12);
+        out.buffer.putInt(snapshot.getMemberCredits(i))
+            .putLong(member.getCreatedDate().toEpochDay());
+      }
+
+      Map<Item, Integer> itemIndexes = new IdentityHashMap<>(items.size() * 2);
+      for (int i = 0; i < items.size(); i++) {
+        Item item = items.get(i);
+        itemIndexes.put(item, i);
+        out.ensure(12);
+        out.buffer.putLong(item.getId()).putInt(indexOf(memberIndexes, item.getOwner()));
+        out.putString(item.getName());
+        out.putString(item.getDescription());
+        out.putString(item.getCategory());
+        out.ensure(12);
+        out.buffer.putInt(item.getCostPerDay()).putLong(item.getCreatedDate().toEpochDay());
+      }
+
+      for (Contract contract : contracts) {
+        out.ensure(32);
+        out.buffer.putLong(contract.getId())
+            .putInt(indexOf(memberIndexes, contract.getBorrower()))
+            .putInt(indexOf(itemIndexes, contract.getItem()))
+            .putLong(contract.getStartDate().toEpochDay())
+            .putLong(contract.getEndDate().toEpochDay());
+      }
+
+      out.ensure(4);
+      out.buffer.putInt(MAGIC);
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot and recreates its members, items and contracts.
+   *
+   * @param file the snapshot file
+   * @return the snapshot
+   * @throws IOException if the file cannot be read or is not a complete snapshot
+   */
+  public static Snapshot read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedInput in = new MappedInput(channel);
+      if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+        throw new IOException("Not a lending snapshot: " + file);
+      }
+      final long journalSequence = in.getLong();
+      final long journalPosition = in.getLong();
+      final int currentDay = in.getInt();
+      final LocalDate systemStartDate = LocalDate.ofEpochDay(in.getLong());
+      final long lastContractId = in.getLong();
+      final int memberCount = in.getInt();
+      final int itemCount = in.getInt();
+      final int contractCount = in.getInt();
+
+      List<Member> members = new ArrayList<>(memberCount);
+      int[] credits = new int[memberCount];
+      for (int i = 0; i < memberCount; i++) {
+        long memberId = in.getLong();
+        String name = in.getString();
+        String email = in.getString();
+        String phoneNumber = in.getString();
+        credits[i] = in.getInt();
+        LocalDate createdDate = LocalDate.ofEpochDay(in.getLong());
+        members.add(Member.restore(memberId, name, email, phoneNumber, credits[i], createdDate));
+      }
+
+      List<Item> items = new ArrayList<>(itemCount);
+      // Items share one string per distinct category, as they do when added live.
+      Map<String, String> categories = new HashMap<>();
+      for (int i = 0; i < itemCount; i++) {
+        long itemId = in.getLong();
+        Member owner = members.get(in.getInt());
+        String name = in.getString();
+        String description = in.getString();
+        String category = categories.computeIfAbsent(in.getString(), c -> c);
+        int costPerDay = in.getInt();
+        LocalDate createdDate = LocalDate.ofEpochDay(in.getLong());
+        items.add(Item.restore(itemId, name, description, category, owner, costPerDay,
+            createdDate));
+      }
+
+      List<Contract> contracts = new ArrayList<>(contractCount);
+      for (int i = 0; i < contractCount; i++) {
+        long contractId = in.getLong();
+        Member borrower = members.get(in.getInt());
+        Item item = items.get(in.getInt());
+        LocalDate startDate = LocalDate.ofEpochDay(in.getLong());
+        LocalDate endDate = LocalDate.ofEpochDay(in.getLong());
+        contracts.add(Contract.restore(contractId, borrower, item, startDate, endDate));
+      }
+
+      if (in.getInt() != MAGIC) {
+        throw new IOException("Snapshot is incomplete: " + file);
+      }
+      return new Snapshot(journalSequence, journalPosition, currentDay, systemStartDate, members, credits, items,
+          contracts, lastContractId);
+    }
+  }
+
+  private static <T> int indexOf(Map<T, Integer> indexes, T entity) throws IOException {
+    Integer index = indexes.get(entity);
+    if (index == null) {
+      throw new IOException("Snapshot refers to an entity that is not part of it");
+    }
+    return index;
+  }
+
+  /**
+   * Buffered writer on a file channel.
+   */
+  private static final class ChannelOutput {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    ChannelOutput(FileChannel channel) {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    }
+
+    void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void putString(String value) throws IOException {
+      if (value == null) {
+        ensure(6);
+        buffer.putChar((char) LONG_STRING).putInt(-1);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length < LONG_STRING) {
+        ensure(2);
+        buffer.putChar((char) bytes.length);
+      } else {
+        ensure(6);
+        buffer.putChar((char) LONG_STRING).putInt(bytes.length);
+      }
+      int offset = 0;
+      while (offset < bytes.length) {
+        ensure(1);
+        int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, chunk);
+        offset += chunk;
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Reader over a file channel that maps the file one window at a time.
+   */
+  private static final class MappedInput {
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private byte[] stringBytes = new byte[256];
+
+    MappedInput(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+      map(0);
+    }
+
+    private void map(long position) throws IOException {
+      windowStart = position;
+      window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+          Math.min(MAP_WINDOW_SIZE, size - position));
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (window.remaining() >= bytes) {
+        return;
+      }
+      long position = windowStart + window.position();
+      if (position + bytes > size) {
+        throw new EOFException("Snapshot is truncated");
+      }
+      map(position);
+    }
+
+    int getInt() throws IOException {
+      ensure(4);
+      return window.getInt();
+    }
+
+    long getLong() throws IOException {
+      ensure(8);
+      return window.getLong();
+    }
+
+    String getString() throws IOException {
+      ensure(2);
+      int length = window.getChar();
+      if (length == LONG_STRING) {
+        length = getInt();
+        if (length < 0) {
+          return null;
+        }
+      }
+      if (stringBytes.length < length) {
+        stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+      }
+      ensure(length);
+      window.get(stringBytes, 0, length);
+      return new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+}
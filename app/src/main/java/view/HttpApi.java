@@ -0,0 +1,576 @@
+package view;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import controller.LendingSystem;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import model.Item;
+import model.Member;
+import persistence.RecordParser;
+
+/**
+ * A JSON front end to a lending system over HTTP, built on the JDK's own HTTP server.
+ *
+ * <p>Routes:
+ * <ul>
+ *   <li>{@code GET /members}, {@code GET /members/{id}}, {@code POST /members} with name, email
+ *   and phone</li>
+ *   <li>{@code GET /items}, optionally with {@code category}, with {@code from} and {@code to}
+ *   dates for the items free on all days in between, or with {@code q} (search, best 100
+ *   matches unless {@code limit} is given); {@code GET /items/{id}}, {@code POST /items} with
+ *   owner, name, description, category and costPerDay</li>
+ *   <li>{@code GET /contracts}, {@code POST /contracts} with borrower, item, startDate and
+ *   endDate; {@code GET /contracts/history} for archived contracts, optionally with
+ *   {@code borrower}, {@code item}, {@code from} and {@code to}</li>
+ *   <li>{@code GET /time}, {@code POST /time} with an optional number of days to advance</li>
+ * </ul>
+ *
+ * <p>Request bodies are flat JSON objects of at most 1 MiB; larger ones are refused with 413.
+ * Listings take {@code offset} and {@code limit} and are streamed as a JSON array with chunked
+ * encoding, so a listing of any size is written with constant memory and the client sees the
+ * first entries before the last are written.
+ *
+ * <p>Requests run on the executor given at start. The default executor uses one virtual thread
+ * per request when the runtime has them and a fixed pool of platform threads otherwise.
+ */
+public final class HttpApi implements AutoCloseable {
+  private static final int STREAM_BUFFER_BYTES = 1 << 16;
+  private static final int STOP_DELAY_SECONDS = 1;
+  private static final int DEFAULT_SEARCH_LIMIT = 100;
+  private static final int MAX_BODY_BYTES = 1 << 20;
+  private static final int MAX_DISCARDED_BYTES = 16 << 20;
+  private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+  private final LendingSystem system;
+  private final HttpServer server;
+  private final ExecutorService ownedExecutor;
+
+  private HttpApi(LendingSystem system, HttpServer server, ExecutorService ownedExecutor) {
+    this.system = system;
+    this.server = server;
+    this.ownedExecutor = ownedExecutor;
+  }
+
+  /**
+   * Starts serving on the given address with the default executor.
+   *
+   * @param system  the lending system to serve
+   * @param address the address to listen on; port 0 picks a free port
+   * @return the running API
+   * @throws IOException if the address cannot be bound
+   */
+  public static HttpApi start(LendingSystem system, InetSocketAddress address)
+      throws IOException {
+    return startOwning(system, address, defaultExecutor());
+  }
+
+  /**
+   * Starts serving on the given address, running requests on a fixed pool of platform threads
+   * that is shut down when the API is closed.
+   *
+   * @param system  the lending system to serve
+   * @param address the address to listen on; port 0 picks a free port
+   * @param threads the number of request threads
+   * @return the running API
+   * @throws IOException if the address cannot be bound
+   * @throws IllegalArgumentException if threads is not positive
+   */
+  public static HttpApi start(LendingSystem system, InetSocketAddress address, int threads)
+      throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Threads must be positive");
+    }
+    return startOwning(system, address, threadPool(threads));
+  }
+
+  /**
+   * Starts serving on the given address, running requests on the given executor. The executor
+   * is left running when the API is closed.
+   *
+   * @param system   the lending system to serve
+   * @param address  the address to listen on; port 0 picks a free port
+   * @param executor runs the requests
+   * @return the running API
+   * @throws IOException if the address cannot be bound
+   */
+  public static HttpApi start(LendingSystem system, InetSocketAddress address,
+      ExecutorService executor) throws IOException {
+    return start(system, address, executor, false);
+  }
+
+  private static HttpApi start(LendingSystem system, InetSocketAddress address,
+      ExecutorService executor, boolean owned) throws IOException {
+    // The server writes headers and body separately; with Nagle's algorithm on, each small
+    // response then waits for the client's delayed ack. The JDK server only reads this
+    // setting once, so it has to be in place before the first server is created.
+    if (System.getProperty(NODELAY_PROPERTY) == null) {
+      System.setProperty(NODELAY_PROPERTY, "true");
+    }
+    HttpServer server = HttpServer.create(address, 0);
+    HttpApi api = new HttpApi(system, server, owned ? executor : null);
+    server.createContext("/members", api.guarded(api::members));
+    server.createContext("/items", api.guarded(api::items));
+    server.createContext("/contracts", api.guarded(api::contracts));
+    server.createContext("/time", api.guarded(api::time));
+    server.setExecutor(executor);
+    server.start();
+    return api;
+  }
+
+  private static HttpApi startOwning(LendingSystem system, InetSocketAddress address,
+      ExecutorService executor) throws IOException {
+    try {
+      return start(system, address, executor, true);
+    } catch (IOException e) {
+      executor.shutdown();
+      throw e;
+    }
+  }
+
+  /**
+   * Creates the default request executor: a virtual thread per request if the runtime supports
+   * virtual threads, otherwise a fixed pool with two threads per processor.
+   *
+   * @return the executor
+   */
+  public static ExecutorService defaultExecutor() {
+    try {
+      // Looked up reflectively so the code still builds for and runs on older releases.
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      return threadPool(2 * Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  private static ExecutorService threadPool(int threads) {
+    return Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "http-api");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Returns the port the API listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops accepting requests, gives running ones a moment to finish and shuts down the default
+   * executor if the API created it.
+   */
+  @Override
+  public void close() {
+    server.stop(STOP_DELAY_SECONDS);
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+      try {
+        ownedExecutor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void members(HttpExchange exchange) throws IOException {
+    String id = pathId(exchange, "/members");
+    if (id != null) {
+      requireMethod(exchange, "GET");
+      Member member = system.findMemberById(parseId(id));
+      if (member == null) {
+        throw new ApiException(404, "Member not found");
+      }
+      sendEntity(exchange, 200, member, JsonWriter.MEMBER);
+    } else if ("POST".equals(exchange.getRequestMethod())) {
+      Map<String, String> body = readBody(exchange);
+      Member member = system.addMember(required(body, "name"), optional(body, "email"),
+          optional(body, "phone"));
+      sendEntity(exchange, 201, member, JsonWriter.MEMBER);
+    } else {
+      requireMethod(exchange, "GET", "POST");
+      streamListing(exchange, system.getMembers(), JsonWriter.MEMBER);
+    }
+  }
+
+  private void items(HttpExchange exchange) throws IOException {
+    String id = pathId(exchange, "/items");
+    if (id != null) {
+      requireMethod(exchange, "GET");
+      Item item = system.findItemById(parseId(id));
+      if (item == null) {
+        throw new ApiException(404, "Item not found");
+      }
+      sendEntity(exchange, 200, item, JsonWriter.ITEM);
+    } else if ("POST".equals(exchange.getRequestMethod())) {
+      Map<String, String> body = readBody(exchange);
+      String message = system.addItem(required(body, "owner"), required(body, "name"),
+          optional(body, "description"), optional(body, "category"),
+          parseInt(required(body, "costPerDay"), "costPerDay"));
+      if (LendingSystem.MEMBER_NOT_FOUND_MESSAGE.equals(message)) {
+        throw new ApiException(404, message);
+      }
+      sendMessage(exchange, 201, message);
+    } else {
+      requireMethod(exchange, "GET", "POST");
+      Map<String, String> query = query(exchange);
+      List<Item> items;
+      if (query.containsKey("from") && query.containsKey("to")) {
+        items = system.findAvailableItems(query.get("category"),
+            parseDate(query.get("from"), "from"), parseDate(query.get("to"), "to"));
+      } else if (query.containsKey("q")) {
+        items = system.searchItems(query.get("q"), parseInt(query.getOrDefault("limit",
+            String.valueOf(DEFAULT_SEARCH_LIMIT)), "limit"));
+      } else if (query.containsKey("category")) {
+        items = system.getItemsInCategory(query.get("category"));
+      } else {
+        items = system.getItems();
+      }
+      streamListing(exchange, items, JsonWriter.ITEM);
+    }
+  }
+
+  private void contracts(HttpExchange exchange) throws IOException {
+    String id = pathId(exchange, "/contracts");
+    if ("history".equals(id)) {
+      requireMethod(exchange, "GET");
+      Map<String, String> query = query(exchange);
+      String from = query.get("from");
+      String to = query.get("to");
+      streamListing(exchange, system.getContractHistory(query.get("borrower"),
+          query.get("item"), from == null ? null : parseDate(from, "from"),
+          to == null ? null : parseDate(to, "to")), JsonWriter.CONTRACT);
+    } else if (id != null) {
+      throw new ApiException(404, "Not found");
+    } else if ("POST".equals(exchange.getRequestMethod())) {
+      Map<String, String> body = readBody(exchange);
+      String message = system.createLendingContract(required(body, "borrower"),
+          required(body, "item"), parseDate(required(body, "startDate"), "startDate"),
+          parseDate(required(body, "endDate"), "endDate"));
+      if (!LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE.equals(message)) {
+        throw new ApiException(409, message);
+      }
+      sendMessage(exchange, 201, message);
+    } else {
+      requireMethod(exchange, "GET", "POST");
+      streamListing(exchange, system.getContracts(), JsonWriter.CONTRACT);
+    }
+  }
+
+  private void time(HttpExchange exchange) throws IOException {
+    if (pathId(exchange, "/time") != null) {
+      throw new ApiException(404, "Not found");
+    }
+    long events = 0;
+    if ("POST".equals(exchange.getRequestMethod())) {
+      Map<String, String> body = readBody(exchange);
+      events = system.advanceDays(parseInt(body.getOrDefault("days", "1"), "days"));
+    } else {
+      requireMethod(exchange, "GET", "POST");
+    }
+    Writer out = openBody(exchange, 200, -1);
+    out.write("{\"day\":");
+    out.write(Integer.toString(system.getCurrentDay()));
+    out.write(",\"date\":");
+    JsonWriter.writeString(out, system.getCurrentDate().toString());
+    out.write(",\"events\":");
+    out.write(Long.toString(events));
+    out.write('}');
+    out.close();
+  }
+
+  /**
+   * Answers failures with an error status: the status of an ApiException, 400 for other illegal
+   * arguments and 500 for anything else. Once the headers are out, as in a streamed listing, no
+   * status can be sent any more; the exchange is then left unfinished and the exception passed
+   * on, which makes the server drop the connection so the client sees a broken response instead
+   * of a short one.
+   */
+  private HttpHandler guarded(ExchangeHandler handler) {
+    return exchange -> {
+      boolean abort = false;
+      try {
+        handler.handle(exchange);
+      } catch (RuntimeException e) {
+        if (exchange.getResponseCode() != -1) {
+          abort = true;
+          throw e;
+        }
+        if (e instanceof ApiException) {
+          sendError(exchange, ((ApiException) e).status, e.getMessage());
+        } else if (e instanceof IllegalArgumentException) {
+          sendError(exchange, 400, e.getMessage());
+        } else {
+          sendError(exchange, 500, "Internal server error");
+        }
+      } finally {
+        if (!abort) {
+          exchange.close();
+        }
+      }
+    };
+  }
+
+  private <T> void streamListing(HttpExchange exchange, List<T> entries,
+      JsonWriter.EntityFormat<T> format) throws IOException {
+    Map<String, String> query = query(exchange);
+    int offset = parseInt(query.getOrDefault("offset", "0"), "offset");
+    int limit = parseInt(query.getOrDefault("limit", String.valueOf(Integer.MAX_VALUE)),
+        "limit");
+    if (offset < 0 || limit < 0) {
+      throw new ApiException(400, "offset and limit cannot be negative");
+    }
+    // Entries added while streaming are left out, so the listing is the one seen at the start.
+    int end = (int) Math.min(entries.size(), (long) offset + limit);
+    Writer out = openBody(exchange, 200, 0);
+    out.write('[');
+    for (int i = offset; i < end; i++) {
+      if (i > offset) {
+        out.write(',');
+      }
+      format.write(out, entries.get(i));
+    }
+    out.write(']');
+    out.close();
+  }
+
+  private <T> void sendEntity(HttpExchange exchange, int status, T entity,
+      JsonWriter.EntityFormat<T> format) throws IOException {
+    Writer out = openBody(exchange, status, -1);
+    format.write(out, entity);
+    out.close();
+  }
+
+  private static void sendMessage(HttpExchange exchange, int status, String message)
+      throws IOException {
+    sendObject(exchange, status, "message", message);
+  }
+
+  private static void sendError(HttpExchange exchange, int status, String message)
+      throws IOException {
+    sendObject(exchange, status, "error", message);
+  }
+
+  private static void sendObject(HttpExchange exchange, int status, String key, String value)
+      throws IOException {
+    Writer out = openBody(exchange, status, -1);
+    out.write("{\"");
+    out.write(key);
+    out.write("\":");
+    JsonWriter.writeString(out, value);
+    out.write('}');
+    out.close();
+  }
+
+  /**
+   * Sends the headers and opens the body. A length of 0 streams the body in chunks; -1 buffers
+   * it until the writer is closed so that the length can be sent.
+   */
+  private static Writer openBody(HttpExchange exchange, int status, long length)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    OutputStream body;
+    if (length == 0) {
+      exchange.sendResponseHeaders(status, 0);
+      body = exchange.getResponseBody();
+    } else {
+      body = new FixedLengthBody(exchange, status);
+    }
+    return new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8),
+        STREAM_BUFFER_BYTES);
+  }
+
+  private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+    String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+    boolean tooLarge = declared != null && parseLength(declared) > MAX_BODY_BYTES;
+    byte[] bytes;
+    try (InputStream in = exchange.getRequestBody()) {
+      // Chunked bodies declare no length, so read one byte more than allowed to tell.
+      bytes = tooLarge ? null : in.readNBytes(MAX_BODY_BYTES + 1);
+      if (tooLarge || bytes.length > MAX_BODY_BYTES) {
+        // The client may still be sending. Reading on lets it see the answer; closing with
+        // unread data would reset the connection first. Larger bodies are cut off that way.
+        discard(in, MAX_DISCARDED_BYTES);
+        throw new ApiException(413, "Body larger than " + MAX_BODY_BYTES + " bytes");
+      }
+    }
+    String text = new String(bytes, StandardCharsets.UTF_8).trim();
+    if (text.isEmpty()) {
+      return new HashMap<>();
+    }
+    try {
+      return RecordParser.parseJsonObject(text);
+    } catch (IllegalArgumentException e) {
+      throw new ApiException(400, "Malformed JSON body: " + e.getMessage());
+    }
+  }
+
+  private static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> values = new HashMap<>();
+    String raw = exchange.getRequestURI().getRawQuery();
+    if (raw == null || raw.isEmpty()) {
+      return values;
+    }
+    for (String pair : raw.split("&")) {
+      int equals = pair.indexOf('=');
+      String key = equals < 0 ? pair : pair.substring(0, equals);
+      String value = equals < 0 ? "" : pair.substring(equals + 1);
+      values.putIfAbsent(URLDecoder.decode(key, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return values;
+  }
+
+  /**
+   * Returns the path segment after the context path, or null if the request is for the context
+   * itself.
+   */
+  private static String pathId(HttpExchange exchange, String context) {
+    String path = exchange.getRequestURI().getPath();
+    if (path.length() <= context.length() + 1) {
+      return null;
+    }
+    String rest = path.substring(context.length() + 1);
+    if (rest.indexOf('/') >= 0) {
+      throw new ApiException(404, "Not found");
+    }
+    return rest;
+  }
+
+  private static void requireMethod(HttpExchange exchange, String... allowed) {
+    String method = exchange.getRequestMethod();
+    for (String candidate : allowed) {
+      if (candidate.equals(method)) {
+        return;
+      }
+    }
+    exchange.getResponseHeaders().set("Allow", String.join(", ", allowed));
+    throw new ApiException(405, "Method " + method + " not allowed");
+  }
+
+  private static String required(Map<String, String> body, String key) {
+    String value = body.get(key);
+    if (value == null) {
+      throw new ApiException(400, "Missing field '" + key + "'");
+    }
+    return value;
+  }
+
+  private static String optional(Map<String, String> body, String key) {
+    return body.getOrDefault(key, "");
+  }
+
+  private static long parseId(String text) {
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException e) {
+      throw new ApiException(404, "Not found");
+    }
+  }
+
+  /**
+   * Reads and drops up to the given number of bytes. Reads rather than skips, since skipping a
+   * request body goes past its end to the connection underneath.
+   */
+  private static void discard(InputStream in, long bytes) throws IOException {
+    byte[] buffer = new byte[STREAM_BUFFER_BYTES];
+    long remaining = bytes;
+    while (remaining > 0) {
+      int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+      if (read < 0) {
+        return;
+      }
+      remaining -= read;
+    }
+  }
+
+  private static long parseLength(String text) {
+    try {
+      return Long.parseLong(text.trim());
+    } catch (NumberFormatException e) {
+      throw new ApiException(400, "Malformed Content-Length");
+    }
+  }
+
+  private static int parseInt(String text, String name) {
+    try {
+      return Integer.parseInt(text.trim());
+    } catch (NumberFormatException e) {
+      throw new ApiException(400, "'" + name + "' must be a whole number");
+    }
+  }
+
+  private static LocalDate parseDate(String text, String name) {
+    try {
+      return LocalDate.parse(text.trim());
+    } catch (DateTimeParseException e) {
+      throw new ApiException(400, "'" + name + "' must be a date (yyyy-mm-dd)");
+    }
+  }
+
+  /**
+   * Handles one exchange of a route.
+   */
+  @FunctionalInterface
+  private interface ExchangeHandler {
+    void handle(HttpExchange exchange) throws IOException;
+  }
+
+  /**
+   * A request that is answered with an error status and message.
+   */
+  private static final class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ApiException(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+
+  /**
+   * Collects a small response body and sends it with its length when closed, which keeps
+   * single-entity responses out of chunked encoding.
+   */
+  private static final class FixedLengthBody extends ByteArrayOutputStream {
+    private final HttpExchange exchange;
+    private final int status;
+
+    FixedLengthBody(HttpExchange exchange, int status) {
+      this.exchange = exchange;
+      this.status = status;
+    }
+
+    @Override
+    public void close() throws IOException {
+      exchange.sendResponseHeaders(status, size() == 0 ? -1 : size());
+      try (OutputStream body = exchange.getResponseBody()) {
+        writeTo(body);
+      }
+    }
+  }
+}
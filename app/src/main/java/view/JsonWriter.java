@@ -0,0 +1,154 @@
+package view;
+
+import java.io.IOException;
+import java.io.Writer;
+import model.Contract;
+import model.Item;
+import model.Member;
+
+/**
+ * Writes members, items and contracts as JSON objects, straight to a writer.
+ *
+ * <p>Like {@link ListingWriter}, nothing is built per entity, so a listing of any size streams
+ * out with constant memory.
+ */
+public final class JsonWriter {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * Writes one entity as a JSON object.
+   *
+   * @param <T> the type of entity
+   */
+  @FunctionalInterface
+  public interface EntityFormat<T> {
+    /**
+     * Writes the entity.
+     *
+     * @param out    the writer to write to
+     * @param entity the entity to write
+     * @throws IOException if writing fails
+     */
+    void write(Writer out, T entity) throws IOException;
+  }
+
+  public static final EntityFormat<Member> MEMBER = JsonWriter::writeMember;
+  public static final EntityFormat<Item> ITEM = JsonWriter::writeItem;
+  public static final EntityFormat<Contract> CONTRACT = JsonWriter::writeContract;
+
+  private JsonWriter() {
+  }
+
+  /**
+   * Writes a member as an object with id, name, email, phone and credits.
+   *
+   * @param out    the writer to write to
+   * @param member the member
+   * @throws IOException if writing fails
+   */
+  public static void writeMember(Writer out, Member member) throws IOException {
+    out.write("{\"id\":");
+    out.write(Long.toString(member.getId()));
+    field(out, "name", member.getName());
+    field(out, "email", member.getEmail());
+    field(out, "phone", member.getPhoneNumber());
+    out.write(",\"credits\":");
+    out.write(Integer.toString(member.getCredits()));
+    out.write('}');
+  }
+
+  /**
+   * Writes an item as an object with id, name, description, category, owner and costPerDay.
+   *
+   * @param out  the writer to write to
+   * @param item the item
+   * @throws IOException if writing fails
+   */
+  public static void writeItem(Writer out, Item item) throws IOException {
+    out.write("{\"id\":");
+    out.write(Long.toString(item.getId()));
+    field(out, "name", item.getName());
+    field(out, "description", item.getDescription());
+    field(out, "category", item.getCategory());
+    field(out, "owner", item.getOwner().getName());
+    out.write(",\"costPerDay\":");
+    out.write(Integer.toString(item.getCostPerDay()));
+    out.write('}');
+  }
+
+  /**
+   * Writes a contract as an object with id, borrower, item, startDate, endDate, credits and
+   * status.
+   *
+   * @param out      the writer to write to
+   * @param contract the contract
+   * @throws IOException if writing fails
+   */
+  public static void writeContract(Writer out, Contract contract) throws IOException {
+    out.write("{\"id\":");
+    out.write(Long.toString(contract.getId()));
+    field(out, "borrower", contract.getBorrower().getName());
+    field(out, "item", contract.getItem().getName());
+    field(out, "startDate", contract.getStartDate().toString());
+    field(out, "endDate", contract.getEndDate().toString());
+    out.write(",\"credits\":");
+    out.write(Integer.toString(contract.getCreditsTransferred()));
+    field(out, "status", contract.getStatus().name());
+    out.write('}');
+  }
+
+  /**
+   * Writes a string as a quoted JSON string, escaping quotes, backslashes and control
+   * characters.
+   *
+   * @param out   the writer to write to
+   * @param value the string, written as null if null
+   * @throws IOException if writing fails
+   */
+  public static void writeString(Writer out, String value) throws IOException {
+    if (value == null) {
+      out.write("null");
+      return;
+    }
+    out.write('"');
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c != '"' && c != '\\') {
+        continue;
+      }
+      out.write(value, start, i - start);
+      start = i + 1;
+      switch (c) {
+        case '"':
+          out.write("\\\"");
+          break;
+        case '\\':
+          out.write("\\\\");
+          break;
+        case '\n':
+          out.write("\\n");
+          break;
+        case '\r':
+          out.write("\\r");
+          break;
+        case '\t':
+          out.write("\\t");
+          break;
+        default:
+          out.write("\\u00");
+          out.write(HEX[c >> 4]);
+          out.write(HEX[c & 0xF]);
+      }
+    }
+    out.write(value, start, value.length() - start);
+    out.write('"');
+  }
+
+  private static void field(Writer out, String name, String value) throws IOException {
+    out.write(",\"");
+    out.write(name);
+    out.write("\":");
+    writeString(out, value);
+  }
+}
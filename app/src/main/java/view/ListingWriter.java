@@ -0,0 +1,132 @@
+package view;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import model.Contract;
+import model.Item;
+import model.Member;
+
+/**
+ * Writes listings of members, items and contracts to a writer, field by field.
+ *
+ * <p>The output matches {@link View#displayMemberDetails}, {@link View#displayItemDetails} and
+ * {@link View#displayContractDetails}, but no string is built per entity and nothing is flushed
+ * until the caller flushes the writer, so a page of entries costs a single write to the console.
+ */
+public final class ListingWriter {
+  private static final String SEPARATOR = "_______________________";
+
+  /**
+   * Writes one entry of a listing.
+   *
+   * @param <T> the type of entry
+   */
+  @FunctionalInterface
+  public interface EntryFormat<T> {
+    /**
+     * Writes the entry.
+     *
+     * @param out   the writer to write to
+     * @param entry the entry to write
+     */
+    void write(PrintWriter out, T entry);
+  }
+
+  public static final EntryFormat<Member> MEMBERS = ListingWriter::writeMember;
+  public static final EntryFormat<Item> ITEMS = ListingWriter::writeItem;
+  public static final EntryFormat<Contract> CONTRACTS = ListingWriter::writeContract;
+
+  private ListingWriter() {
+  }
+
+  /**
+   * Writes the entries from index {@code from} on, at most {@code count} of them.
+   *
+   * @param out     the writer to write to
+   * @param entries the entries of the listing
+   * @param from    the index of the first entry to write
+   * @param count   the maximum number of entries to write
+   * @param format  writes a single entry
+   * @param <T>     the type of entry
+   * @return the number of entries written
+   */
+  public static <T> int writePage(PrintWriter out, List<T> entries, int from, int count,
+      EntryFormat<T> format) {
+    int end = (int) Math.min(entries.size(), (long) Math.max(0, from) + Math.max(0, count));
+    for (int i = Math.max(0, from); i < end; i++) {
+      format.write(out, entries.get(i));
+    }
+    return Math.max(0, end - Math.max(0, from));
+  }
+
+  /**
+   * Writes a complete listing to a UTF-8 file, replacing the file if it exists.
+   *
+   * @param file    the file to write
+   * @param title   the first line of the file
+   * @param entries the entries of the listing
+   * @param format  writes a single entry
+   * @param <T>     the type of entry
+   * @return the number of entries written
+   * @throws IOException if the file cannot be written
+   */
+  public static <T> int writeAll(Path file, String title, List<T> entries,
+      EntryFormat<T> format) throws IOException {
+    try (BufferedWriter buffered = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        PrintWriter out = new PrintWriter(buffered)) {
+      out.println(title);
+      int written = writePage(out, entries, 0, Integer.MAX_VALUE, format);
+      out.flush();
+      if (out.checkError()) {
+        throw new IOException("Could not write " + file);
+      }
+      return written;
+    }
+  }
+
+  private static void writeMember(PrintWriter out, Member member) {
+    out.println(SEPARATOR);
+    out.println("=== Member Details ===");
+    out.print("Member ID: ");
+    out.println(member.getMemberId());
+    out.print("Name: ");
+    out.println(member.getName());
+    out.print("Email: ");
+    out.println(member.getEmail());
+    out.print("Phone: ");
+    out.println(member.getPhoneNumber());
+    out.print("Credits: ");
+    out.println(member.getCredits());
+  }
+
+  private static void writeItem(PrintWriter out, Item item) {
+    out.println(SEPARATOR);
+    out.println("=== Item Details ===");
+    out.print("Item Name: ");
+    out.println(item.getName());
+    out.print("Description: ");
+    out.println(item.getDescription());
+    out.print("Category: ");
+    out.println(item.getCategory());
+    out.print("Owner: ");
+    out.println(item.getOwner().getName());
+  }
+
+  private static void writeContract(PrintWriter out, Contract contract) {
+    out.println(SEPARATOR);
+    out.println("=== Contract Details ===");
+    out.print("Contract ID: ");
+    out.println(contract.getContractId());
+    out.print("Borrower: ");
+    out.println(contract.getBorrower().getName());
+    out.print("Item: ");
+    out.println(contract.getItem().getName());
+    out.print("Credits Transferred: ");
+    out.println(contract.getCreditsTransferred());
+  }
+}
@@ -1,8 +1,20 @@
 package view;
 
+import controller.Aggregates;
 import controller.LendingSystem;
+import controller.Metrics;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
 import model.Contract;
 import model.Item;
@@ -13,8 +25,39 @@ import model.Member;
 /**
  * Represents the view for the Stuff Lending System.
  */
-public class View {
-  private final Scanner scanner = new Scanner(System.in);
+public final class View {
+  /** Number of entries shown per page of a listing when no page size is given. */
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int CONSOLE_BUFFER_SIZE = 1 << 16;
+  private static final int REPORT_LIMIT = 10;
+  private static final int MAX_SEARCH_RESULTS = 100;
+  private static final int MAX_MEMBER_SUGGESTIONS = 5;
+
+  private final Scanner scanner = new Scanner(System.in, Charset.defaultCharset().name());
+  // Listings are written here and flushed once per page instead of once per line.
+  private final PrintWriter console = new PrintWriter(new BufferedWriter(
+      new OutputStreamWriter(System.out, Charset.defaultCharset()), CONSOLE_BUFFER_SIZE), false);
+  private final int pageSize;
+
+  /**
+   * Creates a view that pages listings by {@link #DEFAULT_PAGE_SIZE} entries.
+   */
+  public View() {
+    this(DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Creates a view that pages listings by the given number of entries.
+   *
+   * @param pageSize the number of entries per page
+   * @throws IllegalArgumentException if the page size is not positive
+   */
+  public View(int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be positive");
+    }
+    this.pageSize = pageSize;
+  }
 
   /**
    * Displays the main menu options.
@@ -31,7 +74,14 @@ public class View {
     System.out.println("6. View All Items");
     System.out.println("7. View All Contracts");
     System.out.println("8. Advance Time");
-    System.out.println("9. Exit");
+    System.out.println("9. Browse Items by Category");
+    System.out.println("10. Search Items");
+    System.out.println("11. Advance Several Days");
+    System.out.println("12. Find Available Items");
+    System.out.println("13. Statistics");
+    System.out.println("14. View Contract History");
+    System.out.println("15. Reports");
+    System.out.println("0. Exit");
   }
 
   /**
@@ -98,48 +148,127 @@ public class View {
    * @param lendingSystem displayed the All Member details.
    */
   public void displayAllMembers(LendingSystem lendingSystem) {
-    displayMessage("============ All Members ============");
-    if (lendingSystem.getMembers().isEmpty()) {
-      displayMessage("No members available.");
-    } else {
-      for (Member member : lendingSystem.getMembers()) {
-        displayMemberDetails(member);
-      }
-    }
+    displayListing("============ All Members ============", "No members available.",
+        lendingSystem.getMembers(), ListingWriter.MEMBERS);
   }
 
+
   /**
    * Displays a list of all items.
    *
    * @param lendingSystem displayed the AllItems
    */
   public void displayAllItems(LendingSystem lendingSystem) {
-    displayMessage("============ All Items ============");
-    if (lendingSystem.getItems().isEmpty()) {
-      displayMessage("No items available.");
-    } else {
-      for (Item item : lendingSystem.getItems()) {
-        displayItemDetails(item);
-      }
-    }
+    displayListing("============ All Items ============", "No items available.",
+        lendingSystem.getItems(), ListingWriter.ITEMS);
   }
 
+
   /**
    * Displays a list of all contracts.
    *
    * @param lendingSystem helped to display the all the available contracts
    */
   public void displayAllContracts(LendingSystem lendingSystem) {
-    displayMessage("============ All Contracts ============");
-    if (lendingSystem.getContracts().isEmpty()) {
-      displayMessage("No contracts available.");
-    } else {
-      for (Contract contract : lendingSystem.getContracts()) {
-        displayContractDetails(contract);
+    displayListing("============ All Contracts ============", "No contracts available.",
+        lendingSystem.getContracts(), ListingWriter.CONTRACTS);
+  }
+
+
+  /**
+   * Lists the categories with their item counts, then pages through the items of the chosen
+   * category.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void browseCategories(LendingSystem lendingSystem) {
+    displayMessage("============ Categories ============");
+    Map<String, Integer> counts = lendingSystem.getCategoryCounts();
+    if (counts.isEmpty()) {
+      displayMessage("No items available.");
+      return;
+    }
+    for (Map.Entry<String, Integer> category : counts.entrySet()) {
+      console.print(category.getKey());
+      console.print(" (");
+      console.print(category.getValue());
+      console.println(")");
+    }
+    console.flush();
+    displayMessage("Enter category:");
+    String category = scanner.nextLine().trim();
+    displayListing("============ " + category + " ============", "No items in this category.",
+        lendingSystem.getItemsInCategory(category), ListingWriter.ITEMS);
+  }
+
+  /**
+   * Searches items by words from their name or description and lists the best matches.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void searchItems(LendingSystem lendingSystem) {
+    displayMessage("Enter search terms:");
+    String query = scanner.nextLine();
+    displayListing("============ Search Results ============", "No matching items.",
+        lendingSystem.searchItems(query, MAX_SEARCH_RESULTS), ListingWriter.ITEMS);
+  }
+
+  /**
+   * Shows a listing one page at a time. Between pages the user can move to the next or
+   * previous page, write the whole listing to a file, or stop.
+   */
+  private <T> void displayListing(String title, String emptyMessage, List<T> entries,
+      ListingWriter.EntryFormat<T> format) {
+    displayMessage(title);
+    if (entries.isEmpty()) {
+      displayMessage(emptyMessage);
+      return;
+    }
+    int cursor = 0;
+    while (true) {
+      int size = entries.size();
+      int shown = ListingWriter.writePage(console, entries, cursor, pageSize, format);
+      console.println("Showing " + (cursor + 1) + "-" + (cursor + shown) + " of " + size);
+      console.flush();
+      if (size <= pageSize) {
+        return;
+      }
+      System.out.print("[Enter] next page, [p] previous page, [f] write all to file, [q] back: ");
+      String command = scanner.nextLine().trim().toLowerCase(Locale.ROOT);
+      switch (command) {
+        case "":
+        case "n":
+          if (cursor + pageSize >= size) {
+            return;
+          }
+          cursor += pageSize;
+          break;
+        case "p":
+          cursor = Math.max(0, cursor - pageSize);
+          break;
+        case "f":
+          writeListingToFile(title, entries, format);
+          return;
+        case "q":
+          return;
+        default:
+          displayMessage("Invalid option! Please try again.");
       }
     }
   }
 
+  private <T> void writeListingToFile(String title, List<T> entries,
+      ListingWriter.EntryFormat<T> format) {
+    displayMessage("Enter file name:");
+    String fileName = scanner.nextLine().trim();
+    try {
+      int written = ListingWriter.writeAll(Paths.get(fileName), title, entries, format);
+      displayMessage("Wrote " + written + " entries to " + fileName);
+    } catch (IOException | InvalidPathException e) {
+      displayMessage("Could not write the listing: " + e.getMessage());
+    }
+  }
+
   /**
    * Adds a new member to the lending system.
    *
@@ -164,7 +293,11 @@ public class View {
    */
   public void addItem(LendingSystem lendingSystem) {
     displayMessage("Enter member name for the item:");
-    final String nameOfMember = scanner.nextLine();
+    Member owner = resolveMember(lendingSystem, scanner.nextLine());
+    if (owner == null) {
+      return;
+    }
+    final String nameOfMember = owner.getName();
     displayMessage("Enter item name:");
     final String namOfItem = scanner.nextLine();
     displayMessage("Enter item description:");
@@ -193,7 +326,11 @@ public class View {
   public void createLendingContract(LendingSystem lendingSystem) {
     try {
       displayMessage("Enter borrower name:");
-      final String borrowerName = scanner.nextLine();
+      Member borrower = resolveMember(lendingSystem, scanner.nextLine());
+      if (borrower == null) {
+        return;
+      }
+      final String borrowerName = borrower.getName();
 
       displayMessage("Enter item name:");
       String nameOfItem = scanner.nextLine();
@@ -232,9 +369,45 @@ public class View {
    * @param lendingSystem the lending system
    */
   public void viewMemberInfo(LendingSystem lendingSystem) {
-    displayMessage("Enter member name to view info:");
-    String memberFinding = scanner.nextLine();
-    lendingSystem.viewMemberInfo(memberFinding);
+    displayMessage("Enter member name or email to view info:");
+    Member member = resolveMember(lendingSystem, scanner.nextLine());
+    if (member != null) {
+      displayMemberDetails(member);
+    }
+  }
+
+  /**
+   * Finds the member the user means: by exact name, by a name or email that differs only in
+   * case, accents or punctuation, or else by letting the user pick from the closest matches.
+   *
+   * @return the member, or null if none was found or picked
+   */
+  private Member resolveMember(LendingSystem lendingSystem, String text) {
+    Member member = lendingSystem.lookupMember(text);
+    if (member != null) {
+      return member;
+    }
+    List<Member> suggestions = lendingSystem.suggestMembers(text, MAX_MEMBER_SUGGESTIONS);
+    if (suggestions.isEmpty()) {
+      displayMessage(LendingSystem.MEMBER_NOT_FOUND_MESSAGE);
+      return null;
+    }
+    displayMessage("Member not found. Did you mean:");
+    for (int i = 0; i < suggestions.size(); i++) {
+      Member suggestion = suggestions.get(i);
+      console.println((i + 1) + ". " + suggestion.getName() + " <" + suggestion.getEmail() + ">");
+    }
+    console.flush();
+    displayMessage("Choose a number, or press Enter to cancel:");
+    try {
+      int choice = Integer.parseInt(scanner.nextLine().trim());
+      if (choice >= 1 && choice <= suggestions.size()) {
+        return suggestions.get(choice - 1);
+      }
+    } catch (NumberFormatException e) {
+      // Anything but a listed number cancels.
+    }
+    return null;
   }
 
   /**
@@ -243,8 +416,169 @@ public class View {
    * @param lendingSystem the lending system
    */
   public void advanceTime(LendingSystem lendingSystem) {
-    lendingSystem.advanceTime();
-    displayMessage("Time advanced to day " + lendingSystem.getCurrentDay());
+    try {
+      lendingSystem.advanceTime();
+      displayMessage("Time advanced to day " + lendingSystem.getCurrentDay());
+    } catch (IllegalArgumentException e) {
+      displayMessage(e.getMessage());
+    }
+  }
+
+  /**
+   * Advances the time in the lending system by a number of days entered by the user.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void advanceDays(LendingSystem lendingSystem) {
+    displayMessage("Enter number of days to advance:");
+    try {
+      int days = Integer.parseInt(scanner.nextLine().trim());
+      long events = lendingSystem.advanceDays(days);
+      displayMessage("Time advanced to day " + lendingSystem.getCurrentDay() + " ("
+          + lendingSystem.getCurrentDate() + "), " + events + " contract events processed");
+    } catch (NumberFormatException e) {
+      displayMessage("Invalid number of days. Please enter a positive number.");
+    } catch (IllegalArgumentException e) {
+      displayMessage(e.getMessage());
+    }
+  }
+
+  /**
+   * Lists the items of a category that are free for a whole period. An empty category looks in
+   * all categories.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void findAvailableItems(LendingSystem lendingSystem) {
+    displayMessage("Enter category (leave empty for all):");
+    String category = scanner.nextLine().trim();
+    LocalDate startDate;
+    LocalDate endDate;
+    try {
+      displayMessage("Enter start date (yyyy-mm-dd):");
+      startDate = LocalDate.parse(scanner.nextLine().trim());
+      displayMessage("Enter end date (yyyy-mm-dd):");
+      endDate = LocalDate.parse(scanner.nextLine().trim());
+    } catch (DateTimeParseException e) {
+      displayMessage("Invalid date format. Please use 'yyyy-mm-dd'.");
+      return;
+    }
+    if (endDate.isBefore(startDate)) {
+      displayMessage("The end date cannot be before the start date.");
+      return;
+    }
+    displayListing("============ Available Items ============", "No items are free then.",
+        lendingSystem.findAvailableItems(category.isEmpty() ? null : category, startDate,
+            endDate), ListingWriter.ITEMS);
+  }
+
+  /**
+   * Lists archived contracts, optionally only those of one borrower or item or within a period.
+   * Empty answers mean no filter.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void displayContractHistory(LendingSystem lendingSystem) {
+    displayMessage("Enter borrower name (leave empty for all):");
+    String borrower = scanner.nextLine().trim();
+    if (!borrower.isEmpty()) {
+      Member member = resolveMember(lendingSystem, borrower);
+      if (member == null) {
+        return;
+      }
+      borrower = member.getName();
+    }
+    displayMessage("Enter item name (leave empty for all):");
+    String item = scanner.nextLine().trim();
+    LocalDate from;
+    LocalDate to;
+    try {
+      displayMessage("Enter first date (yyyy-mm-dd, leave empty for no limit):");
+      String fromText = scanner.nextLine().trim();
+      from = fromText.isEmpty() ? null : LocalDate.parse(fromText);
+      displayMessage("Enter last date (yyyy-mm-dd, leave empty for no limit):");
+      String toText = scanner.nextLine().trim();
+      to = toText.isEmpty() ? null : LocalDate.parse(toText);
+    } catch (DateTimeParseException e) {
+      displayMessage("Invalid date format. Please use 'yyyy-mm-dd'.");
+      return;
+    }
+    displayListing("============ Contract History ============",
+        "No archived contracts match.", lendingSystem.getContractHistory(
+            borrower.isEmpty() ? null : borrower, item.isEmpty() ? null : item, from, to),
+        ListingWriter.CONTRACTS);
+  }
+
+  /**
+   * Shows operation latencies and booking counters, and lets the user switch collection on or
+   * off or clear what was collected.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void showStatistics(LendingSystem lendingSystem) {
+    Metrics metrics = lendingSystem.getMetrics();
+    displayMessage("============ Statistics ============");
+    console.println("Collection: " + (metrics.isEnabled() ? "on" : "off"));
+    console.println("Bookings accepted: " + metrics.getBookingsAccepted());
+    console.println("Bookings rejected for credits: " + metrics.getBookingsRejectedForCredits());
+    console.println("Bookings rejected for availability: "
+        + metrics.getBookingsRejectedForAvailability());
+    for (String line : metrics.getLatencySummary()) {
+      console.println(line);
+    }
+    console.flush();
+    displayMessage("Type 'on', 'off' or 'reset', or press Enter to go back:");
+    String command = scanner.nextLine().trim();
+    if ("on".equalsIgnoreCase(command)) {
+      metrics.setEnabled(true);
+      displayMessage("Statistics collection is on.");
+    } else if ("off".equalsIgnoreCase(command)) {
+      metrics.setEnabled(false);
+      displayMessage("Statistics collection is off.");
+    } else if ("reset".equalsIgnoreCase(command)) {
+      metrics.reset();
+      displayMessage("Statistics cleared.");
+    }
+  }
+
+  /**
+   * Shows use and revenue per category and the top earners, spenders and items. Everything is
+   * read from the running totals, so the report costs the same however many contracts exist.
+   *
+   * @param lendingSystem the lending system
+   */
+  public void displayReports(LendingSystem lendingSystem) {
+    Aggregates aggregates = lendingSystem.getAggregates();
+    displayMessage("============ Reports ============");
+    console.println(String.format(Locale.ROOT, "%-16s %6s %6s %6s %10s %10s %10s", "Category",
+        "Items", "Lent", "Use", "Contracts", "Days", "Revenue"));
+    for (Map.Entry<String, Integer> entry : lendingSystem.getCategoryCounts().entrySet()) {
+      Aggregates.CategoryTotals totals = aggregates.totalsOf(entry.getKey());
+      int items = entry.getValue();
+      console.println(String.format(Locale.ROOT, "%-16s %6d %6d %5.1f%% %10d %10d %10d",
+          entry.getKey(), items, totals.getActiveContracts(),
+          100.0 * totals.getActiveContracts() / items, totals.getContracts(),
+          totals.getBookedDays(), totals.getRevenue()));
+    }
+    console.println("Top earners:");
+    for (long id : aggregates.topEarners(REPORT_LIMIT)) {
+      Member member = lendingSystem.findMemberById(id);
+      console.println(String.format(Locale.ROOT, "  %-30s %10d",
+          member == null ? "#" + id : member.getName(), aggregates.earningsOf(id)));
+    }
+    console.println("Top spenders:");
+    for (long id : aggregates.topSpenders(REPORT_LIMIT)) {
+      Member member = lendingSystem.findMemberById(id);
+      console.println(String.format(Locale.ROOT, "  %-30s %10d",
+          member == null ? "#" + id : member.getName(), aggregates.spendOf(id)));
+    }
+    console.println("Top items:");
+    for (long id : aggregates.topItems(REPORT_LIMIT)) {
+      Item item = lendingSystem.findItemById(id);
+      console.println(String.format(Locale.ROOT, "  %-30s %10d",
+          item == null ? "#" + id : item.getName(), aggregates.revenueOf(id)));
+    }
+    console.flush();
   }
 
   /**
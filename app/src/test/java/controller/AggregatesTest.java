@@ -0,0 +1,62 @@
+package controller;
+
+import model.Item;
+import model.Member;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregatesTest {
+
+    private final Member alice = new Member(1, "Alice", "alice@example.com", "1");
+    private final Member bob = new Member(2, "Bob", "bob@example.com", "2");
+    private final Member carol = new Member(3, "Carol", "carol@example.com", "3");
+    private final Item kayak = new Item(1, "Kayak", "Two seats", "Outdoor", alice, 10);
+    private final Item tent = new Item(2, "Tent", "Four people", "Outdoor", bob, 5);
+    private final Item drill = new Item(3, "Drill", "Cordless", "Tools", carol, 2);
+
+    @Test
+    void testTotalsFollowRentals() {
+        Aggregates aggregates = new Aggregates();
+        aggregates.recordRental(bob.getId(), kayak, 30, 4);
+        aggregates.recordRental(carol.getId(), kayak, 20, 3);
+        aggregates.recordRental(alice.getId(), tent, 15, 4);
+        aggregates.recordEarning(drill, 4, 3);
+        aggregates.recordSpend(200, 4);
+        aggregates.recordActiveChange("Outdoor", 1);
+        aggregates.recordActiveChange("Outdoor", 1);
+        aggregates.recordActiveChange("Outdoor", -1);
+
+        assertEquals(50, aggregates.earningsOf(alice.getId()));
+        assertEquals(15, aggregates.earningsOf(bob.getId()));
+        assertEquals(30, aggregates.spendOf(bob.getId()));
+        assertEquals(4, aggregates.spendOf(200));
+        assertEquals(50, aggregates.revenueOf(kayak.getId()));
+        assertEquals(0, aggregates.revenueOf(99));
+
+        Aggregates.CategoryTotals outdoor = aggregates.totalsOf("Outdoor");
+        assertEquals(3, outdoor.getContracts());
+        assertEquals(11, outdoor.getBookedDays());
+        assertEquals(65, outdoor.getRevenue());
+        assertEquals(1, outdoor.getActiveContracts());
+        assertEquals(0, aggregates.totalsOf("Books").getContracts());
+
+        assertArrayEquals(new long[] {1, 2}, aggregates.topEarners(2));
+        assertArrayEquals(new long[] {1, 2, 3}, aggregates.topItems(5));
+        assertArrayEquals(new long[] {2, 3, 1, 200}, aggregates.topSpenders(10));
+        assertArrayEquals(new long[0], aggregates.topSpenders(0));
+        assertThrows(IllegalArgumentException.class, () -> aggregates.topItems(-1));
+        assertThrows(IllegalArgumentException.class, () -> aggregates.recordSpend(0, 5));
+    }
+
+    @Test
+    void testCategoryTotalsAreCopies() {
+        Aggregates aggregates = new Aggregates();
+        aggregates.recordRental(bob.getId(), kayak, 30, 4);
+        Aggregates.CategoryTotals before = aggregates.totalsOf("Outdoor");
+        aggregates.recordRental(carol.getId(), kayak, 20, 3);
+
+        assertEquals(1, before.getContracts());
+        assertEquals(2, aggregates.totalsOf("Outdoor").getContracts());
+    }
+}
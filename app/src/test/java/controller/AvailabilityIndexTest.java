@@ -0,0 +1,109 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+
+    @Test
+    void testFreeItemsInCategory() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addItem("Outdoor", 1);
+        index.addItem("Outdoor", 2);
+        index.addItem("Electronic", 3);
+        index.addItem("Outdoor", 5000);
+        index.markBooked(1, 10, 12);
+        index.markBooked(5000, 20, 40);
+
+        assertArrayEquals(new long[] {2, 5000}, index.freeItems("Outdoor", 3, 10));
+        assertArrayEquals(new long[] {1, 2, 5000}, index.freeItems("Outdoor", 13, 19));
+        assertArrayEquals(new long[] {2}, index.freeItems("Outdoor", 0, 100));
+        assertArrayEquals(new long[] {2, 3}, index.freeItems(null, 12, 20));
+        assertArrayEquals(new long[0], index.freeItems("Missing", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.freeItems("Outdoor", 5, 4));
+        assertThrows(IllegalArgumentException.class, () -> index.markBooked(0, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> index.markBooked(1, 0, 1L << 40));
+    }
+
+    @Test
+    void testLongBookingsTouchFewBitmaps() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addItem("Outdoor", 1);
+        index.addItem("Outdoor", 2);
+        long first = LocalDate.of(1, 1, 1).toEpochDay();
+        long last = LocalDate.of(9999, 12, 31).toEpochDay();
+        index.markBooked(1, first, last);
+        index.markBooked(2, last, last);
+
+        assertArrayEquals(new long[0], index.freeItems("Outdoor", last, last));
+        assertArrayEquals(new long[] {2}, index.freeItems("Outdoor", first, first));
+        assertArrayEquals(new long[] {2}, index.freeItems("Outdoor", 0, 365));
+        assertArrayEquals(new long[] {1, 2}, index.freeItems("Outdoor", first - 1000, first - 1));
+        assertArrayEquals(new long[] {2}, index.freeItems("Outdoor", last - 1, last - 1));
+        assertArrayEquals(new long[] {1, 2}, index.freeItems("Outdoor", last + 1, last + 1));
+        assertArrayEquals(new long[0], index.freeItems("Outdoor", first - 1, last + 1));
+    }
+
+    @Test
+    void testDaysBeforeHorizonAreDropped() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addItem("Outdoor", 1);
+        index.addItem("Outdoor", 2);
+        index.markBooked(1, 10, 12);
+        index.markBooked(2, 5, 1000);
+        index.dropBefore(11);
+        index.markBooked(1, 0, 10);
+        index.dropBefore(3);
+
+        assertEquals(11, index.getHorizon());
+        assertArrayEquals(new long[] {1, 2}, index.freeItems("Outdoor", 0, 10));
+        assertArrayEquals(new long[0], index.freeItems("Outdoor", 0, 11));
+        assertArrayEquals(new long[] {1}, index.freeItems("Outdoor", 13, 13));
+        assertArrayEquals(new long[0], index.freeItems("Outdoor", 12, 1000));
+        index.dropBefore(2000);
+        assertArrayEquals(new long[] {1, 2}, index.freeItems("Outdoor", 0, 3000));
+    }
+
+    @Test
+    void testMatchesItemByItemCheck() {
+        Random random = new Random(42);
+        int items = 3000;
+        AvailabilityIndex index = new AvailabilityIndex();
+        boolean[][] booked = new boolean[items + 1][200];
+        for (int id = 1; id <= items; id++) {
+            index.addItem(id % 2 == 0 ? "Even" : "Odd", id);
+        }
+        for (int i = 0; i < 4000; i++) {
+            int id = 1 + random.nextInt(items);
+            int start = random.nextInt(190);
+            int end = Math.min(199, start + (i % 10 == 0 ? random.nextInt(100) : random.nextInt(10)));
+            index.markBooked(id, start - 100, end - 100);
+            for (int day = start; day <= end; day++) {
+                booked[id][day] = true;
+            }
+        }
+
+        for (int query = 0; query < 200; query++) {
+            int start = random.nextInt(200);
+            int end = Math.min(199, start + random.nextInt(40));
+            long[] expected = LongStream.rangeClosed(1, items)
+                    .filter(id -> id % 2 == 0)
+                    .filter(id -> {
+                        for (int day = start; day <= end; day++) {
+                            if (booked[(int) id][day]) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    })
+                    .toArray();
+            assertArrayEquals(expected, index.freeItems("Even", start - 100, end - 100),
+                    "days " + start + ".." + end);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LendingSystem lendingSystem;
+
+    @BeforeEach
+    void setUp() {
+        lendingSystem = new LendingSystem();
+    }
+
+    @Test
+    void testImportCsvFiles() throws IOException {
+        Path members = tempDir.resolve("members.csv");
+        Files.write(members, List.of(
+                "name,email,phone",
+                "Eva Green,eva@example.com,111",
+                "\"Smith, Adam\",adam@example.com,222",
+                ",nobody@example.com,333"));
+        Path items = tempDir.resolve("items.csv");
+        Files.write(items, List.of(
+                "owner,name,category,description,costPerDay",
+                "Eva Green,Sled,Winter,\"A \"\"fast\"\" sled\",5",
+                "Smith\\, Adam,Ghost,Misc,Owner does not exist,5",
+                "Eva Green,Skis,Winter,Cross country,not-a-number"));
+        Path contracts = tempDir.resolve("contracts.csv");
+        Files.write(contracts, List.of(
+                "borrower,item,startDate,endDate",
+                "\"Smith, Adam\",Sled,2030-01-01,2030-01-03",
+                "John Doe,Sled,2030-01-02,2030-01-02",
+                "John Doe,Sled,someday,2030-01-02"));
+
+        try (BulkImporter importer = new BulkImporter(lendingSystem, 2)) {
+            ImportReport memberReport = importer.importMembers(members);
+            assertEquals(3, memberReport.getRowsRead());
+            assertEquals(2, memberReport.getRowsImported());
+
+            ImportReport itemReport = importer.importItems(items);
+            assertEquals(1, itemReport.getRowsImported());
+            assertEquals(2, itemReport.getRowsRejected());
+
+            ImportReport contractReport = importer.importContracts(contracts);
+            assertEquals(1, contractReport.getRowsImported());
+            assertEquals(2, contractReport.getRowsRejected());
+        }
+
+        assertNotNull(lendingSystem.findMember("Smith, Adam"));
+        assertEquals("A \"fast\" sled", lendingSystem.findItem("Sled").getDescription());
+        assertEquals(100 - 10, lendingSystem.findMember("Smith, Adam").getCredits());
+    }
+
+    @Test
+    void testImportJsonLines() throws IOException {
+        Path members = tempDir.resolve("members.jsonl");
+        Files.write(members, List.of(
+                "{\"name\": \"Eva Green\", \"email\": \"eva@example.com\", \"phone\": \"111\"}",
+                "{\"name\": \"Tab\\tName\", \"phone\": null}",
+                "not json"));
+        Path items = tempDir.resolve("items.jsonl");
+        Files.write(items, List.of(
+                "{\"owner\": \"Eva Green\", \"name\": \"Sled\", \"description\": \"Wooden\","
+                        + " \"category\": \"Winter\", \"costPerDay\": 5}"));
+
+        try (BulkImporter importer = new BulkImporter(lendingSystem)) {
+            assertEquals(2, importer.importMembers(members).getRowsImported());
+            assertEquals(1, importer.importItems(items).getRowsImported());
+        }
+        assertEquals("", lendingSystem.findMember("Tab\tName").getEmail());
+        assertEquals(5, lendingSystem.findItem("Sled").getCostPerDay());
+    }
+
+    @Test
+    void testImportManyChunksKeepsFileOrder() throws IOException {
+        Path members = tempDir.resolve("many.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(members)) {
+            writer.write("phone,name,email\n");
+            for (int i = 0; i < 50_000; i++) {
+                writer.write(i + ",Member " + i + ",m" + i + "@example.com\n");
+            }
+        }
+        try (BulkImporter importer = new BulkImporter(lendingSystem, 4)) {
+            ImportReport report = importer.importMembers(members);
+            assertEquals(50_000, report.getRowsImported());
+            assertTrue(report.getRowsPerSecond() > 0);
+        }
+        assertEquals(50_003, lendingSystem.getMembers().size());
+        assertEquals("Member 49999", lendingSystem.getMembers().get(50_002).getName());
+        assertEquals("49999", lendingSystem.findMember("Member 49999").getPhoneNumber());
+    }
+
+    @Test
+    void testShortRowsAreRejected() throws IOException {
+        Path items = tempDir.resolve("items.csv");
+        Files.write(items, List.of(
+                "owner,name,description,category,costPerDay",
+                "John Doe,Sled,Wooden,Winter",
+                "John Doe,Skis,Cross country,Winter,7"));
+        Path contracts = tempDir.resolve("contracts.csv");
+        Files.write(contracts, List.of(
+                "borrower,item,startDate,endDate",
+                "Jane Smith,Skis,2030-01-01",
+                "Jane Smith,Skis,2030-01-02,2030-01-03"));
+        Path jsonItems = tempDir.resolve("items.jsonl");
+        Files.write(jsonItems, List.of(
+                "{\"owner\": \"John Doe\", \"name\": \"Kite\", \"category\": \"Outdoor\"}",
+                "{\"owner\": \"John Doe\", \"name\": \"Board\", \"costPerDay\": 3}"));
+        Path jsonContracts = tempDir.resolve("contracts.jsonl");
+        Files.write(jsonContracts, List.of(
+                "{\"borrower\": \"Jane Smith\", \"item\": \"Board\", \"startDate\": \"2030-02-01\"}",
+                "{\"borrower\": \"Jane Smith\", \"item\": \"Board\", \"startDate\": \"2030-02-01\","
+                        + " \"endDate\": \"2030-02-02\"}"));
+
+        try (BulkImporter importer = new BulkImporter(lendingSystem, 2)) {
+            assertEquals(1, importer.importItems(items).getRowsImported());
+            assertEquals(1, importer.importContracts(contracts).getRowsImported());
+            ImportReport jsonItemReport = importer.importItems(jsonItems);
+            assertEquals(2, jsonItemReport.getRowsRead());
+            assertEquals(1, jsonItemReport.getRowsImported());
+            assertEquals(1, importer.importContracts(jsonContracts).getRowsImported());
+        }
+        assertNull(lendingSystem.findItem("Sled"));
+        assertNull(lendingSystem.findItem("Kite"));
+        assertEquals(1, lendingSystem.findItem("Skis").getContracts().size());
+        assertEquals(1, lendingSystem.findItem("Board").getContracts().size());
+    }
+
+    @Test
+    void testMissingColumnIsReported() throws IOException {
+        Path members = tempDir.resolve("members.csv");
+        Files.write(members, List.of("name,email", "Eva,eva@example.com"));
+        try (BulkImporter importer = new BulkImporter(lendingSystem)) {
+            assertThrows(IOException.class, () -> importer.importMembers(members));
+        }
+        assertNull(lendingSystem.findMember("Eva"));
+    }
+}
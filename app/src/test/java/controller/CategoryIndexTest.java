@@ -0,0 +1,64 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryIndexTest {
+
+    @Test
+    void testInternReturnsSharedInstance() {
+        CategoryIndex<String> index = new CategoryIndex<>();
+        String first = index.intern(new String("Outdoor"));
+        assertSame(first, index.intern(new String("Outdoor")));
+        assertNull(index.intern(null));
+    }
+
+    @Test
+    void testInternGrowsPastInitialCapacity() {
+        CategoryIndex<String> index = new CategoryIndex<>();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Category " + i, index.intern("Category " + i));
+        }
+        assertEquals(0, index.count("Category 99"));
+    }
+
+    @Test
+    void testCountsAndPages() {
+        CategoryIndex<String> index = new CategoryIndex<>();
+        for (int i = 0; i < 25; i++) {
+            index.add("Outdoor", "tent " + i);
+        }
+        index.add("Electronic", "laptop");
+        index.intern("Unused");
+
+        assertEquals(25, index.count("Outdoor"));
+        assertEquals(0, index.count("Unused"));
+        assertEquals(0, index.count("Missing"));
+        assertEquals(Map.of("Outdoor", 25, "Electronic", 1), index.counts());
+        assertEquals(List.of("Outdoor", "Electronic"), List.copyOf(index.counts().keySet()));
+
+        assertEquals(List.of("tent 10", "tent 11"), index.page("Outdoor", 10, 2));
+        assertEquals(List.of("tent 24"), index.page("Outdoor", 24, 10));
+        assertTrue(index.page("Outdoor", 30, 10).isEmpty());
+        assertTrue(index.page("Missing", 0, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.page("Outdoor", -1, 10));
+    }
+
+    @Test
+    void testEntriesViewIsStableAfterGrowth() {
+        CategoryIndex<String> index = new CategoryIndex<>();
+        index.add("Sports", "ball");
+        List<String> before = index.entriesOf("Sports");
+        for (int i = 0; i < 100; i++) {
+            index.add("Sports", "bike " + i);
+        }
+
+        assertEquals(List.of("ball"), before);
+        assertEquals(101, index.entriesOf("Sports").size());
+        assertThrows(UnsupportedOperationException.class, () -> before.add("racket"));
+    }
+}
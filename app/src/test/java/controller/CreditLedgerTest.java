@@ -0,0 +1,53 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditLedgerTest {
+
+    @Test
+    void testBalancesFollowEntries() {
+        CreditLedger ledger = new CreditLedger();
+        ledger.recordGrant(CreditLedger.SIGN_UP_GRANT, 1, 100, 0);
+        ledger.recordGrant(CreditLedger.SIGN_UP_GRANT, 2, 100, 0);
+        ledger.recordGrant(CreditLedger.LISTING_BONUS, 2, 100, 7);
+        ledger.recordTransfer(CreditLedger.RENTAL, 1, 2, 40, 3);
+
+        assertEquals(60, ledger.balanceOf(1));
+        assertEquals(240, ledger.balanceOf(2));
+        assertEquals(0, ledger.balanceOf(99));
+        assertEquals(300, ledger.getTotalGranted());
+        assertEquals(4, ledger.size());
+
+        List<String> entries = new ArrayList<>();
+        ledger.forEachEntry((type, from, to, amount, reference) ->
+                entries.add(type + " " + from + "->" + to + " " + amount + " #" + reference));
+        assertEquals(List.of("2 0->1 100 #0", "2 0->2 100 #0", "3 0->2 100 #7", "4 1->2 40 #3"), entries);
+        assertThrows(IllegalArgumentException.class, () -> ledger.recordGrant(CreditLedger.SIGN_UP_GRANT, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> ledger.recordTransfer(CreditLedger.RENTAL, 1, 2, -5, 3));
+    }
+
+    @Test
+    void testParallelReplayVerifiesConservation() {
+        CreditLedger ledger = new CreditLedger();
+        int members = 10_000;
+        for (int member = 1; member <= members; member++) {
+            ledger.recordGrant(CreditLedger.SIGN_UP_GRANT, member, 100, 0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 500_000; i++) {
+            ledger.recordTransfer(CreditLedger.RENTAL, random.nextInt(members) + 1,
+                    random.nextInt(members) + 1, random.nextInt(50), i);
+        }
+
+        LedgerReport report = ledger.verify();
+        assertEquals(510_000, report.getEntries());
+        assertEquals(members * 100L, report.getTotalBalance());
+        assertTrue(report.isConsistent(), report.toString());
+    }
+}
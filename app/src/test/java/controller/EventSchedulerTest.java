@@ -0,0 +1,44 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSchedulerTest {
+
+    @Test
+    void testDrainDeliversDueEventsInOrder() {
+        EventScheduler<String> scheduler = new EventScheduler<>();
+        scheduler.schedule(12, "c");
+        scheduler.schedule(10, "a");
+        scheduler.schedule(12, "d");
+        scheduler.schedule(11, "b");
+        scheduler.schedule(20, "later");
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(0, scheduler.drainThrough(9, drained::add));
+        assertEquals(4, scheduler.drainThrough(12, drained::add));
+
+        assertEquals(List.of("a", "b", "c", "d"), drained);
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    void testDrainedEventsAreGone() {
+        EventScheduler<String> scheduler = new EventScheduler<>();
+        for (int i = 0; i < 100; i++) {
+            scheduler.schedule(5, "event " + i);
+        }
+        List<String> drained = new ArrayList<>();
+        scheduler.drainThrough(5, drained::add);
+        scheduler.drainThrough(5, drained::add);
+
+        assertEquals(100, drained.size());
+        assertEquals("event 99", drained.get(99));
+        assertEquals(0, scheduler.size());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(6, null));
+    }
+}
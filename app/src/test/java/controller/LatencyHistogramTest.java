@@ -0,0 +1,39 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value, "value " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500_500.0, histogram.meanNanos(), 0.001);
+        assertEquals(500_000, histogram.percentileNanos(0.5), 500_000 * 0.125);
+        assertEquals(990_000, histogram.percentileNanos(0.99), 990_000 * 0.125);
+        assertTrue(histogram.maxNanos() >= 1_000_000);
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentileNanos(1.5));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileNanos(0.5));
+    }
+}
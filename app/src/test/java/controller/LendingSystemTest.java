@@ -3,8 +3,20 @@ package controller;
 import model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +44,116 @@ class LendingSystemTest {
         assertEquals("Computer", lendingSystem.getItems().get(6).getName());
     }
 
+    @Test
+    void testCategoryIndex() {
+        lendingSystem.addItem("John Doe", "Computer", "Gaming PC", new String("Electronic"), 30);
+
+        assertEquals(3, lendingSystem.countItemsInCategory("Electronic"));
+        assertEquals(1, lendingSystem.getCategoryCounts().get("Outdoor"));
+        assertEquals("Computer", lendingSystem.getItemsInCategory("Electronic", 2, 10).get(0).getName());
+        assertSame(lendingSystem.findItem("Laptop").getCategory(),
+                lendingSystem.findItem("Computer").getCategory());
+    }
+
+    @Test
+    void testSearchItems() {
+        lendingSystem.addItem("John Doe", "Drone", "Camera drone", "Electronic", 30);
+
+        List<Item> results = lendingSystem.searchItems("camera", 10);
+        assertEquals("Camera", results.get(0).getName());
+        assertEquals("Drone", results.get(1).getName());
+        assertEquals("Drone", lendingSystem.searchItems("cam dro", 10).get(0).getName());
+    }
+
+    @Test
+    void testFindAvailableItems() {
+        LocalDate today = lendingSystem.getCurrentDate();
+        lendingSystem.createLendingContract("John Doe", "Projector", today.plusDays(7),
+                today.plusDays(8));
+
+        List<Item> during = lendingSystem.findAvailableItems("Electronic", today.plusDays(1),
+                today.plusDays(2));
+        assertEquals(List.of("Projector"), during.stream().map(Item::getName)
+                .collect(Collectors.toList()));
+        List<Item> after = lendingSystem.findAvailableItems("Electronic", today.plusDays(6),
+                today.plusDays(6));
+        assertEquals(List.of("Laptop", "Projector"), after.stream().map(Item::getName)
+                .collect(Collectors.toList()));
+        assertEquals(4, lendingSystem.findAvailableItems(null, today, today.plusDays(8)).size());
+        assertTrue(lendingSystem.findAvailableItems("Missing", today, today).isEmpty());
+
+        // Past days are gone from the bitmaps but still count.
+        lendingSystem.advanceDays(7);
+        assertEquals(List.of("Projector"), lendingSystem.findAvailableItems("Electronic", today,
+                today.plusDays(6)).stream().map(Item::getName).collect(Collectors.toList()));
+        assertEquals(List.of("Laptop", "Projector"), lendingSystem.findAvailableItems("Electronic",
+                today.plusDays(6), today.plusDays(6)).stream().map(Item::getName)
+                .collect(Collectors.toList()));
+        assertTrue(lendingSystem.findAvailableItems("Electronic", today, today.plusDays(8)).isEmpty());
+    }
+
+    @Test
+    void testContractStatusFollowsTime() {
+        LocalDate today = lendingSystem.getCurrentDate();
+        lendingSystem.createLendingContract("John Doe", "Tent", today.plusDays(1), today.plusDays(2));
+        Contract sample = lendingSystem.getContracts().get(0);
+        Contract tent = lendingSystem.getContracts().get(1);
+
+        assertEquals(ContractStatus.ACTIVE, sample.getStatus());
+        assertEquals(ContractStatus.SCHEDULED, tent.getStatus());
+        assertEquals(1, lendingSystem.getActiveContractCount());
+
+        lendingSystem.advanceTime();
+        assertEquals(ContractStatus.ACTIVE, tent.getStatus());
+        assertEquals(2, lendingSystem.getActiveContractCount());
+
+        for (int day = 0; day < 5; day++) {
+            lendingSystem.advanceTime();
+        }
+        assertEquals(ContractStatus.COMPLETED, sample.getStatus());
+        assertEquals(ContractStatus.COMPLETED, tent.getStatus());
+        assertEquals(0, lendingSystem.getActiveContractCount());
+        assertEquals(today.plusDays(6), lendingSystem.getCurrentDate());
+    }
+
+    @Test
+    void testAdvanceDaysMatchesSingleDayAdvances() {
+        LendingSystem stepped = new LendingSystem();
+        LocalDate today = lendingSystem.getCurrentDate();
+        for (LendingSystem system : List.of(lendingSystem, stepped)) {
+            system.createLendingContract("John Doe", "Tent", today.plusDays(3), today.plusDays(10));
+            system.createLendingContract("Alice Brown", "Bicycle", today.plusDays(50), today.plusDays(60));
+        }
+
+        assertEquals(3, lendingSystem.advanceDays(45));
+        for (int day = 0; day < 45; day++) {
+            stepped.advanceTime();
+        }
+
+        assertEquals(45, lendingSystem.getCurrentDay());
+        assertEquals(stepped.getActiveContractCount(), lendingSystem.getActiveContractCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(stepped.getContracts().get(i).getStatus(), lendingSystem.getContracts().get(i).getStatus());
+        }
+        assertEquals(ContractStatus.SCHEDULED, lendingSystem.getContracts().get(2).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> lendingSystem.advanceDays(0));
+    }
+
+    @Test
+    void testCreditLedgerMatchesMemberCredits() {
+        lendingSystem.createLendingContract("John Doe", "Tent", LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+
+        LedgerReport report = lendingSystem.verifyCreditLedger();
+        assertTrue(report.isConsistent(), report.toString());
+        assertEquals(3 * Member.INITIAL_CREDITS + 6 * Member.CREDIT_INCREMENT, report.getTotalBalance());
+        assertTrue(lendingSystem.reconcileCredits().isEmpty());
+        Member jane = lendingSystem.findMember("Jane Smith");
+        assertEquals(jane.getCredits(), lendingSystem.getCreditLedger().balanceOf(jane.getId()));
+
+        jane.addCredits(5);
+        assertEquals(List.of(jane), lendingSystem.reconcileCredits());
+    }
+
     @Test
     void testAddItemForNonExistingMember() {
         String message = lendingSystem.addItem("Nonexistent Member", "Camera", "DSLR Camera", "Electronic", 50);
@@ -123,4 +245,446 @@ class LendingSystemTest {
         Item item = lendingSystem.findItem("Projector");
         assertTrue(lendingSystem.isValidContract(borrower, item, startDate, endDate));
     }
+
+    @Test
+    void testFindMemberById() {
+        Member member = lendingSystem.findMember("Jane Smith");
+        assertSame(member, lendingSystem.findMemberById(member.getId()));
+        assertNull(lendingSystem.findMemberById(999_999));
+    }
+
+    @Test
+    void testFindItemById() {
+        Item item = lendingSystem.findItem("Tent");
+        assertSame(item, lendingSystem.findItemById(item.getId()));
+    }
+
+    @Test
+    void testIdsAreDenseAndPrintable() {
+        assertEquals(1, lendingSystem.findMember("John Doe").getId());
+        assertEquals(3, lendingSystem.findMember("Alice Brown").getId());
+        assertEquals("M3", lendingSystem.findMember("Alice Brown").getMemberId());
+        assertEquals(6, lendingSystem.findItem("Projector").getId());
+        assertEquals("I6", lendingSystem.findItem("Projector").getItemId());
+        lendingSystem.addMember("Dora", "dora@example.com", "42");
+        assertEquals(4, lendingSystem.findMember("Dora").getId());
+    }
+
+    @Test
+    void testFindMemberWithDuplicateNameReturnsFirstAdded() {
+        Member first = lendingSystem.findMember("John Doe");
+        lendingSystem.addMember("John Doe", "other.john@example.com", "111111111");
+        assertSame(first, lendingSystem.findMember("John Doe"));
+        assertEquals(4, lendingSystem.getMembers().size());
+    }
+
+    @Test
+    void testGetMembersIsReadOnly() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> lendingSystem.getMembers().add(new Member("X", "x@example.com", "1")));
+    }
+
+    @Test
+    void testConcurrentBookingsOfSameItemDoNotDoubleBook() throws Exception {
+        for (int i = 0; i < 16; i++) {
+            lendingSystem.addMember("Borrower " + i, "b" + i + "@example.com", "000");
+        }
+        LocalDate startDate = LocalDate.now().plusDays(30);
+        LocalDate endDate = startDate.plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String borrower = "Borrower " + i;
+                results.add(executor.submit(() ->
+                        lendingSystem.createLendingContract(borrower, "Guitar", startDate, endDate)));
+            }
+            int created = 0;
+            for (Future<String> result : results) {
+                if ("Contract created successfully!".equals(result.get())) {
+                    created++;
+                }
+            }
+            assertEquals(1, created);
+            assertEquals(1, lendingSystem.findItem("Guitar").getContracts().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentBookingsDoNotOverdrawBorrower() throws Exception {
+        lendingSystem.addMember("Spender", "spender@example.com", "000");
+        lendingSystem.addMember("Lender", "lender@example.com", "000");
+        for (int i = 0; i < 20; i++) {
+            lendingSystem.addItem("Lender", "Tool " + i, "A tool", "Tools", 10);
+        }
+        LocalDate startDate = LocalDate.now();
+        LocalDate endDate = startDate.plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String itemName = "Tool " + i;
+                results.add(executor.submit(() ->
+                        lendingSystem.createLendingContract("Spender", itemName, startDate, endDate)));
+            }
+            for (Future<String> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // 100 starting credits buy exactly ten one-day rentals at 10 credits each.
+        assertEquals(0, lendingSystem.findMember("Spender").getCredits());
+        assertEquals(11, lendingSystem.getContracts().size()); // Including one from initializeData
+    }
+
+    @Test
+    void testJournaledSystemIsRestoredOnOpen(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        LendingSystem journaled = LendingSystem.open(journalFile);
+        journaled.addMember("Dora", "dora@example.com", "42");
+        journaled.addItem("Dora", "Canoe", "Red canoe", "Outdoor", 10);
+        journaled.createLendingContract("John Doe", "Canoe", LocalDate.now(), LocalDate.now().plusDays(2));
+        journaled.advanceTime();
+        journaled.advanceDays(1);
+        journaled.close();
+
+        LendingSystem restored = LendingSystem.open(journalFile);
+        assertEquals(4, restored.getMembers().size());
+        assertEquals(7, restored.getItems().size());
+        assertEquals(2, restored.getContracts().size());
+        assertEquals(2, restored.getCurrentDay());
+        assertEquals(journaled.findMember("Dora").getCredits(), restored.findMember("Dora").getCredits());
+        assertEquals(journaled.findMember("Dora").getId(), restored.findMember("Dora").getId());
+        assertEquals(journaled.getContracts().get(1).getContractId(), restored.getContracts().get(1).getContractId());
+        assertEquals(journaled.findMember("John Doe").getCredits(),
+                restored.findMember("John Doe").getCredits());
+        assertEquals(journaled.getCurrentDate(), restored.getCurrentDate());
+        assertEquals(2, restored.getActiveContractCount());
+        restored.close();
+    }
+
+    @Test
+    void testSnapshotPlusJournalTailIsRestoredOnOpen(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        Path snapshotFile = tempDir.resolve("lending.snapshot");
+        LendingSystem journaled = LendingSystem.open(journalFile, snapshotFile);
+        journaled.addMember("Dora", "dora@example.com", "42");
+        journaled.takeSnapshot().get();
+        journaled.addItem("Dora", "Canoe", "Red canoe", "Outdoor", 10);
+        journaled.advanceTime();
+        // Not closed: the items and the day after the snapshot only exist in the journal tail.
+
+        LendingSystem restored = LendingSystem.open(journalFile, snapshotFile);
+        assertEquals(4, restored.getMembers().size());
+        assertEquals(7, restored.getItems().size());
+        assertEquals(1, restored.getContracts().size());
+        assertEquals(1, restored.getCurrentDay());
+        assertEquals(200, restored.findMember("Dora").getCredits());
+        assertEquals(journaled.findMember("Jane Smith").getCredits(),
+                restored.findMember("Jane Smith").getCredits());
+        assertFalse(restored.isItemAvailable(restored.findItem("Laptop"), LocalDate.now(), LocalDate.now()));
+        assertEquals(2, restored.countItemsInCategory("Outdoor"));
+        assertEquals(2, restored.countItemsInCategory("Electronic"));
+        assertEquals(journaled.getCurrentDate(), restored.getCurrentDate());
+        assertEquals(ContractStatus.ACTIVE, restored.getContracts().get(0).getStatus());
+        assertTrue(restored.verifyCreditLedger().isConsistent());
+        assertTrue(restored.reconcileCredits().isEmpty());
+        restored.close();
+
+        LendingSystem reopened = LendingSystem.open(journalFile, snapshotFile);
+        assertEquals(7, reopened.getItems().size());
+        assertEquals(1, reopened.getCurrentDay());
+        reopened.close();
+    }
+
+    @Test
+    void testCompletedContractsMoveToArchive(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        Path snapshotFile = tempDir.resolve("lending.snapshot");
+        Path archiveFile = tempDir.resolve("lending.archive");
+        LocalDate today = LocalDate.now();
+        LendingSystem journaled = LendingSystem.open(journalFile, snapshotFile, archiveFile);
+        journaled.addMember("Dora", "dora@example.com", "42");
+        journaled.addItem("Dora", "Canoe", "Red canoe", "Outdoor", 10);
+        journaled.createLendingContract("John Doe", "Canoe", today, today.plusDays(1));
+        assertEquals(2, journaled.getContracts().size());
+
+        journaled.advanceDays(3);
+        assertEquals(1, journaled.getContracts().size()); // The Laptop contract is still active
+        assertEquals(1, journaled.getArchivedContractCount());
+        assertTrue(journaled.findItem("Canoe").getContracts().isEmpty());
+        assertFalse(journaled.isItemAvailable(journaled.findItem("Canoe"), today, today.plusDays(1)));
+        List<Contract> history = journaled.getContractHistory("John Doe", null, null, null);
+        assertEquals(1, history.size());
+        assertEquals("Canoe", history.get(0).getItem().getName());
+        assertEquals(ContractStatus.COMPLETED, history.get(0).getStatus());
+        assertEquals(10, history.get(0).getCreditsTransferred());
+        assertTrue(journaled.getContractHistory(null, "Laptop", null, null).isEmpty());
+        assertTrue(journaled.getContractHistory(null, null, today.plusDays(2), null).isEmpty());
+
+        journaled.takeSnapshot().get();
+        journaled.advanceDays(5);
+        assertTrue(journaled.getContracts().isEmpty());
+        assertEquals(2, journaled.getArchivedContractCount());
+        journaled.close();
+
+        LendingSystem restored = LendingSystem.open(journalFile, snapshotFile, archiveFile);
+        assertTrue(restored.getContracts().isEmpty());
+        assertEquals(2, restored.getArchivedContractCount());
+        assertEquals(2, restored.getContractHistory(null, null, today, today).size());
+        assertFalse(restored.isItemAvailable(restored.findItem("Laptop"), today, today.plusDays(5)));
+        assertFalse(restored.isItemAvailable(restored.findItem("Canoe"), today, today.plusDays(1)));
+        assertEquals(10, restored.getAggregates().revenueOf(restored.findItem("Canoe").getId()));
+        assertEquals(2, restored.getAggregates().totalsOf("Outdoor").getContracts() + restored.getAggregates()
+                .totalsOf("Electronic").getContracts());
+        assertEquals(LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE, restored.createLendingContract("Dora", "Laptop", today.plusDays(8),
+                today.plusDays(8)));
+        assertEquals(3, restored.getContracts().get(0).getId());
+        assertTrue(restored.verifyCreditLedger().isConsistent());
+        restored.close();
+
+        Files.delete(snapshotFile);
+        LendingSystem replayed = LendingSystem.open(journalFile, null, archiveFile);
+        assertEquals(2, replayed.getArchivedContractCount());
+        assertEquals(1, replayed.getContracts().size());
+        assertFalse(replayed.isItemAvailable(replayed.findItem("Canoe"), today, today.plusDays(1)));
+        replayed.close();
+    }
+
+    @Test
+    void testRejectedAdvanceIsNotJournaled(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        LendingSystem journaled = LendingSystem.open(journalFile);
+        journaled.advanceDays(5);
+        assertThrows(IllegalArgumentException.class, () -> journaled.advanceDays(Integer.MAX_VALUE));
+        assertEquals(5, journaled.getCurrentDay());
+        journaled.addMember("Dora", "dora@example.com", "42");
+
+        LendingSystem restored = LendingSystem.open(journalFile);
+        assertEquals(5, restored.getCurrentDay());
+        assertNotNull(restored.findMember("Dora"));
+        restored.close();
+    }
+
+    @Test
+    void testTextsTooLongToJournalAreRejectedBeforeAnyChange(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        String tooLong = "x".repeat(70000);
+        LendingSystem journaled = LendingSystem.open(journalFile);
+        assertThrows(IllegalArgumentException.class, () -> journaled.addMember(tooLong, "long@example.com", "1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> journaled.addItem("John Doe", "Kayak", tooLong, "Outdoor", 10));
+        journaled.addMember("Dora", "dora@example.com", "42");
+        assertEquals(4, journaled.getMembers().size());
+        assertEquals(6, journaled.getItems().size());
+        assertNull(journaled.findItem("Kayak"));
+
+        LendingSystem restored = LendingSystem.open(journalFile);
+        assertEquals(4, restored.getMembers().size());
+        assertEquals(6, restored.getItems().size());
+        assertEquals(journaled.findMember("John Doe").getCredits(), restored.findMember("John Doe").getCredits());
+        restored.close();
+    }
+
+    @Test
+    void testArchivedSnapshotContractsAreCountedOnceAfterRestart(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        Path snapshotFile = tempDir.resolve("lending.snapshot");
+        Path archiveFile = tempDir.resolve("lending.archive");
+        LocalDate today = LocalDate.now();
+        LendingSystem journaled = LendingSystem.open(journalFile, snapshotFile, archiveFile);
+        journaled.createLendingContract("John Doe", "Tent", today, today.plusDays(1));
+        journaled.takeSnapshot().get();
+        journaled.advanceDays(7);
+        assertEquals(2, journaled.getArchivedContractCount());
+        // Not closed: both contracts are in the snapshot and in the archive.
+
+        LendingSystem restored = LendingSystem.open(journalFile, snapshotFile, archiveFile);
+        Aggregates aggregates = restored.getAggregates();
+        long tent = restored.findItem("Tent").getId();
+        long laptop = restored.findItem("Laptop").getId();
+        long john = restored.findMember("John Doe").getId();
+        long jane = restored.findMember("Jane Smith").getId();
+        assertEquals(25, aggregates.revenueOf(tent));
+        assertEquals(250, aggregates.revenueOf(laptop));
+        assertEquals(25, aggregates.spendOf(john));
+        assertArrayEquals(new long[] {laptop, tent}, aggregates.topItems(5));
+        assertArrayEquals(new long[] {jane, john}, aggregates.topSpenders(5));
+        assertArrayEquals(new long[] {john, jane}, aggregates.topEarners(5));
+        assertEquals(1, aggregates.totalsOf("Outdoor").getContracts());
+        assertEquals(0, aggregates.totalsOf("Outdoor").getActiveContracts());
+        assertTrue(restored.isItemAvailable(restored.findItem("Tent"), today.plusDays(2), today.plusDays(2)));
+        restored.close();
+    }
+
+    @Test
+    void testCreateLendingContractsReportsEachRequest() {
+        LocalDate today = LocalDate.now();
+        lendingSystem.addMember("Dora", "dora@example.com", "42");
+        List<BookingResult> results = lendingSystem.createLendingContracts(List.of(
+                new BookingRequest("Dora", "Camera", today.plusDays(1), today.plusDays(3)),
+                new BookingRequest("Dora", "Camera", today.plusDays(2), today.plusDays(4)),
+                new BookingRequest("Nobody", "Camera", today.plusDays(8), today.plusDays(9)),
+                new BookingRequest("Dora", "Ghost", today.plusDays(8), today.plusDays(9)),
+                new BookingRequest("Dora", "Guitar", today.plusDays(10), today.plusDays(20)),
+                new BookingRequest("Dora", "Tent", today.plusDays(5), today.plusDays(4))));
+
+        assertEquals(List.of(BookingResult.CREATED, BookingResult.NOT_AVAILABLE, BookingResult.UNKNOWN_BORROWER,
+                BookingResult.UNKNOWN_ITEM, BookingResult.INSUFFICIENT_CREDITS, BookingResult.NOT_AVAILABLE), results);
+        assertEquals(2, lendingSystem.getContracts().size()); // Including one from initializeData
+        assertEquals(40, lendingSystem.findMember("Dora").getCredits());
+        assertFalse(lendingSystem.isItemAvailable(lendingSystem.findItem("Camera"), today.plusDays(3),
+                today.plusDays(3)));
+        assertTrue(lendingSystem.verifyCreditLedger().isConsistent());
+        assertTrue(lendingSystem.reconcileCredits().isEmpty());
+    }
+
+    @Test
+    void testCreateLendingContractsMatchesSingleBookings() {
+        LendingSystem single = new LendingSystem();
+        for (LendingSystem system : List.of(lendingSystem, single)) {
+            for (int m = 0; m < 40; m++) {
+                system.addMember("Member " + m, "m" + m + "@example.com", "1");
+            }
+            for (int i = 0; i < 60; i++) {
+                system.addItem("Member " + (i % 40), "Thing " + i, "Thing", "Things", 1 + i % 7);
+            }
+        }
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now();
+        List<BookingRequest> requests = new ArrayList<>();
+        for (int r = 0; r < 2000; r++) {
+            LocalDate start = today.plusDays(random.nextInt(200));
+            requests.add(new BookingRequest("Member " + random.nextInt(41), "Thing " + random.nextInt(61), start,
+                    start.plusDays(random.nextInt(6))));
+        }
+
+        List<BookingResult> results = lendingSystem.createLendingContracts(requests);
+        for (int r = 0; r < requests.size(); r++) {
+            BookingRequest request = requests.get(r);
+            assertEquals(single.createLendingContract(request.getBorrowerName(), request.getItemName(),
+                    request.getStartDate(), request.getEndDate()), results.get(r).getMessage(), "request " + r);
+        }
+        assertEquals(single.getContracts().size(), lendingSystem.getContracts().size());
+        for (int m = 0; m < 40; m++) {
+            assertEquals(single.findMember("Member " + m).getCredits(),
+                    lendingSystem.findMember("Member " + m).getCredits());
+        }
+        assertTrue(lendingSystem.verifyCreditLedger().isConsistent());
+    }
+
+    @Test
+    void testBatchBookingsAreJournaled(@TempDir Path tempDir) throws Exception {
+        Path journalFile = tempDir.resolve("lending.journal");
+        LocalDate today = LocalDate.now();
+        LendingSystem journaled = LendingSystem.open(journalFile);
+        journaled.createLendingContracts(List.of(
+                new BookingRequest("John Doe", "Tent", today, today.plusDays(1)),
+                new BookingRequest("Alice Brown", "Tent", today, today.plusDays(1)),
+                new BookingRequest("Alice Brown", "Camera", today, today.plusDays(2))));
+        journaled.close();
+
+        LendingSystem restored = LendingSystem.open(journalFile);
+        assertEquals(3, restored.getContracts().size());
+        assertEquals(journaled.findMember("Alice Brown").getCredits(),
+                restored.findMember("Alice Brown").getCredits());
+        assertEquals(journaled.getContracts().get(2).getId(), restored.getContracts().get(2).getId());
+        restored.close();
+    }
+
+    @Test
+    void testLookupAndSuggestMembers() {
+        Member john = lendingSystem.findMember("John Doe");
+        assertSame(john, lendingSystem.lookupMember("John Doe"));
+        assertSame(john, lendingSystem.lookupMember("john doe"));
+        assertSame(john, lendingSystem.lookupMember("JOHN@example.com"));
+        assertNull(lendingSystem.lookupMember("Jhon Doe"));
+        assertSame(john, lendingSystem.suggestMembers("Jhon Doe", 3).get(0));
+
+        Member added = lendingSystem.addMember("Zo\u00eb Kowalski", "zoe.k@example.com", "1");
+        assertSame(added, lendingSystem.lookupMember("zoe kowalski"));
+        assertSame(added, lendingSystem.suggestMembers("Zoe Kowalsky", 3).get(0));
+    }
+
+    @Test
+    void testAggregatesMatchContractScan() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            lendingSystem.addMember("Member " + i, "m" + i + "@example.com", "1");
+            lendingSystem.addItem("Member " + i, "Thing " + i, "Thing", i % 2 == 0 ? "Even" : "Odd", 1 + i % 4);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 30; i++) {
+                LocalDate start = lendingSystem.getCurrentDate().plusDays(random.nextInt(5));
+                lendingSystem.createLendingContract("Member " + random.nextInt(20), "Thing " + random.nextInt(20),
+                        start, start.plusDays(random.nextInt(4)));
+            }
+            lendingSystem.advanceDays(random.nextInt(3) + 1);
+        }
+
+        Aggregates aggregates = lendingSystem.getAggregates();
+        Map<Long, Long> earnings = new HashMap<>();
+        Map<Long, Long> spend = new HashMap<>();
+        Map<Long, Long> revenue = new HashMap<>();
+        for (Contract contract : lendingSystem.getContracts()) {
+            earnings.merge(contract.getItem().getOwner().getId(), (long) contract.getCreditsTransferred(), Long::sum);
+            spend.merge(contract.getBorrower().getId(), (long) contract.getCreditsTransferred(), Long::sum);
+            revenue.merge(contract.getItem().getId(), (long) contract.getCreditsTransferred(), Long::sum);
+        }
+        for (Member member : lendingSystem.getMembers()) {
+            assertEquals(earnings.getOrDefault(member.getId(), 0L), aggregates.earningsOf(member.getId()));
+            assertEquals(spend.getOrDefault(member.getId(), 0L), aggregates.spendOf(member.getId()));
+        }
+        for (Item item : lendingSystem.getItems()) {
+            assertEquals(revenue.getOrDefault(item.getId(), 0L), aggregates.revenueOf(item.getId()));
+        }
+        for (String category : List.of("Even", "Odd")) {
+            long active = lendingSystem.getContracts().stream()
+                    .filter(contract -> contract.getItem().getCategory().equals(category))
+                    .filter(contract -> contract.getStatus() == ContractStatus.ACTIVE)
+                    .count();
+            assertEquals(active, aggregates.totalsOf(category).getActiveContracts());
+        }
+    }
+
+    @Test
+    void testListingsAreStableSnapshotsDuringWrites() throws Exception {
+        List<Member> membersBefore = lendingSystem.getMembers();
+        List<Contract> contractsBefore = lendingSystem.getContracts();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writes = writer.submit(() -> {
+                LocalDate today = LocalDate.now();
+                for (int i = 0; i < 3000; i++) {
+                    lendingSystem.addMember("Writer " + i, "w" + i + "@example.com", "1");
+                    lendingSystem.addItem("Writer " + i, "Gadget " + i, "Gadget", "Gadgets", 1);
+                    lendingSystem.createLendingContract("Writer " + i, "Gadget " + i, today, today.plusDays(1));
+                }
+            });
+            while (!writes.isDone()) {
+                for (List<?> listing : List.of(lendingSystem.getMembers(), lendingSystem.getItems(),
+                        lendingSystem.getContracts())) {
+                    int size = listing.size();
+                    int seen = 0;
+                    for (Object entry : listing) {
+                        assertNotNull(entry);
+                        seen++;
+                    }
+                    assertEquals(size, seen);
+                    assertEquals(size, listing.size());
+                }
+            }
+            writes.get();
+        } finally {
+            writer.shutdown();
+        }
+        assertEquals(3, membersBefore.size());
+        assertEquals(1, contractsBefore.size());
+        assertEquals(3003, lendingSystem.getMembers().size());
+        assertEquals(3001, lendingSystem.getContracts().size());
+        assertThrows(UnsupportedOperationException.class, () -> lendingSystem.getMembers().remove(0));
+    }
 }
@@ -0,0 +1,93 @@
+package controller;
+
+import model.Member;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberIndexTest {
+
+    private static MemberIndex indexOf(Member... members) {
+        MemberIndex index = new MemberIndex();
+        for (Member member : members) {
+            index.add(member);
+        }
+        return index;
+    }
+
+    private static List<String> names(List<Member> members) {
+        return members.stream().map(Member::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("jose garcia", MemberIndex.normalize("  Jos\u00e9  GARC\u00cdA "));
+        assertEquals("jane smith example com", MemberIndex.normalize("Jane.Smith@Example.com"));
+        assertEquals("", MemberIndex.normalize(null));
+        assertEquals("", MemberIndex.normalize("--"));
+    }
+
+    @Test
+    void testFindIgnoresCaseAccentsAndPunctuation() {
+        Member jose = new Member(1, "Jos\u00e9 Garc\u00eda", "jose@example.com", "1");
+        Member jane = new Member(2, "Jane Smith", "jane.smith@example.com", "2");
+        Member otherJane = new Member(3, "jane smith", "other@example.com", "3");
+        MemberIndex index = indexOf(jose, jane, otherJane);
+
+        assertSame(jose, index.find("jose garcia"));
+        assertSame(jose, index.find("JOSE@EXAMPLE.COM"));
+        assertSame(jane, index.find("Jane  Smith"));
+        assertSame(jane, index.find("jane.smith@example.com"));
+        assertSame(otherJane, index.find("Other@example.com"));
+        assertNull(index.find("Jane"));
+        assertNull(index.find(""));
+        assertNull(index.find(null));
+    }
+
+    @Test
+    void testSuggestionsAreRankedBySimilarity() {
+        MemberIndex index = indexOf(
+                new Member(1, "John Doe", "john@example.com", "1"),
+                new Member(2, "Joan Dow", "joan@example.com", "2"),
+                new Member(3, "Jane Smith", "jane.smith@example.com", "3"),
+                new Member(4, "Johnny Doerr", "jd@example.com", "4"),
+                new Member(5, "Alice Brown", "alice.brown@example.com", "5"));
+
+        assertEquals(List.of("John Doe"), names(index.suggest("Jhon Doe", 5)));
+        assertEquals(List.of("Johnny Doerr", "John Doe"), names(index.suggest("johnny doer", 2)));
+        assertEquals("Jane Smith", names(index.suggest("jane smit", 5)).get(0));
+        assertEquals("Alice Brown", names(index.suggest("alice.brwn", 5)).get(0));
+        assertEquals(List.of(), index.suggest("Zebediah", 5));
+        assertEquals(List.of(), index.suggest("John Doe", 0));
+        assertEquals(List.of(), index.suggest("", 5));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("John", -1));
+    }
+
+    @Test
+    void testMemberMatchingByNameAndEmailIsSuggestedOnce() {
+        MemberIndex index = indexOf(
+                new Member(1, "Maria Lopez", "maria.lopez@example.com", "1"),
+                new Member(2, "Mario Lopes", "mlopes@example.com", "2"));
+
+        assertEquals(List.of("Maria Lopez", "Mario Lopes"), names(index.suggest("maria lopez", 5)));
+    }
+
+    @Test
+    void testTypoIsFoundAmongManyMembers() {
+        List<Member> members = new ArrayList<>();
+        MemberIndex index = new MemberIndex();
+        for (int i = 1; i <= 200_000; i++) {
+            Member member = new Member(i, "Member " + i, "member" + i + "@example.com", "1");
+            members.add(member);
+            index.add(member);
+        }
+
+        assertSame(members.get(123_455), index.suggest("Membr 123456", 3).get(0));
+        assertSame(members.get(99), index.suggest("mmeber 100", 3).get(0));
+        assertSame(members.get(4_999), index.find("MEMBER 5000"));
+    }
+}
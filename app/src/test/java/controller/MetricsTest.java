@@ -0,0 +1,74 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void testNothingIsRecordedWhileDisabled() {
+        LendingSystem lendingSystem = new LendingSystem();
+        Metrics metrics = lendingSystem.getMetrics();
+        lendingSystem.addMember("Eva Green", "eva@example.com", "111");
+        lendingSystem.findMember("Eva Green");
+
+        assertFalse(metrics.isEnabled());
+        assertEquals(0, metrics.count("add_member"));
+        assertEquals(0, metrics.count("find_member"));
+    }
+
+    @Test
+    void testBookingOutcomesAndLatencies() {
+        LendingSystem lendingSystem = new LendingSystem();
+        Metrics metrics = lendingSystem.getMetrics();
+        metrics.setEnabled(true);
+        LocalDate start = LocalDate.of(2030, 1, 1);
+
+        lendingSystem.addMember("Eva Green", "eva@example.com", "111");
+        lendingSystem.addItem("Eva Green", "Sled", "Wooden", "Winter", 5);
+        lendingSystem.createLendingContract("John Doe", "Sled", start, start.plusDays(1));
+        lendingSystem.createLendingContract("Alice Brown", "Sled", start, start);
+        lendingSystem.createLendingContract("Eva Green", "Laptop", start, start.plusDays(30));
+
+        assertEquals(1, metrics.getBookingsAccepted());
+        assertEquals(1, metrics.getBookingsRejectedForAvailability());
+        assertEquals(1, metrics.getBookingsRejectedForCredits());
+        assertEquals(1, metrics.count("add_member"));
+        assertEquals(1, metrics.count("ADD_ITEM"));
+        assertEquals(3, metrics.count("create_contract"));
+        assertTrue(metrics.count("find_member") >= 4);
+        assertTrue(metrics.count("is_item_available") >= 3);
+        assertTrue(metrics.percentileMicros("create_contract", 0.99) > 0);
+        assertEquals(8, metrics.getLatencySummary().length);
+        assertThrows(IllegalArgumentException.class, () -> metrics.count("unknown"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getBookingsAccepted());
+        assertEquals(0, metrics.count("create_contract"));
+    }
+
+    @Test
+    void testExposedOverJmx() throws Exception {
+        Metrics metrics = new Metrics();
+        String name = "stufflending.test:type=Metrics,name=testExposedOverJmx";
+        metrics.register(name);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(name);
+        try {
+            assertEquals(false, server.getAttribute(objectName, "Enabled"));
+            server.setAttribute(objectName, new javax.management.Attribute("Enabled", true));
+            assertTrue(metrics.isEnabled());
+            assertEquals(0L, server.getAttribute(objectName, "BookingsAccepted"));
+            assertEquals(0L, server.invoke(objectName, "count", new Object[] {"find_item"},
+                    new String[] {String.class.getName()}));
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+}
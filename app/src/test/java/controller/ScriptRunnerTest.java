@@ -0,0 +1,110 @@
+package controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LendingSystem lendingSystem;
+    private ScriptRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        lendingSystem = new LendingSystem();
+        runner = new ScriptRunner(lendingSystem);
+    }
+
+    @Test
+    void testRunScriptFile() throws IOException {
+        Path script = tempDir.resolve("script.txt");
+        Files.write(script, List.of(
+                "# set up",
+                "add-member,Eva Green,eva@example.com,111",
+                "add-member,\"Smith, Adam\",adam@example.com,222",
+                "",
+                "add-item,Eva Green,Sled,A fast sled,Winter,5",
+                "add-item,Nobody,Ghost,Owner does not exist,Misc,5",
+                "book,\"Smith, Adam\",Sled,2030-01-01,2030-01-03",
+                "book,\"Smith, Adam\",Sled,2030-01-02,2030-01-02",
+                "advance,3",
+                "advance"));
+        StringWriter output = new StringWriter();
+
+        ScriptReport report = runner.run(script, output);
+
+        assertEquals(8, report.getCommands());
+        assertEquals(6, report.getCommandsSucceeded());
+        assertEquals(2, report.getCommandsFailed());
+        assertNotNull(lendingSystem.findMember("Smith, Adam"));
+        assertNotNull(lendingSystem.findItem("Sled"));
+        assertNull(lendingSystem.findItem("Ghost"));
+        assertEquals(4, lendingSystem.getCurrentDay());
+
+        String[] lines = output.toString().split(System.lineSeparator());
+        assertEquals(8, lines.length);
+        assertEquals("2: Member added: Eva Green", lines[0]);
+        assertEquals("7: " + LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE, lines[4]);
+        assertEquals("8: " + LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE, lines[5]);
+        assertTrue(lines[7].startsWith("10: Current day: 4"));
+    }
+
+    @Test
+    void testMalformedLinesAreReportedAndSkipped() throws IOException {
+        String script = String.join("\n",
+                "rent,John Doe,Laptop",
+                "add-item,John Doe,Drone,Camera drone,Electronic,cheap",
+                "book,John Doe,Tent,tomorrow,2030-01-02",
+                "add-member,Only Name",
+                "advance,0",
+                "add-member,Eva Green,eva@example.com,111");
+        StringWriter output = new StringWriter();
+
+        ScriptReport report = runner.run(new BufferedReader(new StringReader(script)), output);
+
+        assertEquals(6, report.getCommands());
+        assertEquals(1, report.getCommandsSucceeded());
+        assertNull(lendingSystem.findItem("Drone"));
+        assertNotNull(lendingSystem.findMember("Eva Green"));
+        assertTrue(output.toString().startsWith("1: error: Unknown command 'rent'"));
+        assertTrue(output.toString().contains("5: error: Days must be positive"));
+    }
+
+    @Test
+    void testLargeScriptRunsInOrder() throws IOException {
+        StringBuilder script = new StringBuilder();
+        int members = 10_000;
+        for (int i = 0; i < members; i++) {
+            script.append("add-member,Member ").append(i).append(",m").append(i)
+                    .append("@example.com,0\n");
+            script.append("add-item,Member ").append(i).append(",Item ").append(i)
+                    .append(",Thing,Misc,1\n");
+        }
+        for (int i = 1; i < members; i++) {
+            script.append("book,Member ").append(i).append(",Item ").append(i - 1)
+                    .append(",2030-01-01,2030-01-01\n");
+        }
+        StringWriter output = new StringWriter();
+
+        ScriptReport report = runner.run(
+                new BufferedReader(new StringReader(script.toString())), output);
+
+        assertEquals(3L * members - 1, report.getCommands());
+        assertEquals(report.getCommands(), report.getCommandsSucceeded());
+        assertTrue(report.getOpsPerSecond() > 0);
+        assertEquals(3 + members, lendingSystem.getMembers().size());
+    }
+}
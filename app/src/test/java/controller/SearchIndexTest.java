@@ -0,0 +1,67 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private static SearchIndex<String> sampleIndex() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.add("laptop", "Laptop", "Gaming laptop with a fast GPU");
+        index.add("camera", "Camera", "DSLR camera, great for gaming streams");
+        index.add("tent", "Tent", "Camping tent for four");
+        index.add("bike", "Mountain Bike", "Fast bike");
+        return index;
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("dslr", "camera", "4k", "x2"), SearchIndex.tokenize("DSLR-Camera, 4K (x2)"));
+        assertTrue(SearchIndex.tokenize("  ,. ").isEmpty());
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testSingleTermRanksNameAboveDescription() {
+        SearchIndex<String> index = sampleIndex();
+        assertEquals(List.of("camera"), index.search("camera", 10));
+        assertEquals(List.of("laptop", "camera"), index.search("gaming", 10));
+        assertEquals(List.of("laptop", "bike"), index.search("fast", 10)); // tie, insertion order
+    }
+
+    @Test
+    void testMultiTermRequiresEveryTerm() {
+        SearchIndex<String> index = sampleIndex();
+        assertEquals(List.of("laptop"), index.search("GAMING gpu", 10));
+        assertTrue(index.search("gaming tent", 10).isEmpty());
+        assertTrue(index.search("spaceship", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    void testPrefixMatchesRankBelowWholeWords() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.add("campfire", "Campfire kit", "");
+        index.add("camp", "Camp chair", "");
+        index.add("camping", "Camping stove", "");
+
+        assertEquals(List.of("camp", "campfire", "camping"), index.search("camp", 10));
+        assertEquals(List.of("camp", "campfire"), index.search("camp", 2));
+        assertEquals(List.of("campfire"), index.search("campf", 10));
+    }
+
+    @Test
+    void testIncrementalAdds() {
+        SearchIndex<String> index = new SearchIndex<>();
+        for (int i = 0; i < 1000; i++) {
+            index.add("item " + i, "Item " + i, "Benchmark item");
+        }
+        assertEquals(List.of("item 999"), index.search("item 999", 10));
+        index.add("extra", "Item 999 spare", "");
+        assertEquals(List.of("item 999", "extra"), index.search("item 999", 10));
+        assertEquals(1001, index.size());
+    }
+}
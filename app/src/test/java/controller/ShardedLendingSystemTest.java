@@ -0,0 +1,127 @@
+package controller;
+
+import model.Item;
+import model.Member;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Local multi-shard harness: runs several shards in one process and checks bookings within and
+ * across shards.
+ */
+class ShardedLendingSystemTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    private static ShardedLendingSystem populated(int shards, int members) {
+        ShardedLendingSystem system = new ShardedLendingSystem(shards);
+        for (int i = 0; i < members; i++) {
+            system.addMember("Member " + i, "member" + i + "@example.com", "0700" + i);
+            system.addItem("Member " + i, "Item " + i, "Shard test item", "Category " + (i % 5), 2);
+        }
+        return system;
+    }
+
+    @Test
+    void testMembersArePlacedByGlobalId() {
+        ShardedLendingSystem system = new ShardedLendingSystem(3);
+        long first = system.addMember("Ann", "ann@example.com", "1");
+        long second = system.addMember("Bob", "bob@example.com", "2");
+        long fourth = system.addMember("Cid", "cid@example.com", "3") + 1;
+        system.addMember("Dan", "dan@example.com", "4");
+
+        assertEquals(0, system.shardOf(first));
+        assertEquals(1, system.shardOf(second));
+        assertEquals(0, system.shardOf(fourth));
+        assertSame(system.findMember("Dan"), system.findMemberById(fourth));
+        assertSame(system.findMember("Bob"), system.getShard(1).findMember("Bob"));
+        assertEquals(4, system.getMemberCount());
+        assertNull(system.findMemberById(99));
+    }
+
+    @Test
+    void testCrossShardBookingTransfersCredits() {
+        ShardedLendingSystem system = populated(2, 2); // Member 0 on shard 0, Member 1 on shard 1
+        Member borrower = system.findMember("Member 0");
+        Member owner = system.findMember("Member 1");
+        int borrowerCredits = borrower.getCredits();
+        int ownerCredits = owner.getCredits();
+
+        assertEquals(LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE,
+                system.createLendingContract("Member 0", "Item 1", FIRST_DAY, FIRST_DAY.plusDays(5)));
+        assertEquals(LendingSystem.ITEM_NOT_AVAILABLE_MESSAGE,
+                system.createLendingContract("Member 0", "Item 1", FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(3)));
+        assertEquals(LendingSystem.INSUFFICIENT_CREDITS_MESSAGE,
+                system.createLendingContract("Member 0", "Item 1", FIRST_DAY.plusDays(10), FIRST_DAY.plusDays(1000)));
+
+        assertEquals(borrowerCredits - 10, borrower.getCredits());
+        assertEquals(ownerCredits + 10, owner.getCredits());
+        assertEquals(1, system.getShard(1).getContracts().size());
+        assertEquals(0, system.getShard(0).getContracts().size());
+        assertFalse(system.findItem("Item 1").isAvailable(FIRST_DAY, FIRST_DAY));
+        assertTrue(system.verifyCredits());
+    }
+
+    @Test
+    void testConcurrentBookingsAcrossShardsConserveCredits() throws Exception {
+        int members = 400;
+        ShardedLendingSystem system = populated(4, members);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int booked = 0;
+                for (int i = 0; i < 2000; i++) {
+                    LocalDate start = FIRST_DAY.plusDays(random.nextInt(200));
+                    String message = system.createLendingContract("Member " + random.nextInt(members),
+                            "Item " + random.nextInt(members), start, start.plusDays(random.nextInt(4)));
+                    if (LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE.equals(message)) {
+                        booked++;
+                    }
+                }
+                return booked;
+            }));
+        }
+        int booked = 0;
+        for (Future<Integer> result : results) {
+            booked += result.get();
+        }
+        executor.shutdown();
+
+        assertEquals(booked, system.getContractCount());
+        assertTrue(system.verifyCredits());
+        for (int i = 0; i < members; i++) {
+            Item item = system.findItem("Item " + i);
+            long bookedDays = 0;
+            for (var contract : item.getContracts()) {
+                bookedDays += contract.getEndDate().toEpochDay() - contract.getStartDate().toEpochDay() + 1;
+            }
+            long distinctDays = item.getContracts().stream()
+                    .flatMap(c -> c.getStartDate().datesUntil(c.getEndDate().plusDays(1)))
+                    .distinct().count();
+            assertEquals(distinctDays, bookedDays, "Item " + i + " is double booked");
+        }
+    }
+
+    @Test
+    void testAdvanceDaysReachesEveryShard() {
+        ShardedLendingSystem system = populated(3, 3);
+        system.createLendingContract("Member 0", "Item 1", LocalDate.now().plusDays(1), LocalDate.now().plusDays(1));
+        system.createLendingContract("Member 2", "Item 2", LocalDate.now().plusDays(1), LocalDate.now().plusDays(1));
+
+        assertEquals(4, system.advanceDays(3));
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals(3, system.getShard(shard).getCurrentDay());
+        }
+    }
+}
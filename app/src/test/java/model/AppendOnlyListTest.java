@@ -0,0 +1,64 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyListTest {
+
+    private static AppendOnlyList<Integer> listOf(int count) {
+        AppendOnlyList<Integer> list = new AppendOnlyList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    void testViewFollowsChangesAndSnapshotDoesNot() {
+        AppendOnlyList<Integer> list = listOf(3);
+        List<Integer> view = list.view();
+        List<Integer> snapshot = list.snapshot();
+        list.add(3);
+        assertEquals(2, list.removeIf(i -> i % 2 == 0));
+
+        assertEquals(List.of(1, 3), view);
+        assertEquals(List.of(0, 1, 2), snapshot);
+        assertThrows(UnsupportedOperationException.class, () -> view.add(4));
+    }
+
+    @Test
+    void testIteratingTheViewIgnoresRemovalsMeanwhile() {
+        AppendOnlyList<Integer> list = listOf(10);
+        List<Integer> seen = new ArrayList<>();
+        for (Integer element : list.view()) {
+            if (element == 2) {
+                list.removeIf(i -> i < 8);
+            }
+            seen.add(element);
+        }
+        assertEquals(listOf(10).snapshot(), seen);
+
+        Iterator<Integer> iterator = list.view().iterator();
+        list.removeIf(i -> true);
+        assertTrue(iterator.hasNext());
+        assertEquals(8, iterator.next());
+        assertEquals(9, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testStreamingTheViewIgnoresRemovalsMeanwhile() {
+        AppendOnlyList<Integer> list = listOf(10);
+        List<Integer> seen = list.view().stream()
+                .peek(element -> list.removeIf(i -> i > element))
+                .collect(Collectors.toList());
+        assertEquals(listOf(10).snapshot(), seen);
+        assertEquals(List.of(0), list.view());
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalIndexTest {
+
+    private IntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IntervalIndex();
+    }
+
+    @Test
+    void testEmptyIndexHasNoOverlap() {
+        assertFalse(index.overlaps(0, 100));
+    }
+
+    @Test
+    void testOverlapIsInclusiveOnBothEnds() {
+        index.add(10, 15);
+        assertTrue(index.overlaps(15, 20));
+        assertTrue(index.overlaps(5, 10));
+        assertTrue(index.overlaps(12, 12));
+        assertFalse(index.overlaps(16, 20));
+        assertFalse(index.overlaps(1, 9));
+    }
+
+    @Test
+    void testQueryBetweenSegments() {
+        index.add(1, 3);
+        index.add(20, 25);
+        index.add(10, 12);
+        assertEquals(3, index.segmentCount());
+        assertFalse(index.overlaps(4, 9));
+        assertFalse(index.overlaps(13, 19));
+        assertTrue(index.overlaps(4, 10));
+    }
+
+    @Test
+    void testTouchingAndOverlappingSegmentsAreMerged() {
+        index.add(1, 3);
+        index.add(10, 12);
+        index.add(20, 25);
+        index.add(4, 19);
+        assertEquals(1, index.segmentCount());
+        assertTrue(index.overlaps(15, 15));
+        assertFalse(index.overlaps(26, 30));
+    }
+
+    @Test
+    void testManyOutOfOrderSegments() {
+        for (int i = 99; i >= 0; i--) {
+            index.add(i * 10L, i * 10L + 4);
+        }
+        assertEquals(100, index.segmentCount());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(index.overlaps(i * 10L + 4, i * 10L + 4));
+            assertFalse(index.overlaps(i * 10L + 5, i * 10L + 9));
+        }
+    }
+
+    @Test
+    void testReversedIntervalIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.add(5, 4));
+    }
+}
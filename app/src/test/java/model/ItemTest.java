@@ -1,5 +1,6 @@
 package model;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -87,15 +88,34 @@ class ItemTest {
     }
 
     @Test
-    void testGetContracts_ReturnsCopy() {
+    void testGetContracts_ReturnsReadOnlyView() {
         Contract contract1 = new Contract(owner, item, LocalDate.now(), LocalDate.now().plusDays(5));
         item.addContract(contract1);
 
-        // Get contracts and try to modify the returned list
+        // The returned list is a view and cannot be used to modify the item
         List<Contract> contracts = item.getContracts();
-        contracts.clear(); // This should not affect the original list in the item
-
+        assertThrows(UnsupportedOperationException.class, contracts::clear);
         assertEquals(1, item.getContracts().size()); // Original list should remain unchanged
+        assertSame(contracts, item.getContracts()); // No new list per call
+
+        List<Contract> snapshot = item.getContractsSnapshot();
+        Contract contract2 = new Contract(owner, item, LocalDate.now().plusDays(6), LocalDate.now().plusDays(7));
+        item.addContract(contract2);
+        assertEquals(List.of(contract1), snapshot); // Snapshot stays as it was
+        assertEquals(List.of(contract1, contract2), contracts); // View follows the item
+
+        List<Contract> visited = new ArrayList<>();
+        item.forEachContract(visited::add);
+        assertEquals(List.of(contract1, contract2), visited);
+    }
+
+    @Test
+    void testIsAvailable() {
+        LocalDate start = LocalDate.now();
+        item.addContract(new Contract(owner, item, start, start.plusDays(5)));
+        assertFalse(item.isAvailable(start.plusDays(5), start.plusDays(7)));
+        assertTrue(item.isAvailable(start.plusDays(6), start.plusDays(7)));
+        assertFalse(item.isAvailable(start.plusDays(7), start.plusDays(6)));
     }
 
     @Test
@@ -91,8 +91,12 @@ class MemberTest {
 
         // Attempt to modify the returned owned items list
         List<Item> ownedItems = member.getOwnedItems();
-        ownedItems.clear(); // This should not affect the member's owned items
+        assertThrows(UnsupportedOperationException.class, ownedItems::clear);
 
         assertEquals(1, member.getOwnedItems().size(), "Owned items list should be immutable");
+        List<Item> snapshot = member.getOwnedItemsSnapshot();
+        member.addItem(new Item("Mouse", "Wireless", "Electronics", member, 5));
+        assertEquals(1, snapshot.size());
+        assertEquals(2, ownedItems.size());
     }
 }
\ No newline at end of file
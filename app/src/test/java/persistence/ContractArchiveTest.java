@@ -0,0 +1,110 @@
+package persistence;
+
+import model.Contract;
+import model.Item;
+import model.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Member owner = new Member(1, "Owner", "owner@example.com", "1");
+    private final Member borrower = new Member(2, "Borrower", "borrower@example.com", "2");
+    private final Item kayak = new Item(7, "Kayak", "Two seats", "Outdoor", owner, 10);
+
+    private Contract contract(long id, String start, String end) {
+        return new Contract(id, borrower, kayak, LocalDate.parse(start), LocalDate.parse(end));
+    }
+
+    private static List<String> collect(ContractArchive archive, String from, String to) throws IOException {
+        List<String> records = new ArrayList<>();
+        archive.forEach(LocalDate.parse(from).toEpochDay(), LocalDate.parse(to).toEpochDay(),
+                (id, borrowerId, itemId, startDay, endDay) -> records.add(
+                        id + " " + borrowerId + " " + itemId + " " + LocalDate.ofEpochDay(startDay) + " "
+                                + LocalDate.ofEpochDay(endDay)));
+        return records;
+    }
+
+    @Test
+    void testArchivedContractsAreQueriedByPeriod() throws IOException {
+        Path file = tempDir.resolve("contracts.archive");
+        try (ContractArchive archive = ContractArchive.open(file, null)) {
+            assertEquals(2, archive.append(List.of(contract(3, "2024-01-10", "2024-01-12"),
+                    contract(1, "2024-01-01", "2024-01-02"))));
+            assertEquals(1, archive.append(List.of(contract(5, "2024-03-01", "2024-03-31"))));
+
+            assertEquals(3, archive.size());
+            assertTrue(archive.contains(3));
+            assertFalse(archive.contains(2));
+            assertEquals(List.of("1 2 7 2024-01-01 2024-01-02", "3 2 7 2024-01-10 2024-01-12"),
+                    collect(archive, "2024-01-01", "2024-02-01"));
+            assertEquals(List.of("3 2 7 2024-01-10 2024-01-12", "5 2 7 2024-03-01 2024-03-31"),
+                    collect(archive, "2024-01-12", "2024-03-01"));
+            assertEquals(List.of(), collect(archive, "2024-02-01", "2024-02-28"));
+        }
+    }
+
+    @Test
+    void testContractsAreArchivedOnlyOnce() throws IOException {
+        Path file = tempDir.resolve("contracts.archive");
+        try (ContractArchive archive = ContractArchive.open(file, null)) {
+            Contract first = contract(1, "2024-01-01", "2024-01-02");
+            assertEquals(1, archive.append(List.of(first, first)));
+            assertEquals(0, archive.append(List.of(first)));
+        }
+        long length = Files.size(file);
+
+        List<Long> loaded = new ArrayList<>();
+        try (ContractArchive archive = ContractArchive.open(file,
+                (id, borrowerId, itemId, startDay, endDay) -> loaded.add(id))) {
+            assertEquals(1, archive.append(List.of(contract(1, "2024-01-01", "2024-01-02"),
+                    contract(2, "2024-01-05", "2024-01-06"))));
+            assertEquals(2, archive.size());
+        }
+        assertEquals(List.of(1L), loaded);
+        assertTrue(Files.size(file) > length);
+    }
+
+    @Test
+    void testTornFrameIsCutOffOnReopen() throws IOException {
+        Path file = tempDir.resolve("torn.archive");
+        try (ContractArchive archive = ContractArchive.open(file, null)) {
+            archive.append(List.of(contract(1, "2024-01-01", "2024-01-02")));
+            archive.append(List.of(contract(2, "2024-01-05", "2024-01-06")));
+        }
+        long fullLength = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(fullLength - 3);
+        }
+
+        List<Long> loaded = new ArrayList<>();
+        try (ContractArchive archive = ContractArchive.open(file,
+                (id, borrowerId, itemId, startDay, endDay) -> loaded.add(id))) {
+            assertEquals(List.of(1L), loaded);
+            assertFalse(archive.contains(2));
+            assertEquals(1, archive.append(List.of(contract(2, "2024-01-05", "2024-01-06"))));
+        }
+        assertEquals(fullLength, Files.size(file));
+    }
+
+    @Test
+    void testOtherFilesAreRejected() throws IOException {
+        Path file = tempDir.resolve("not.archive");
+        Files.writeString(file, "not an archive");
+        assertThrows(IOException.class, () -> ContractArchive.open(file, null));
+    }
+}
@@ -0,0 +1,300 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Collects replayed records as strings.
+     */
+    static class Recorder implements JournalListener {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void onAddMember(String name, String email, String phoneNumber) {
+            records.add("member " + name + " " + email + " " + phoneNumber);
+        }
+
+        @Override
+        public void onAddItem(String memberName, String itemName, String description, String category,
+                int costPerDay) {
+            records.add("item " + memberName + " " + itemName + " " + description + " " + category + " " + costPerDay);
+        }
+
+        @Override
+        public void onCreateContract(String borrowerName, String itemName, LocalDate startDate,
+                LocalDate endDate) {
+            records.add("contract " + borrowerName + " " + itemName + " " + startDate + " " + endDate);
+        }
+
+        @Override
+        public void onAdvanceTime() {
+            records.add("advance");
+        }
+
+        @Override
+        public void onAdvanceDays(int days) {
+            records.add("advance " + days);
+        }
+
+        @Override
+        public void onStartDate(LocalDate startDate) {
+            records.add("start " + startDate);
+        }
+    }
+
+    @Test
+    void testRecordsAreReplayedInOrder() throws IOException {
+        Path file = tempDir.resolve("lending.journal");
+        try (Journal journal = Journal.open(file, 0, 0)) {
+            journal.appendStartDate(LocalDate.of(2024, 4, 30));
+            journal.appendAddMember("Ann", "ann@example.com", "1");
+            journal.appendAddItem("Ann", "Kayak", "Two seats", "Outdoor", 12);
+            journal.appendCreateContract("Ann", "Kayak", LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 3));
+            journal.appendAdvanceTime();
+            long last = journal.appendAdvanceDays(30);
+            journal.sync(last);
+            assertEquals(6, last);
+        }
+
+        Recorder recorder = new Recorder();
+        JournalReader reader = new JournalReader(file);
+        assertEquals(6, reader.replay(recorder));
+        assertEquals(List.of(
+                "start 2024-04-30",
+                "member Ann ann@example.com 1",
+                "item Ann Kayak Two seats Outdoor 12",
+                "contract Ann Kayak 2024-05-01 2024-05-03",
+                "advance",
+                "advance 30"), recorder.records);
+        assertEquals(Files.size(file), reader.getValidLength());
+    }
+
+    @Test
+    void testFailedAppendLeavesNoPartialRecord() throws IOException {
+        Path file = tempDir.resolve("long.journal");
+        String tooLong = "x".repeat(Journal.MAX_TEXT_BYTES + 1);
+        try (Journal journal = Journal.open(file, 0, 0)) {
+            assertThrows(IllegalStateException.class, () -> journal.appendAddMember("Ann", tooLong, "1"));
+            assertEquals(1, journal.appendAddMember("Bob", "bob@example.com", "2"));
+        }
+
+        Recorder recorder = new Recorder();
+        assertEquals(1, new JournalReader(file).replay(recorder));
+        assertEquals(List.of("member Bob bob@example.com 2"), recorder.records);
+    }
+
+    @Test
+    void testTextsThatDoNotFitAreRejected() {
+        Journal.checkTexts("Ann", null, "x".repeat(Journal.MAX_TEXT_BYTES));
+        assertThrows(IllegalArgumentException.class,
+                () -> Journal.checkTexts("Ann", "x".repeat(Journal.MAX_TEXT_BYTES + 1)));
+        // Three bytes per char in the journal's encoding.
+        assertThrows(IllegalArgumentException.class,
+                () -> Journal.checkTexts("\u20ac".repeat(Journal.MAX_TEXT_BYTES / 3 + 1)));
+    }
+
+    @Test
+    void testMissingFileReplaysNothing() throws IOException {
+        JournalReader reader = new JournalReader(tempDir.resolve("missing.journal"));
+        assertEquals(0, reader.replay(new Recorder()));
+    }
+
+    @Test
+    void testTornTailIsIgnoredAndCutOffOnReopen() throws IOException {
+        Path file = tempDir.resolve("torn.journal");
+        try (Journal journal = Journal.open(file, 0, 0)) {
+            journal.appendAddMember("Ann", "ann@example.com", "1");
+            journal.appendAddMember("Bob", "bob@example.com", "2");
+        }
+        long fullLength = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(fullLength - 3);
+        }
+
+        JournalReader reader = new JournalReader(file);
+        Recorder recorder = new Recorder();
+        assertEquals(1, reader.replay(recorder));
+        assertEquals(List.of("member Ann ann@example.com 1"), recorder.records);
+
+        try (Journal journal = Journal.open(file, reader.getValidLength(), reader.getRecordCount())) {
+            assertEquals(2, journal.appendAdvanceTime());
+        }
+        Recorder afterReopen = new Recorder();
+        assertEquals(2, new JournalReader(file).replay(afterReopen));
+        assertEquals(List.of("member Ann ann@example.com 1", "advance"), afterReopen.records);
+    }
+
+    @Test
+    void testFailedSyncIsRetriedInOrder() throws IOException {
+        Path file = tempDir.resolve("failing.journal");
+        Journal.open(file, 0, 0).close();
+        FailingChannel channel = new FailingChannel(FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+        try (Journal journal = new Journal(channel, Files.size(file), 0)) {
+            journal.appendAddMember("Ann", "ann@example.com", "1");
+            long second = journal.appendAddMember("Bob", "bob@example.com", "2");
+            channel.failAfter = 10;
+            assertThrows(IOException.class, () -> journal.sync(second));
+            long third = journal.appendAdvanceTime();
+            journal.sync(third);
+        }
+
+        Recorder recorder = new Recorder();
+        assertEquals(3, new JournalReader(file).replay(recorder));
+        assertEquals(List.of("member Ann ann@example.com 1", "member Bob bob@example.com 2", "advance"),
+                recorder.records);
+    }
+
+    @Test
+    void testConcurrentAppendsShareSyncs() throws Exception {
+        Path file = tempDir.resolve("concurrent.journal");
+        try (Journal journal = Journal.open(file, 0, 0)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        long sequence = journal.appendAdvanceTime();
+                        try {
+                            journal.sync(sequence);
+                        } catch (IOException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        assertEquals(1000, new JournalReader(file).replay(new Recorder()));
+    }
+
+    /**
+     * A file channel that writes only the given number of bytes once, then fails that write.
+     */
+    static class FailingChannel extends FileChannel {
+        private final FileChannel file;
+        int failAfter = -1;
+
+        FailingChannel(FileChannel file) {
+            this.file = file;
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if (failAfter >= 0) {
+                ByteBuffer part = src.duplicate();
+                part.limit(part.position() + Math.min(failAfter, part.remaining()));
+                file.write(part, position);
+                failAfter = -1;
+                throw new IOException("Disk full");
+            }
+            return file.write(src, position);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return file.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return file.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return file.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return file.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return file.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            file.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            file.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return file.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return file.read(dst, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+    }
+}
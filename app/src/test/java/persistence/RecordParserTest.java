@@ -0,0 +1,39 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordParserTest {
+
+    @Test
+    void testCsvQuotedFields() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""),
+                RecordParser.parseCsvLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+
+    @Test
+    void testCsvUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> RecordParser.parseCsvLine("\"open,b"));
+    }
+
+    @Test
+    void testJsonObject() {
+        Map<String, String> values = RecordParser.parseJsonObject(
+                "{\"name\":\"Caf\\u00e9 \\\"Bar\\\"\", \"cost\": 12, \"ok\": true, \"none\": null}");
+        assertEquals("Caf\u00e9 \"Bar\"", values.get("name"));
+        assertEquals("12", values.get("cost"));
+        assertEquals("true", values.get("ok"));
+        assertTrue(values.containsKey("none"));
+        assertNull(values.get("none"));
+    }
+
+    @Test
+    void testJsonRejectsTrailingText() {
+        assertThrows(IllegalArgumentException.class, () -> RecordParser.parseJsonObject("{} x"));
+        assertThrows(IllegalArgumentException.class, () -> RecordParser.parseJsonObject("[1]"));
+    }
+}
@@ -0,0 +1,76 @@
+package persistence;
+
+import model.Contract;
+import model.Item;
+import model.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Snapshot sampleSnapshot() {
+        Member owner = new Member("Owner", "owner@example.com", "1");
+        Member borrower = new Member("B\u00f6rje", null, "2");
+        Item item = new Item("Kayak", "Two seats", "Outdoor", owner, 10);
+        owner.addItem(item);
+        Contract contract = new Contract(borrower, item, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 3));
+        return new Snapshot(7, 512, 3, LocalDate.of(2024, 4, 28), List.of(owner, borrower), new int[] {220, 80},
+                List.of(item), List.of(contract), 9);
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        Path file = tempDir.resolve("lending.snapshot");
+        Snapshot original = sampleSnapshot();
+        SnapshotFile.write(file, original);
+
+        Snapshot loaded = SnapshotFile.read(file);
+        assertEquals(7, loaded.getJournalSequence());
+        assertEquals(512, loaded.getJournalPosition());
+        assertEquals(3, loaded.getCurrentDay());
+        assertEquals(LocalDate.of(2024, 4, 28), loaded.getStartDate());
+        assertEquals(9, loaded.getLastContractId());
+
+        Member owner = loaded.getMembers().get(0);
+        Member borrower = loaded.getMembers().get(1);
+        assertEquals(original.getMembers().get(0).getMemberId(), owner.getMemberId());
+        assertEquals(220, owner.getCredits());
+        assertEquals("B\u00f6rje", borrower.getName());
+        assertNull(borrower.getEmail());
+        assertEquals(80, loaded.getMemberCredits(1));
+
+        Item item = loaded.getItems().get(0);
+        assertSame(owner, item.getOwner());
+        assertEquals(List.of(item), owner.getOwnedItems());
+        assertEquals(10, item.getCostPerDay());
+
+        Contract contract = loaded.getContracts().get(0);
+        assertEquals(original.getContracts().get(0).getContractId(), contract.getContractId());
+        assertSame(borrower, contract.getBorrower());
+        assertSame(item, contract.getItem());
+        assertEquals(20, contract.getCreditsTransferred());
+    }
+
+    @Test
+    void testTruncatedSnapshotIsRejected() throws IOException {
+        Path file = tempDir.resolve("lending.snapshot");
+        SnapshotFile.write(file, sampleSnapshot());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 2);
+        }
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+}
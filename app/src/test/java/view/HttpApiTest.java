@@ -0,0 +1,215 @@
+package view;
+
+import controller.LendingSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpApiTest {
+
+    private LendingSystem lendingSystem;
+    private HttpApi api;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lendingSystem = new LendingSystem();
+        api = HttpApi.start(lendingSystem,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        api.close();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + api.getPort() + path);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body)
+            throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testListAndFetchMembers() throws Exception {
+        HttpResponse<String> response = get("/members");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[{\"id\":1,\"name\":\"John Doe\""));
+        assertTrue(response.body().endsWith("}]"));
+
+        HttpResponse<String> page = get("/members?offset=1&limit=1");
+        assertTrue(page.body().startsWith("[{\"id\":2,\"name\":\"Jane Smith\""));
+        assertFalse(page.body().contains("Alice"));
+
+        HttpResponse<String> one = get("/members/3");
+        assertEquals(200, one.statusCode());
+        assertTrue(one.body().contains("\"email\":\"alice.brown@example.com\""));
+        assertEquals(404, get("/members/99").statusCode());
+        assertEquals(404, get("/members/abc").statusCode());
+    }
+
+    @Test
+    void testAddMemberAndItem() throws Exception {
+        HttpResponse<String> member = post("/members", "{\"name\":\"Eva \\\"Quotes\\\" Green\","
+                + "\"email\":\"eva@example.com\",\"phone\":\"111\"}");
+        assertEquals(201, member.statusCode());
+        assertTrue(member.body().startsWith("{\"id\":4,\"name\":\"Eva \\\"Quotes\\\" Green\""));
+        assertNotNull(lendingSystem.findMember("Eva \"Quotes\" Green"));
+
+        HttpResponse<String> item = post("/items",
+                "{\"owner\":\"John Doe\",\"name\":\"Drone\",\"description\":\"Camera drone\","
+                        + "\"category\":\"Electronic\",\"costPerDay\":15}");
+        assertEquals(201, item.statusCode());
+        assertNotNull(lendingSystem.findItem("Drone"));
+
+        assertEquals(404, post("/items", "{\"owner\":\"Nobody\",\"name\":\"Ghost\","
+                + "\"costPerDay\":1}").statusCode());
+        assertEquals(400, post("/items", "{\"owner\":\"John Doe\",\"name\":\"Kite\","
+                + "\"costPerDay\":\"cheap\"}").statusCode());
+        assertEquals(400, post("/members", "{\"email\":\"x@example.com\"}").statusCode());
+        assertEquals(400, post("/members", "not json").statusCode());
+    }
+
+    @Test
+    void testItemQueries() throws Exception {
+        HttpResponse<String> electronic = get("/items?category=Electronic");
+        assertTrue(electronic.body().contains("\"name\":\"Laptop\""));
+        assertTrue(electronic.body().contains("\"name\":\"Projector\""));
+        assertFalse(electronic.body().contains("\"name\":\"Tent\""));
+
+        HttpResponse<String> search = get("/items?q=camping");
+        assertTrue(search.body().contains("\"name\":\"Tent\""));
+        assertFalse(search.body().contains("\"name\":\"Laptop\""));
+
+        assertTrue(get("/items/2").body().contains("\"owner\":\"John Doe\""));
+
+        LocalDate today = lendingSystem.getCurrentDate();
+        HttpResponse<String> free = get("/items?category=Electronic&from=" + today
+                + "&to=" + today.plusDays(1));
+        assertTrue(free.body().contains("\"name\":\"Projector\""));
+        assertFalse(free.body().contains("\"name\":\"Laptop\""));
+        assertEquals(400, get("/items?from=" + today + "&to=" + today.minusDays(1)).statusCode());
+    }
+
+    @Test
+    void testBookingAndTime() throws Exception {
+        HttpResponse<String> booked = post("/contracts", "{\"borrower\":\"Alice Brown\","
+                + "\"item\":\"Tent\",\"startDate\":\"2030-01-01\",\"endDate\":\"2030-01-02\"}");
+        assertEquals(201, booked.statusCode());
+
+        HttpResponse<String> taken = post("/contracts", "{\"borrower\":\"John Doe\","
+                + "\"item\":\"Tent\",\"startDate\":\"2030-01-02\",\"endDate\":\"2030-01-03\"}");
+        assertEquals(409, taken.statusCode());
+        assertTrue(taken.body().startsWith("{\"error\":"));
+
+        assertEquals(400, post("/contracts", "{\"borrower\":\"John Doe\","
+                + "\"item\":\"Tent\",\"startDate\":\"soon\",\"endDate\":\"2030-01-03\"}")
+                .statusCode());
+
+        HttpResponse<String> contracts = get("/contracts");
+        assertTrue(contracts.body().contains("\"item\":\"Tent\",\"startDate\":\"2030-01-01\""));
+
+        HttpResponse<String> advanced = post("/time", "{\"days\":3}");
+        assertEquals(200, advanced.statusCode());
+        assertTrue(advanced.body().startsWith("{\"day\":3,"));
+        assertTrue(get("/time").body().startsWith("{\"day\":3,"));
+        assertEquals(400, post("/time", "{\"days\":0}").statusCode());
+    }
+
+    @Test
+    void testUnsupportedMethod() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/members/1"))
+                        .DELETE().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET", response.headers().firstValue("Allow").orElse(""));
+    }
+
+    @Test
+    void testOversizedBodyIsRejected() throws Exception {
+        String name = "x".repeat((1 << 20) + 1);
+        HttpResponse<String> response = post("/members", "{\"name\":\"" + name + "\"}");
+        assertEquals(413, response.statusCode());
+        assertEquals(3, lendingSystem.getMembers().size());
+    }
+
+    @Test
+    void testUnexpectedFailureIsAnsweredWith500(@TempDir Path tempDir) throws Exception {
+        LendingSystem archived = LendingSystem.open(tempDir.resolve("lending.journal"), null,
+                tempDir.resolve("lending.archive"));
+        archived.advanceDays(7);
+        archived.close(); // Reading the history now fails on the closed archive.
+        try (HttpApi archivedApi = HttpApi.start(archived,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + archivedApi.getPort() + "/contracts/history")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(500, response.statusCode());
+            assertEquals("{\"error\":\"Internal server error\"}", response.body());
+        }
+    }
+
+    @Test
+    void testConcurrentBookings() throws Exception {
+        int members = 32;
+        int bookings = 2_000;
+        for (int i = 0; i < members; i++) {
+            lendingSystem.addMember("Member " + i, "m" + i + "@example.com", "0");
+            lendingSystem.addItem("Member " + i, "Item " + i, "Thing", "Misc", 1);
+            lendingSystem.findMember("Member " + i).addCredits(1_000_000);
+        }
+        int contractsBefore = lendingSystem.getContracts().size();
+        LocalDate firstDay = LocalDate.of(2030, 1, 1);
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < bookings; i++) {
+                int booking = i;
+                statuses.add(clients.submit(() -> {
+                    LocalDate start = firstDay.plusDays(2L * (booking / members));
+                    String body = "{\"borrower\":\"Member " + booking % members
+                            + "\",\"item\":\"Item " + (booking + 1) % members
+                            + "\",\"startDate\":\"" + start + "\",\"endDate\":\"" + start + "\"}";
+                    return post("/contracts", body).statusCode();
+                }));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(201, status.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        assertEquals(contractsBefore + bookings, lendingSystem.getContracts().size());
+        assertTrue(lendingSystem.verifyCreditLedger().isConsistent());
+        HttpResponse<String> listing = get("/contracts");
+        assertEquals(contractsBefore + bookings, listing.body().split("\\{\"id\":").length - 1);
+    }
+}
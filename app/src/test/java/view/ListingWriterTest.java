@@ -0,0 +1,79 @@
+package view;
+
+import model.Contract;
+import model.Item;
+import model.Member;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static <T> String write(List<T> entries, int from, int count,
+            ListingWriter.EntryFormat<T> format) {
+        StringWriter buffer = new StringWriter();
+        PrintWriter out = new PrintWriter(buffer);
+        ListingWriter.writePage(out, entries, from, count, format);
+        out.flush();
+        return buffer.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    @Test
+    void testOutputMatchesDetailStrings() {
+        Member owner = new Member("Eva", "eva@example.com", "111");
+        Member borrower = new Member("Adam", "adam@example.com", "222");
+        Item item = new Item("Sled", "Wooden", "Winter", owner, 5);
+        Contract contract = new Contract(borrower, item, LocalDate.of(2030, 1, 1),
+                LocalDate.of(2030, 1, 2));
+
+        assertEquals("_______________________\n=== Member Details ===\n"
+                + owner.getMemberDetails() + "\n", write(List.of(owner), 0, 1,
+                ListingWriter.MEMBERS));
+        assertEquals("_______________________\n=== Item Details ===\n"
+                + item.getItemInfo() + "\n", write(List.of(item), 0, 1, ListingWriter.ITEMS));
+        assertEquals("_______________________\n=== Contract Details ===\n"
+                + contract.getContractInfo() + "\n", write(List.of(contract), 0, 1,
+                ListingWriter.CONTRACTS));
+    }
+
+    @Test
+    void testWritePageStopsAtEndOfList() {
+        List<String> entries = List.of("a", "b", "c", "d", "e");
+        ListingWriter.EntryFormat<String> format = PrintWriter::println;
+
+        assertEquals("c\nd\n", write(entries, 2, 2, format));
+        assertEquals("e\n", write(entries, 4, 10, format));
+        assertEquals("", write(entries, 5, 10, format));
+        assertEquals("a\nb\nc\nd\ne\n", write(entries, 0, Integer.MAX_VALUE, format));
+    }
+
+    @Test
+    void testWriteAllToFile() throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            entries.add("entry " + i);
+        }
+        Path file = tempDir.resolve("listing.txt");
+
+        assertEquals(10_000, ListingWriter.writeAll(file, "All", entries, PrintWriter::println));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(10_001, lines.size());
+        assertEquals("All", lines.get(0));
+        assertEquals("entry 9999", lines.get(10_000));
+    }
+}
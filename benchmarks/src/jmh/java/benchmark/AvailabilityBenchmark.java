@@ -0,0 +1,52 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import model.Contract;
+import model.Item;
+import model.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures availability checks on an item with a long contract history.
+ */
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int contracts;
+
+  private LendingSystem system;
+  private Item item;
+  private LocalDate[] queryDays;
+
+  /**
+   * Books the item on every other day, so half of the queried days are free.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    system = new LendingSystem();
+    Member owner = new Member("Owner", "owner@example.com", "0");
+    Member borrower = new Member("Borrower", "borrower@example.com", "0");
+    item = new Item("Popular", "Booked all the time", "Benchmark", owner, 0);
+    for (int i = 0; i < contracts; i++) {
+      LocalDate day = Datasets.FIRST_DAY.plusDays(2L * i);
+      item.addContract(new Contract(borrower, item, day, day));
+    }
+    queryDays = new LocalDate[1024];
+    for (int i = 0; i < queryDays.length; i++) {
+      queryDays[i] = Datasets.FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(2 * contracts));
+    }
+  }
+
+  @Benchmark
+  public boolean isItemAvailable() {
+    LocalDate day = queryDays[ThreadLocalRandom.current().nextInt(queryDays.length)];
+    return system.isItemAvailable(item, day, day);
+  }
+}
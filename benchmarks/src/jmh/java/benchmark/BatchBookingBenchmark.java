@@ -0,0 +1,110 @@
+package benchmark;
+
+import controller.BookingRequest;
+import controller.BookingResult;
+import controller.LendingSystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares booking a batch with {@link LendingSystem#createLendingContracts} against booking
+ * the same requests one call at a time, in memory and with a journal.
+ *
+ * <p>Every invocation books {@value #BATCH} requests for random members and items on days
+ * nobody has booked yet, so all of them succeed. Scores are per booking.
+ */
+@State(Scope.Benchmark)
+public class BatchBookingBenchmark {
+  private static final int BATCH = 1000;
+
+  @Param({"10000"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean journaled;
+
+  private LendingSystem system;
+  private Path directory;
+  private final Random random = new Random(42);
+  private long nextDay;
+
+  /**
+   * Builds the dataset, journaled if asked, and gives every member plenty of credits.
+   *
+   * @throws IOException if the journal cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    if (journaled) {
+      directory = Files.createTempDirectory("batch-booking");
+      system = LendingSystem.open(directory.resolve("lending.journal"));
+      system.runInBatch(() -> {
+        for (int i = 0; i < size; i++) {
+          system.addMember(Datasets.memberName(i), "member" + i + "@example.com", "0700" + i);
+          system.addItem(Datasets.memberName(i), Datasets.itemName(i), "Benchmark item " + i,
+              "Category " + (i % Datasets.CATEGORIES), 1);
+        }
+      });
+    } else {
+      system = Datasets.populated(size, false);
+    }
+    Datasets.topUpCredits(system, size);
+  }
+
+  /**
+   * Closes the journal and removes its directory.
+   *
+   * @throws IOException if the journal cannot be closed or removed
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    system.close();
+    if (directory != null) {
+      Files.deleteIfExists(directory.resolve("lending.journal"));
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  private List<BookingRequest> nextRequests() {
+    List<BookingRequest> requests = new ArrayList<>(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      LocalDate start = Datasets.FIRST_DAY.plusDays(2 * nextDay++);
+      requests.add(new BookingRequest(Datasets.memberName(random.nextInt(size)),
+          Datasets.itemName(random.nextInt(size)), start, start.plusDays(1)));
+    }
+    return requests;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public List<BookingResult> createLendingContracts() {
+    return system.createLendingContracts(nextRequests());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int singleBookingsInALoop() {
+    int created = 0;
+    for (BookingRequest request : nextRequests()) {
+      if (LendingSystem.CONTRACT_CREATED_SUCCESS_MESSAGE.equals(system.createLendingContract(
+          request.getBorrowerName(), request.getItemName(), request.getStartDate(),
+          request.getEndDate()))) {
+        created++;
+      }
+    }
+    return created;
+  }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures contract creation from one and from several threads.
+ *
+ * <p>Every booking picks a random borrower and item and a day nobody has booked yet, so bookings
+ * succeed and contend only on the locks of the members and items they touch.
+ */
+@State(Scope.Benchmark)
+public class BookingBenchmark {
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int size;
+
+  private LendingSystem system;
+  private String[] memberNames;
+  private String[] itemNames;
+  private final AtomicLong nextDay = new AtomicLong();
+
+  /**
+   * Builds the dataset and gives every member plenty of credits.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    system = Datasets.populated(size, false);
+    Datasets.topUpCredits(system, size);
+    memberNames = new String[size];
+    itemNames = new String[size];
+    for (int i = 0; i < size; i++) {
+      memberNames[i] = Datasets.memberName(i);
+      itemNames[i] = Datasets.itemName(i);
+    }
+  }
+
+  private String book() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LocalDate start = Datasets.FIRST_DAY.plusDays(2 * nextDay.getAndIncrement());
+    return system.createLendingContract(memberNames[random.nextInt(size)],
+        itemNames[random.nextInt(size)], start, start.plusDays(1));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String createLendingContract() {
+    return book();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String createLendingContract4Threads() {
+    return book();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public String createLendingContractAllCores() {
+    return book();
+  }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.time.LocalDate;
+
+/**
+ * Builds lending systems of a given size for the benchmarks.
+ */
+final class Datasets {
+  static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+  static final int CATEGORIES = 20;
+
+  private Datasets() {
+  }
+
+  static String memberName(int index) {
+    return "Member " + index;
+  }
+
+  static String itemName(int index) {
+    return "Item " + index;
+  }
+
+  /**
+   * Creates a system with the given number of members, each owning one item.
+   *
+   * @param size      the number of members and items
+   * @param contracts whether every item should also get one contract
+   * @return the populated system
+   */
+  static LendingSystem populated(int size, boolean contracts) {
+    LendingSystem system = new LendingSystem();
+    for (int i = 0; i < size; i++) {
+      system.addMember(memberName(i), "member" + i + "@example.com", "0700" + i);
+      system.addItem(memberName(i), itemName(i), "Benchmark item " + i,
+          "Category " + (i % CATEGORIES), 1);
+    }
+    if (contracts) {
+      for (int i = 0; i < size; i++) {
+        system.createLendingContract(memberName((i + 1) % size), itemName(i),
+            FIRST_DAY, FIRST_DAY.plusDays(1));
+      }
+    }
+    return system;
+  }
+
+  /**
+   * Gives every benchmark member enough credits to never be refused a booking.
+   *
+   * @param system the system to top up
+   * @param size   the number of benchmark members
+   */
+  static void topUpCredits(LendingSystem system, int size) {
+    for (int i = 0; i < size; i++) {
+      system.findMember(memberName(i)).addCredits(1_000_000_000);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import view.HttpApi;
+
+/**
+ * Measures request throughput of the HTTP API on loopback, with concurrent clients booking
+ * contracts and fetching members.
+ *
+ * <p>{@code threads} 0 runs the server on its default executor (virtual threads where the
+ * runtime has them); a positive value runs it on a fixed pool of that many threads.
+ */
+@State(Scope.Benchmark)
+public class HttpApiBenchmark {
+  private static final int SIZE = 10_000;
+
+  @Param({"0", "4", "32"})
+  public int threads;
+
+  private HttpApi api;
+  private HttpClient client;
+  private String base;
+  private final AtomicLong nextDay = new AtomicLong();
+
+  /**
+   * Builds the dataset and starts the server on a free loopback port.
+   *
+   * @throws IOException if the server cannot start
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    LendingSystem system = Datasets.populated(SIZE, false);
+    Datasets.topUpCredits(system, SIZE);
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    api = threads == 0 ? HttpApi.start(system, address) : HttpApi.start(system, address, threads);
+    client = HttpClient.newHttpClient();
+    base = "http://127.0.0.1:" + api.getPort();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    api.close();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public int createContract() throws IOException, InterruptedException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LocalDate start = Datasets.FIRST_DAY.plusDays(2 * nextDay.getAndIncrement());
+    String body = "{\"borrower\":\"" + Datasets.memberName(random.nextInt(SIZE))
+        + "\",\"item\":\"" + Datasets.itemName(random.nextInt(SIZE))
+        + "\",\"startDate\":\"" + start + "\",\"endDate\":\"" + start.plusDays(1) + "\"}";
+    HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/contracts"))
+        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public int getMember() throws IOException, InterruptedException {
+    int id = 1 + ThreadLocalRandom.current().nextInt(SIZE);
+    HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/members/" + id)).build();
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import model.Item;
+import model.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures name lookups of members and items, and member lookups from names typed in another
+ * case or with a typo.
+ */
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int size;
+
+  private LendingSystem system;
+  private String[] memberNames;
+  private String[] itemNames;
+  private String[] upperCaseNames;
+  private String[] misspelledNames;
+
+  /**
+   * Builds the dataset and the names to look up.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    system = Datasets.populated(size, false);
+    memberNames = new String[size];
+    itemNames = new String[size];
+    upperCaseNames = new String[size];
+    misspelledNames = new String[size];
+    for (int i = 0; i < size; i++) {
+      memberNames[i] = Datasets.memberName(i);
+      itemNames[i] = Datasets.itemName(i);
+      upperCaseNames[i] = memberNames[i].toUpperCase(Locale.ROOT);
+      // Drops the second letter, as in "Mmber 42".
+      misspelledNames[i] = memberNames[i].charAt(0) + memberNames[i].substring(2);
+    }
+  }
+
+  @Benchmark
+  public Member findMember() {
+    return system.findMember(memberNames[ThreadLocalRandom.current().nextInt(size)]);
+  }
+
+  @Benchmark
+  public Member lookupMemberIgnoringCase() {
+    return system.lookupMember(upperCaseNames[ThreadLocalRandom.current().nextInt(size)]);
+  }
+
+  @Benchmark
+  public List<Member> suggestMembers() {
+    return system.suggestMembers(misspelledNames[ThreadLocalRandom.current().nextInt(size)], 5);
+  }
+
+  @Benchmark
+  public Item findItem() {
+    return system.findItem(itemNames[ThreadLocalRandom.current().nextInt(size)]);
+  }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures full-text item searches.
+ */
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+  private static final int LIMIT = 20;
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int size;
+
+  private LendingSystem system;
+
+  /**
+   * Builds the dataset.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    system = Datasets.populated(size, false);
+  }
+
+  /**
+   * A whole word that occurs in every item combined with one that occurs in a single item.
+   */
+  @Benchmark
+  public List<Item> searchTwoTerms() {
+    return system.searchItems("item " + ThreadLocalRandom.current().nextInt(size), LIMIT);
+  }
+
+  /**
+   * A prefix that expands to a handful of words.
+   */
+  @Benchmark
+  public List<Item> searchPrefix() {
+    return system.searchItems("benchmark " + ThreadLocalRandom.current().nextInt(size / 10 + 1),
+        LIMIT);
+  }
+}
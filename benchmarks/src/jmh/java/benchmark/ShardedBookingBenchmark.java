@@ -0,0 +1,59 @@
+package benchmark;
+
+import controller.ShardedLendingSystem;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures booking throughput of a sharded system on all cores as the shard count grows.
+ *
+ * <p>Borrowers and items are picked at random, so with n shards about (n - 1) / n of the
+ * bookings cross shards and go through the two-phase transfer.
+ */
+@State(Scope.Benchmark)
+public class ShardedBookingBenchmark {
+  private static final int SIZE = 100_000;
+
+  @Param({"1", "2", "4", "8"})
+  public int shards;
+
+  private ShardedLendingSystem system;
+  private String[] memberNames;
+  private String[] itemNames;
+  private final AtomicLong nextDay = new AtomicLong();
+
+  /**
+   * Builds the dataset and gives every member plenty of credits.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    system = new ShardedLendingSystem(shards);
+    memberNames = new String[SIZE];
+    itemNames = new String[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      memberNames[i] = Datasets.memberName(i);
+      itemNames[i] = Datasets.itemName(i);
+      system.addMember(memberNames[i], "member" + i + "@example.com", "0700" + i);
+      system.addItem(memberNames[i], itemNames[i], "Benchmark item " + i,
+          "Category " + (i % Datasets.CATEGORIES), 1);
+      system.findMember(memberNames[i]).addCredits(1_000_000_000);
+    }
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public String createLendingContract() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LocalDate start = Datasets.FIRST_DAY.plusDays(2 * nextDay.getAndIncrement());
+    return system.createLendingContract(memberNames[random.nextInt(SIZE)],
+        itemNames[random.nextInt(SIZE)], start, start.plusDays(1));
+  }
+}
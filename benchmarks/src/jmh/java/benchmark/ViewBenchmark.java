@@ -0,0 +1,57 @@
+package benchmark;
+
+import controller.LendingSystem;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import view.View;
+
+/**
+ * Measures the console listings. Output goes to a discarding stream so only rendering is timed.
+ */
+@State(Scope.Benchmark)
+public class ViewBenchmark {
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int size;
+
+  private LendingSystem system;
+  private View view;
+  private PrintStream originalOut;
+
+  /**
+   * Builds the dataset and silences standard output.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    system = Datasets.populated(size, true);
+    view = new View();
+    originalOut = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.setOut(originalOut);
+  }
+
+  @Benchmark
+  public void displayAllMembers() {
+    view.displayAllMembers(system);
+  }
+
+  @Benchmark
+  public void displayAllItems() {
+    view.displayAllItems(system);
+  }
+
+  @Benchmark
+  public void displayAllContracts() {
+    view.displayAllContracts(system);
+  }
+}